@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+#
+# Compares startup time and resident memory of the plain executable jar against the
+# CDS/AOT build produced by `mvn -Pfast-startup -DskipTests verify`.
+#
+# Usage: scripts/measure-startup.sh <executable-jar> <fast-startup-dir> [runs]
+#
+# Startup is measured as wall time from launching the JVM until /actuator/health/liveness
+# answers; RSS is read from /proc at that moment. Warm-up is disabled so only startup is
+# measured.
+set -euo pipefail
+
+JAR=$(realpath "$1")
+DIR=$(realpath "$2")
+RUNS=${3:-3}
+JAVA=${JAVA:-java}
+PORT=${PORT:-18080}
+APP_JAR=$(basename "$JAR")
+APP_ARGS=(--server.port="$PORT" --invoice.warmup.enabled=false)
+
+measure() {
+    local label=$1; shift
+    local total_ms=0 total_rss=0 reported=""
+    for run in $(seq 1 "$RUNS"); do
+        local start pid elapsed_ms rss_kb
+        start=$(date +%s%N)
+        (cd "$DIR" && exec "$JAVA" "$@" "${APP_ARGS[@]}" > "$DIR/$label.log" 2>&1) &
+        pid=$!
+        until curl -sf "http://localhost:$PORT/actuator/health/liveness" > /dev/null; do
+            if ! kill -0 "$pid" 2> /dev/null; then
+                echo "$label: application exited during startup, see $DIR/$label.log" >&2
+                return 1
+            fi
+            sleep 0.02
+        done
+        elapsed_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+        rss_kb=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+        reported=$(grep -o 'Started [A-Za-z]* in [0-9.]* seconds' "$DIR/$label.log" | awk '{print $4}')
+        kill "$pid"
+        wait "$pid" 2> /dev/null || true
+        total_ms=$((total_ms + elapsed_ms))
+        total_rss=$((total_rss + rss_kb))
+    done
+    printf '%-10s %10d ms %10d MB %14s s\n' "$label" $((total_ms / RUNS)) $((total_rss / RUNS / 1024)) "$reported"
+}
+
+printf '%-10s %13s %13s %16s\n' "variant" "to liveness" "RSS" "Spring reported"
+measure baseline -jar "$JAR"
+measure cds -XX:SharedArchiveFile=application.jsa -jar "$APP_JAR"
+measure cds+aot -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$APP_JAR"
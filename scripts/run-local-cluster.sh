@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+#
+# Runs several instances of the application on this machine as one cluster: node i listens on
+# BASE_PORT + i, has invoice.node.id=i and keeps its data, sequence file and logs under
+# <dir>/node-i. Every node is given the full node list, so invoices can be generated on any of
+# them and GET /api/invoice/{invoiceNumber} on any node redirects to the one that issued it.
+# Ctrl-C stops all nodes.
+#
+# Usage: scripts/run-local-cluster.sh [nodes] [executable-jar]
+#        (default 3 nodes, target/invoice-generator-*.jar from `mvn -DskipTests package`)
+#
+# Environment: BASE_PORT (8080), CLUSTER_DIR (target/cluster), JAVA, JAVA_OPTS, and
+# APP_ARGS for extra --property=value arguments passed to every node.
+set -euo pipefail
+
+NODES=${1:-3}
+JAR=$(realpath "${2:-$(ls target/invoice-generator-*.jar | head -n 1)}")
+JAVA=${JAVA:-java}
+BASE_PORT=${BASE_PORT:-8080}
+CLUSTER_DIR=$(realpath -m "${CLUSTER_DIR:-target/cluster}")
+read -r -a EXTRA_ARGS <<< "${APP_ARGS:-}"
+read -r -a JVM_ARGS <<< "${JAVA_OPTS:-}"
+# Empty arrays are expanded as ${a[@]+"${a[@]}"} below: bash before 4.4 (macOS ships 3.2)
+# treats "${a[@]}" of an empty array as unbound under set -u.
+
+cluster_nodes=""
+urls=""
+for node in $(seq 0 $((NODES - 1))); do
+    cluster_nodes+="${cluster_nodes:+,}$node=http://localhost:$((BASE_PORT + node))"
+    urls+="${urls:+,}http://localhost:$((BASE_PORT + node))"
+done
+
+pids=()
+stop() {
+    trap - INT TERM EXIT
+    echo "Stopping ${#pids[@]} node(s)"
+    kill ${pids[@]+"${pids[@]}"} 2> /dev/null || true
+    wait ${pids[@]+"${pids[@]}"} 2> /dev/null || true
+}
+trap stop INT TERM EXIT
+
+for node in $(seq 0 $((NODES - 1))); do
+    dir="$CLUSTER_DIR/node-$node"
+    mkdir -p "$dir"
+    (cd "$dir" && exec "$JAVA" ${JVM_ARGS[@]+"${JVM_ARGS[@]}"} -jar "$JAR" \
+        --server.port=$((BASE_PORT + node)) \
+        --invoice.node.id="$node" \
+        --invoice.cluster.nodes="$cluster_nodes" \
+        ${EXTRA_ARGS[@]+"${EXTRA_ARGS[@]}"} > "$dir/console.log" 2>&1) &
+    pids+=($!)
+done
+
+for node in $(seq 0 $((NODES - 1))); do
+    url="http://localhost:$((BASE_PORT + node))"
+    until curl -sf "$url/actuator/health/readiness" > /dev/null; do
+        if ! kill -0 "${pids[$node]}" 2> /dev/null; then
+            echo "Node $node exited during startup, see $CLUSTER_DIR/node-$node/console.log" >&2
+            exit 1
+        fi
+        sleep 0.5
+    done
+    echo "Node $node ready at $url (pid ${pids[$node]})"
+done
+
+echo "Cluster: $cluster_nodes"
+echo "Load test all nodes: mvn -Ploadtest -DskipTests verify -Dspring-boot.start.skip=true -Dspring-boot.stop.skip=true -Dloadtest.url=$urls"
+wait "${pids[@]}"
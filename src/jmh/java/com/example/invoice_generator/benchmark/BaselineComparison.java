@@ -0,0 +1,97 @@
+package com.example.invoice_generator.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prints the current JMH results next to the stored baseline: score and normalized allocation
+ * per operation, with the relative change. With {@code updateBaseline=true} the current results
+ * replace the baseline afterwards.
+ *
+ * <pre>
+ * BaselineComparison &lt;baseline.json&gt; &lt;current.json&gt; [updateBaseline]
+ * </pre>
+ */
+public final class BaselineComparison {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path baselineFile = Path.of(args[0]);
+        Path currentFile = Path.of(args[1]);
+        boolean updateBaseline = args.length > 2 && Boolean.parseBoolean(args[2]);
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> current = index(mapper.readTree(currentFile.toFile()));
+
+        if (Files.exists(baselineFile)) {
+            Map<String, JsonNode> baseline = index(mapper.readTree(baselineFile.toFile()));
+            System.out.printf("%-90s %14s %14s %8s %14s %14s %8s%n",
+                    "Benchmark", "Baseline", "Current", "Change", "B alloc/op", "C alloc/op", "Change");
+            current.forEach((key, result) -> {
+                JsonNode previous = baseline.get(key);
+                double score = result.at("/primaryMetric/score").asDouble();
+                double alloc = allocPerOp(result);
+                if (previous == null) {
+                    System.out.printf("%-90s %14s %14.3f %8s %14s %14.0f %8s%n",
+                            key, "-", score, "new", "-", alloc, "new");
+                    return;
+                }
+                double previousScore = previous.at("/primaryMetric/score").asDouble();
+                double previousAlloc = allocPerOp(previous);
+                System.out.printf("%-90s %14.3f %14.3f %7.1f%% %14.0f %14.0f %7.1f%%%n",
+                        key, previousScore, score, change(previousScore, score),
+                        previousAlloc, alloc, change(previousAlloc, alloc));
+            });
+        } else {
+            System.out.println("No baseline at " + baselineFile + "; run with -Djmh.updateBaseline=true to create one");
+        }
+
+        if (updateBaseline) {
+            Files.createDirectories(baselineFile.getParent());
+            Files.copy(currentFile, baselineFile, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline updated: " + baselineFile);
+        }
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asText()
+                    .replace("com.example.invoice_generator.", ""))
+                    .append(" [").append(result.get("mode").asText()).append(", ")
+                    .append(result.at("/primaryMetric/scoreUnit").asText());
+            JsonNode params = result.get("params");
+            if (params != null) {
+                params.fields().forEachRemaining(p -> key.append(", ").append(p.getKey()).append('=')
+                        .append(p.getValue().asText()));
+            }
+            byKey.put(key.append(']').toString(), result);
+        }
+        return byKey;
+    }
+
+    private static double allocPerOp(JsonNode result) {
+        JsonNode secondary = result.get("secondaryMetrics");
+        if (secondary == null) {
+            return Double.NaN;
+        }
+        // Older JMH versions prefix profiler metrics with a middle dot.
+        JsonNode metric = secondary.has(ALLOC_NORM) ? secondary.get(ALLOC_NORM) : secondary.get("·" + ALLOC_NORM);
+        return metric == null ? Double.NaN : metric.get("score").asDouble();
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? Double.NaN : (after - before) * 100.0 / before;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Dealer;
+import com.example.invoice_generator.dto.Invoice;
+import com.example.invoice_generator.dto.Vehicle;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Fixed sample data shared by the benchmarks, so results are comparable between runs.
+ */
+final class BenchmarkData {
+
+    static final String TRANSACTION_ID = "TXN-3F2A9C1B-7D4E-4A";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Metrics backed by an in-memory registry, so instrumentation cost is part of the measurement.
+     */
+    static InvoiceMetrics metrics() {
+        return new InvoiceMetrics(new SimpleMeterRegistry(), 50);
+    }
+
+    /**
+     * Catalog seeded with the demo data in a fresh temporary directory.
+     */
+    static CatalogService catalog() {
+        try {
+            Path dir = Files.createTempDirectory("catalog-bench");
+            return new CatalogService(dir.resolve("catalog.bin").toString(), "", "",
+                    dir.resolve("import").toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Engine over the rule table shipped in the application resources.
+     */
+    static GstEngine gstEngine() {
+        return new GstEngine(new ClassPathResource("tax/gst-rates.csv"));
+    }
+
+    /**
+     * Registry with only the built-in default template.
+     */
+    static InvoiceTemplateRegistry templates() {
+        return new InvoiceTemplateRegistry(new ObjectMapper(), "");
+    }
+
+    static InvoiceNumberAllocator invoiceNumberAllocator() {
+        try {
+            Path dir = Files.createTempDirectory("sequence-bench");
+            return new InvoiceNumberAllocator(dir.resolve("invoice-number.seq").toString(), 1000, 0,
+                    InvoiceNumberAllocator.DEFAULT_NODE_RANGE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Dealer dealer() {
+        return Dealer.builder()
+                .dealerId("D001")
+                .dealerName("Premium Auto Sales")
+                .address("123 Main Street")
+                .city("Mumbai")
+                .state("Maharashtra")
+                .zipCode("400001")
+                .phone("+91-22-1234-5678")
+                .email("contact@premiumauto.com")
+                .gstNumber("27AABCU9603R1ZX")
+                .build();
+    }
+
+    static Vehicle vehicle() {
+        return Vehicle.builder()
+                .vehicleId("V001")
+                .make("Honda")
+                .model("City")
+                .year("2024")
+                .color("Pearl White")
+                .vin("1HGBH41JXMN109186")
+                .price(1250000.00)
+                .engineNumber("K15C-2401234")
+                .chassisNumber("MA3FEB81S00443821")
+                .vehicleClass("MID_CAR")
+                .build();
+    }
+
+    static Invoice invoice() {
+        return Invoice.builder()
+                .invoiceNumber("INV-20250101-000001")
+                .transactionId(TRANSACTION_ID)
+                .invoiceDate(LocalDateTime.of(2025, 1, 1, 10, 30))
+                .dealer(dealer())
+                .vehicle(vehicle())
+                .customerName("Benchmark Customer")
+                .tax(gstEngine().quote(Money.toPaise(1250000.00), "MID_CAR", false))
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.TaxQuote;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing 10,000 vehicles through the columnar bulk path against one {@link TaxQuote} per
+ * vehicle, plus the cost of formatting an amount for the PDF.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GstEngineBenchmark {
+
+    private static final int VEHICLES = 10_000;
+    private static final String[] CLASSES = {"SMALL_CAR_PETROL", "MID_CAR", "SUV", "EV", null};
+
+    private GstEngine engine;
+    private long[] basePaise;
+    private String[] vehicleClasses;
+    private int[] classIndexes;
+    private TaxQuotes quotes;
+
+    @Setup
+    public void setUp() {
+        engine = BenchmarkData.gstEngine();
+        basePaise = new long[VEHICLES];
+        vehicleClasses = new String[VEHICLES];
+        classIndexes = new int[VEHICLES];
+        for (int i = 0; i < VEHICLES; i++) {
+            basePaise[i] = 50_000_000L + i * 10_007L;
+            vehicleClasses[i] = CLASSES[i % CLASSES.length];
+            classIndexes[i] = engine.classIndex(vehicleClasses[i]);
+        }
+        quotes = new TaxQuotes(VEHICLES);
+    }
+
+    @Benchmark
+    public TaxQuotes bulkQuote() {
+        engine.quote(basePaise, classIndexes, false, quotes);
+        return quotes;
+    }
+
+    @Benchmark
+    public void singleQuotes(Blackhole blackhole) {
+        for (int i = 0; i < VEHICLES; i++) {
+            blackhole.consume(engine.quote(basePaise[i], vehicleClasses[i], false));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String formatAmount() {
+        return Money.format(basePaise[42]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String stringFormatAmount() {
+        return String.format("₹ %.2f", basePaise[42] / 100.0);
+    }
+}
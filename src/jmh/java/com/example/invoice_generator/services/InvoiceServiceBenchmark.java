@@ -0,0 +1,55 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.PdfOutputProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end: catalog lookup, numbering, QR encoding and PDF rendering into a byte array.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoiceServiceBenchmark {
+
+    @Param({"VECTOR", "PNG"})
+    private QRCodeRenderMode qrCodeRenderMode;
+
+    private InvoiceService invoiceService;
+
+    @Setup
+    public void setUp() {
+        invoiceService = new InvoiceService(
+                new PDFGenerator(new LayoutFragmentCache(), BenchmarkData.templates(), BenchmarkData.metrics()),
+                new QRCodeGenerator(),
+                BenchmarkData.catalog(),
+                BenchmarkData.invoiceNumberAllocator(),
+                new TransactionIdGenerator(0),
+                new PdfOutputProfiles(PdfOutputProfile.BALANCED, ""),
+                BenchmarkData.gstEngine(),
+                DealerRenderScheduler.unbounded(BenchmarkData.metrics()),
+                RenderPool.callerRuns(),
+                InvoiceLogSampler.silent(),
+                BenchmarkData.metrics(),
+                qrCodeRenderMode);
+    }
+
+    @Benchmark
+    public byte[] generateInvoice() {
+        return invoiceService.generateInvoice("D001", "V001", "Benchmark Customer");
+    }
+}
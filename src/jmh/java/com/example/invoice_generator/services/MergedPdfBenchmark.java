@@ -0,0 +1,86 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Invoice;
+import com.example.invoice_generator.dto.PdfOutputProfile;
+import com.google.zxing.common.BitMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One merged document of {@code count} invoices against {@code count} separate documents.
+ * Total output sizes for both are printed at the end of each trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MergedPdfBenchmark {
+
+    @Param({"10", "100"})
+    private int count;
+
+    private PDFGenerator pdfGenerator;
+    private QRCodeGenerator qrCodeGenerator;
+    private List<Invoice> invoices;
+    private ByteArrayOutputStream out;
+    private long separateBytes;
+
+    @Setup
+    public void setUp() {
+        pdfGenerator = new PDFGenerator(new LayoutFragmentCache(), BenchmarkData.templates(), BenchmarkData.metrics());
+        qrCodeGenerator = new QRCodeGenerator();
+        invoices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Invoice invoice = BenchmarkData.invoice();
+            invoice.setInvoiceNumber(invoice.getInvoiceNumber() + "-" + i);
+            invoice.setTransactionId(TransactionIdGenerator.format(0x1000L + i));
+            invoice.setOutputProfile(PdfOutputProfile.BALANCED);
+            invoices.add(invoice);
+        }
+        out = new ByteArrayOutputStream(count * 16 * 1024);
+    }
+
+    @Benchmark
+    public void merged() {
+        out.reset();
+        pdfGenerator.generateMergedPDF(invoices, PdfOutputProfile.BALANCED,
+                invoice -> qrCodeGenerator.encodeMatrix(invoice.getTransactionId()), out);
+    }
+
+    @Benchmark
+    public void separate() {
+        separateBytes = 0;
+        for (Invoice invoice : invoices) {
+            out.reset();
+            BitMatrix qrMatrix = qrCodeGenerator.encodeMatrix(invoice.getTransactionId());
+            pdfGenerator.generatePDF(invoice, qrMatrix, out);
+            separateBytes += out.size();
+        }
+    }
+
+    @TearDown
+    public void reportSize() {
+        if (separateBytes > 0) {
+            System.out.printf("%nseparate x%d: %d bytes%n", count, separateBytes);
+        } else {
+            System.out.printf("%nmerged x%d: %d bytes%n", count, out.size());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Invoice;
+import com.google.zxing.common.BitMatrix;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Image;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-document rendering plus one benchmark per section method. Section benchmarks open and
+ * close a document around the call; {@link #emptyDocument()} measures that fixed overhead so it
+ * can be subtracted.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PDFGeneratorBenchmark {
+
+    private LayoutFragmentCache fragmentCache;
+    private InvoiceTemplate template;
+    private PDFGenerator pdfGenerator;
+    private Invoice invoice;
+    private BitMatrix qrMatrix;
+    private byte[] qrPng;
+
+    @Setup
+    public void setUp() {
+        QRCodeGenerator qrCodeGenerator = new QRCodeGenerator();
+        fragmentCache = new LayoutFragmentCache();
+        InvoiceTemplateRegistry templates = BenchmarkData.templates();
+        pdfGenerator = new PDFGenerator(fragmentCache, templates, BenchmarkData.metrics());
+        invoice = BenchmarkData.invoice();
+        template = templates.templateFor(invoice.getDealer().getDealerId());
+        qrMatrix = qrCodeGenerator.encodeMatrix(invoice.getTransactionId());
+        qrPng = qrCodeGenerator.generateQRCode(invoice.getTransactionId());
+    }
+
+    @Benchmark
+    public void generatePdfVectorQr() {
+        pdfGenerator.generatePDF(invoice, qrMatrix, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void generatePdfPngQr() {
+        pdfGenerator.generatePDF(invoice, qrPng, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void emptyDocument() {
+        try (Document document = newDocument()) {
+            document.getPdfDocument().addNewPage();
+        }
+    }
+
+    @Benchmark
+    public void importFragments() {
+        try (Document document = newDocument()) {
+            document.getPdfDocument().addNewPage();
+            fragmentCache.fragmentsFor(invoice.getDealer(), template, document.getPdfDocument());
+        }
+    }
+
+    @Benchmark
+    public void addHeader() {
+        try (Document document = newDocument()) {
+            pdfGenerator.addHeader(document, invoice, fragments(document));
+        }
+    }
+
+    @Benchmark
+    public void addDealerAndCustomerInfo() {
+        try (Document document = newDocument()) {
+            pdfGenerator.addDealerAndCustomerInfo(document, invoice, template, fragments(document));
+        }
+    }
+
+    @Benchmark
+    public void addVehicleDetails() {
+        try (Document document = newDocument()) {
+            pdfGenerator.addVehicleDetails(document, invoice, template);
+        }
+    }
+
+    @Benchmark
+    public void addPriceBreakdown() {
+        try (Document document = newDocument()) {
+            pdfGenerator.addPriceBreakdown(document, invoice, template);
+        }
+    }
+
+    @Benchmark
+    public void addQRCodeSectionVector() {
+        try (Document document = newDocument()) {
+            pdfGenerator.addQRCodeSection(document, invoice,
+                    pdfDoc -> pdfGenerator.createVectorQRCode(pdfDoc, qrMatrix));
+        }
+    }
+
+    @Benchmark
+    public void addQRCodeSectionPng() {
+        try (Document document = newDocument()) {
+            pdfGenerator.addQRCodeSection(document, invoice,
+                    pdfDoc -> new Image(ImageDataFactory.create(qrPng)));
+        }
+    }
+
+    @Benchmark
+    public void addFooter() {
+        try (Document document = newDocument()) {
+            pdfGenerator.addFooter(document, fragments(document));
+        }
+    }
+
+    private LayoutFragmentCache.Fragments fragments(Document document) {
+        return fragmentCache.fragmentsFor(invoice.getDealer(), template, document.getPdfDocument());
+    }
+
+    private static Document newDocument() {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()));
+        Document document = new Document(pdfDoc, PageSize.A4);
+        document.setMargins(30, 30, 30, 30);
+        return document;
+    }
+}
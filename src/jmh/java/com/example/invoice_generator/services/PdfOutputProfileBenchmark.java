@@ -0,0 +1,61 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Invoice;
+import com.example.invoice_generator.dto.PdfOutputProfile;
+import com.google.zxing.common.BitMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render time against output size for each {@link PdfOutputProfile}. The document size is
+ * printed at the end of each trial, since every render of the fixed invoice has the same size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PdfOutputProfileBenchmark {
+
+    @Param({"FAST", "BALANCED", "SMALLEST"})
+    private PdfOutputProfile outputProfile;
+
+    private PDFGenerator pdfGenerator;
+    private Invoice invoice;
+    private BitMatrix qrMatrix;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() {
+        pdfGenerator = new PDFGenerator(new LayoutFragmentCache(), BenchmarkData.templates(), BenchmarkData.metrics());
+        invoice = BenchmarkData.invoice();
+        invoice.setOutputProfile(outputProfile);
+        qrMatrix = new QRCodeGenerator().encodeMatrix(invoice.getTransactionId());
+        out = new ByteArrayOutputStream(16 * 1024);
+    }
+
+    @Benchmark
+    public void generatePdf() {
+        out.reset();
+        pdfGenerator.generatePDF(invoice, qrMatrix, out);
+    }
+
+    @TearDown
+    public void reportSize() {
+        System.out.printf("%n%s: %d bytes per invoice%n", outputProfile, out.size());
+    }
+}
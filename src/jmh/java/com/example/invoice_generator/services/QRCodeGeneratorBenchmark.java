@@ -0,0 +1,35 @@
+package com.example.invoice_generator.services;
+
+import com.google.zxing.common.BitMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QRCodeGeneratorBenchmark {
+
+    private final QRCodeGenerator qrCodeGenerator = new QRCodeGenerator();
+
+    @Benchmark
+    public byte[] generateQRCodePng() {
+        return qrCodeGenerator.generateQRCode(BenchmarkData.TRANSACTION_ID);
+    }
+
+    @Benchmark
+    public BitMatrix encodeMatrix() {
+        return qrCodeGenerator.encodeMatrix(BenchmarkData.TRANSACTION_ID);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.invoice_generator.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one load phase, recorded concurrently by the request threads.
+ * Response time is what a client saw, corrected for coordinated omission; service time is
+ * only the time from sending a request to its response and is kept for comparison.
+ */
+final class LatencyRecording {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder responseTime = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder serviceTime = new Recorder(SIGNIFICANT_DIGITS);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final LongAdder serviceNanos = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+
+    /**
+     * @param outcome               HTTP status code, or {@code timeout} / {@code io-error}
+     * @param responseNanos         from the request's intended start to its response
+     * @param serviceNanos          from sending the request to its response
+     * @param expectedIntervalNanos interval at which a closed-loop user expected to send, or 0
+     *                              when {@code responseNanos} is already measured from an intended start
+     */
+    void record(String outcome, long responseNanos, long serviceNanos, long expectedIntervalNanos) {
+        responseTime.recordValueWithExpectedInterval(responseNanos, expectedIntervalNanos);
+        serviceTime.recordValue(serviceNanos);
+        this.serviceNanos.add(serviceNanos);
+        requests.increment();
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long meanServiceNanos() {
+        long count = requests.sum();
+        return count == 0 ? 0 : serviceNanos.sum() / count;
+    }
+
+    /** Requests by outcome, sorted by outcome. */
+    Map<String, Long> outcomes() {
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return counts;
+    }
+
+    /** Requests that did not get a 2xx response. */
+    long errors() {
+        return outcomes().entrySet().stream()
+                .filter(entry -> !entry.getKey().startsWith("2") || entry.getKey().length() != 3)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+    }
+
+    /** Everything recorded so far; call once, after the phase has finished. */
+    Histogram responseTimes() {
+        return responseTime.getIntervalHistogram();
+    }
+
+    /** Everything recorded so far; call once, after the phase has finished. */
+    Histogram serviceTimes() {
+        return serviceTime.getIntervalHistogram();
+    }
+}
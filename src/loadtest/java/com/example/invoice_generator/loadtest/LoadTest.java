@@ -0,0 +1,216 @@
+package com.example.invoice_generator.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives an invoice generator instance over HTTP in open-loop and/or closed-loop mode (see
+ * {@link LoadTestMode}) and writes coordinated-omission-corrected latency percentiles,
+ * throughput and error rate per mode to a JSON results file, plus an HdrHistogram
+ * {@code .hgrm} percentile distribution per mode for plotting. Each mode gets an unmeasured
+ * warm-up first. Requests run on virtual threads, so the client itself never limits
+ * concurrency; {@link LoadTestBaseline} compares the results against the stored baseline.
+ *
+ * <pre>
+ * LoadTest [key=value ...]      (keys: see {@link LoadTestSettings})
+ * </pre>
+ */
+public final class LoadTest {
+
+    private final LoadTestSettings settings;
+    private final RequestMix mix;
+    private final List<URI> targets;
+    private final HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private LoadTest(LoadTestSettings settings, RequestMix mix, HttpClient client) {
+        this.settings = settings;
+        this.mix = mix;
+        this.targets = settings.urls().stream().map(url -> url.resolve(settings.scenario().path())).toList();
+        this.client = client;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        RequestMix mix = RequestMix.load(settings.dealersCsv(), settings.vehiclesCsv());
+        System.out.printf("Load test: %s against %s, %d dealers x %d vehicles%n",
+                settings.scenario().id(), settings.urls(), mix.dealerCount(), mix.vehicleCount());
+
+        List<LoadTestResult> results = new ArrayList<>();
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(settings.timeout())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build()) {
+            LoadTest loadTest = new LoadTest(settings, mix, client);
+            for (LoadTestMode mode : settings.modes()) {
+                results.add(loadTest.run(mode));
+            }
+        }
+
+        Path resultFile = settings.result();
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(resultFile.toFile(), results);
+        System.out.println("Results written to " + resultFile);
+    }
+
+    private LoadTestResult run(LoadTestMode mode) throws IOException, InterruptedException {
+        System.out.printf("%n%s: warming up for %s%n", mode.id(), settings.warmup());
+        LatencyRecording warmup = new LatencyRecording();
+        drive(mode, settings.warmup().toNanos(), warmup, 0);
+        // A closed-loop user would have sent its next request one mean cycle after the last.
+        long expectedInterval = mode == LoadTestMode.CLOSED
+                ? warmup.meanServiceNanos() + settings.thinkTime().toNanos()
+                : 0;
+
+        System.out.printf("%s: measuring for %s%n", mode.id(), settings.duration());
+        LatencyRecording recording = new LatencyRecording();
+        long elapsed = drive(mode, settings.duration().toNanos(), recording, expectedInterval);
+        Histogram responseTimes = recording.responseTimes();
+        Histogram serviceTimes = recording.serviceTimes();
+        LoadTestResult result = LoadTestResult.of(settings, mode, elapsed, recording, responseTimes, serviceTimes);
+        print(result);
+        writeHistogram(result, responseTimes);
+        return result;
+    }
+
+    /**
+     * Offers load for {@code durationNanos} and waits for the outstanding requests.
+     *
+     * @return nanoseconds from the first request until the last response
+     */
+    private long drive(LoadTestMode mode, long durationNanos, LatencyRecording recording, long expectedInterval)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (mode == LoadTestMode.OPEN) {
+                offerOpen(executor, start, end, random, recording);
+            } else {
+                offerClosed(executor, end, random, recording, expectedInterval);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void offerOpen(ExecutorService executor, long start, long end, SplittableRandom random,
+                           LatencyRecording recording) throws InterruptedException {
+        double intervalNanos = 1e9 / settings.rate();
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended - end >= 0) {
+                return;
+            }
+            HttpRequest request = request(random);
+            parkUntil(intended);
+            // Waiting here still counts: latency is measured from the intended start.
+            inFlight.acquire();
+            executor.execute(() -> {
+                try {
+                    send(request, intended, recording, 0);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    private void offerClosed(ExecutorService executor, long end, SplittableRandom random,
+                             LatencyRecording recording, long expectedInterval) {
+        long thinkNanos = settings.thinkTime().toNanos();
+        for (int user = 0; user < settings.users(); user++) {
+            SplittableRandom userRandom = random.split();
+            executor.execute(() -> {
+                while (System.nanoTime() - end < 0 && !Thread.currentThread().isInterrupted()) {
+                    send(request(userRandom), System.nanoTime(), recording, expectedInterval);
+                    if (thinkNanos > 0) {
+                        LockSupport.parkNanos(thinkNanos);
+                    }
+                }
+            });
+        }
+    }
+
+    private void send(HttpRequest request, long intendedStart, LatencyRecording recording, long expectedInterval) {
+        long sent = System.nanoTime();
+        String outcome;
+        try {
+            outcome = String.valueOf(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+        } catch (HttpTimeoutException e) {
+            outcome = "timeout";
+        } catch (IOException e) {
+            outcome = "io-error";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long done = System.nanoTime();
+        recording.record(outcome, done - intendedStart, done - sent, expectedInterval);
+    }
+
+    private HttpRequest request(SplittableRandom random) {
+        try {
+            URI target = targets.size() == 1 ? targets.get(0) : targets.get(random.nextInt(targets.size()));
+            return HttpRequest.newBuilder(target)
+                    .timeout(settings.timeout())
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(
+                            mapper.writeValueAsBytes(settings.scenario().body(mix, random))))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void parkUntil(long deadline) {
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static void print(LoadTestResult result) {
+        System.out.printf("%s: %d requests in %.1f s, %.1f req/s, %d errors (%.2f%%) %s%n",
+                result.name(), result.requests(), result.durationSeconds(), result.throughput(),
+                result.errors(), result.errorRate() * 100, result.outcomes());
+        System.out.printf("  %-16s %s%n", "response (ms)", format(result.latencyMs()));
+        System.out.printf("  %-16s %s%n", "service (ms)", format(result.serviceTimeMs()));
+    }
+
+    private static String format(Map<String, Double> percentiles) {
+        StringBuilder line = new StringBuilder();
+        percentiles.forEach((name, value) -> line.append(String.format("%s=%.1f  ", name, value)));
+        return line.toString().strip();
+    }
+
+    private void writeHistogram(LoadTestResult result, Histogram responseTimes) throws IOException {
+        Files.createDirectories(settings.histograms());
+        Path file = settings.histograms().resolve(result.name().replace(' ', '-').replace('/', '_') + ".hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            responseTimes.outputPercentileDistribution(out, 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.invoice_generator.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Compares load test results with the stored baseline, run by name, and exits with status 1 if
+ * any run regressed: p50, p99 or p99.9 response time more than {@code tolerance} above the
+ * baseline, throughput more than {@code tolerance} below it, or an error rate more than
+ * {@code errorTolerance} (absolute) above it. p99.99 and max are printed but not checked; a
+ * short run has too few samples that far into the tail to compare. With {@code updateBaseline=true} the
+ * current results replace the baseline instead of failing.
+ *
+ * <pre>
+ * LoadTestBaseline &lt;baseline.json&gt; &lt;current.json&gt; [updateBaseline] [tolerance] [errorTolerance]
+ * </pre>
+ */
+public final class LoadTestBaseline {
+
+    private static final List<String> CHECKED_PERCENTILES =
+            List.of(LoadTestResult.P50, LoadTestResult.P99, LoadTestResult.P999);
+
+    private LoadTestBaseline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path baselineFile = Path.of(args[0]);
+        Path currentFile = Path.of(args[1]);
+        boolean updateBaseline = args.length > 2 && Boolean.parseBoolean(args[2]);
+        double tolerance = args.length > 3 ? Double.parseDouble(args[3]) : 0.25;
+        double errorTolerance = args.length > 4 ? Double.parseDouble(args[4]) : 0.01;
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> current = index(mapper.readTree(currentFile.toFile()));
+        int regressions = 0;
+
+        if (Files.exists(baselineFile)) {
+            Map<String, JsonNode> baseline = index(mapper.readTree(baselineFile.toFile()));
+            System.out.printf("%-32s %-14s %12s %12s %8s%n", "Run", "Metric", "Baseline", "Current", "Change");
+            for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+                JsonNode previous = baseline.get(entry.getKey());
+                if (previous == null) {
+                    System.out.printf("%-32s %-14s %12s %12s %8s%n", entry.getKey(), "-", "-", "-", "new");
+                    continue;
+                }
+                JsonNode result = entry.getValue();
+                for (String percentile : CHECKED_PERCENTILES) {
+                    String metric = "latencyMs/" + percentile;
+                    regressions += compare(entry.getKey(), percentile + " ms", previous, result, metric,
+                            value -> value * (1 + tolerance), true);
+                }
+                regressions += compare(entry.getKey(), "throughput", previous, result, "throughput",
+                        value -> value * (1 - tolerance), false);
+                regressions += compare(entry.getKey(), "error rate", previous, result, "errorRate",
+                        value -> value + errorTolerance, true);
+            }
+        } else {
+            System.out.println("No baseline at " + baselineFile + "; run with -Dloadtest.updateBaseline=true to create one");
+        }
+
+        if (updateBaseline) {
+            Files.createDirectories(baselineFile.getParent());
+            Files.copy(currentFile, baselineFile, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline updated: " + baselineFile);
+        } else if (regressions > 0) {
+            System.out.printf("%d metric(s) regressed beyond %.0f%% of the baseline%n", regressions, tolerance * 100);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints one metric and returns 1 if it is past {@code limit} of the baseline value.
+     */
+    private static int compare(String run, String label, JsonNode baseline, JsonNode current, String metric,
+                               DoubleUnaryOperator limit, boolean higherIsWorse) {
+        double before = baseline.at("/" + metric).asDouble();
+        double after = current.at("/" + metric).asDouble();
+        double bound = limit.applyAsDouble(before);
+        boolean regressed = higherIsWorse ? after > bound : after < bound;
+        System.out.printf("%-32s %-14s %12.3f %12.3f %7.1f%%%s%n", run, label, before, after,
+                before == 0 ? Double.NaN : (after - before) * 100.0 / before, regressed ? "  REGRESSED" : "");
+        return regressed ? 1 : 0;
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byName = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            byName.put(result.get("name").asText(), result);
+        }
+        return byName;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.invoice_generator.loadtest;
+
+/**
+ * How load is offered.
+ */
+enum LoadTestMode {
+
+    /**
+     * Requests start on a fixed schedule ({@code rate} per second) whether or not earlier ones
+     * have finished, like independent customers. Latency is measured from the scheduled start,
+     * so time spent queued behind a slow server is counted instead of silently skipped.
+     */
+    OPEN("open"),
+
+    /**
+     * A fixed number of users each send a request, wait for the response and think before the
+     * next one, so the server's speed sets the rate. The histogram is corrected for the
+     * requests a stalled user would have sent, using the warm-up's mean cycle time as the
+     * expected interval.
+     */
+    CLOSED("closed");
+
+    private final String id;
+
+    LoadTestMode(String id) {
+        this.id = id;
+    }
+
+    static LoadTestMode of(String id) {
+        for (LoadTestMode mode : values()) {
+            if (mode.id.equals(id)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load test mode: " + id);
+    }
+
+    String id() {
+        return id;
+    }
+}
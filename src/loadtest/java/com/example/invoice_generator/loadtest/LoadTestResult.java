@@ -0,0 +1,72 @@
+package com.example.invoice_generator.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Summary of one measured load phase as written to the results file. Latencies are in
+ * milliseconds; {@code latencyMs} is the coordinated-omission-corrected response time and
+ * {@code serviceTimeMs} the raw send-to-response time.
+ *
+ * @param name       identifies the run in the baseline: scenario, mode and offered load
+ * @param offeredRate open loop only, requests per second
+ * @param users      closed loop only
+ */
+record LoadTestResult(String name, String scenario, String mode, Double offeredRate, Integer users,
+                      double durationSeconds, long requests, long errors, double errorRate,
+                      double throughput, Map<String, Long> outcomes,
+                      Map<String, Double> latencyMs, Map<String, Double> serviceTimeMs) {
+
+    static final String P50 = "p50";
+    static final String P90 = "p90";
+    static final String P99 = "p99";
+    static final String P999 = "p99.9";
+    static final String P9999 = "p99.99";
+    static final String MAX = "max";
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    static LoadTestResult of(LoadTestSettings settings, LoadTestMode mode, long elapsedNanos,
+                             LatencyRecording recording, Histogram responseTimes, Histogram serviceTimes) {
+        boolean open = mode == LoadTestMode.OPEN;
+        String load = open ? formatRate(settings.rate()) + "/s" : settings.users() + " users";
+        double seconds = elapsedNanos / 1e9;
+        long requests = recording.requests();
+        long errors = recording.errors();
+        return new LoadTestResult(
+                settings.scenario().id() + " " + mode.id() + " " + load,
+                settings.scenario().id(),
+                mode.id(),
+                open ? settings.rate() : null,
+                open ? null : settings.users(),
+                seconds,
+                requests,
+                errors,
+                requests == 0 ? 0 : (double) errors / requests,
+                requests / seconds,
+                recording.outcomes(),
+                percentiles(responseTimes),
+                percentiles(serviceTimes));
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        percentiles.put(P50, millis(histogram.getValueAtPercentile(50)));
+        percentiles.put(P90, millis(histogram.getValueAtPercentile(90)));
+        percentiles.put(P99, millis(histogram.getValueAtPercentile(99)));
+        percentiles.put(P999, millis(histogram.getValueAtPercentile(99.9)));
+        percentiles.put(P9999, millis(histogram.getValueAtPercentile(99.99)));
+        percentiles.put(MAX, millis(histogram.getMaxValue()));
+        return percentiles;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    private static String formatRate(double rate) {
+        return rate == Math.rint(rate) ? String.valueOf((long) rate) : String.valueOf(rate);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.invoice_generator.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test parameters, given as {@code key=value} arguments; later arguments win. Durations
+ * use the same format as the application properties ({@code 30s}, {@code 500ms}).
+ *
+ * <pre>
+ * url          base URL of the instance under test, or a comma-separated list
+ *              of cluster nodes to spread requests over   http://localhost:8080
+ * scenario     generate | tax-quote                       generate
+ * modes        open and/or closed, comma separated        open,closed
+ * rate         open loop: requests started per second     10
+ * max-in-flight open loop: requests outstanding at once   1000
+ * users        closed loop: concurrent users              4
+ * think-time   closed loop: pause between a user's requests 0ms
+ * warmup       unmeasured load before each mode           10s
+ * duration     measured load per mode                     30s
+ * timeout      per-request timeout                        10s
+ * seed         request mix seed                           1
+ * dealers-csv / vehicles-csv   catalog CSVs to draw IDs from (default: demo catalog)
+ * result       JSON results file                          target/loadtest-result.json
+ * histograms   directory for .hgrm percentile files       target/loadtest
+ * </pre>
+ */
+record LoadTestSettings(List<URI> urls, Scenario scenario, List<LoadTestMode> modes, double rate, int maxInFlight,
+                        int users, Duration thinkTime, Duration warmup, Duration duration, Duration timeout,
+                        long seed, Path dealersCsv, Path vehiclesCsv, Path result, Path histograms) {
+
+    static LoadTestSettings parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value: " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        LoadTestSettings settings = new LoadTestSettings(
+                Arrays.stream(values.getOrDefault("url", "http://localhost:8080").split(","))
+                        .map(String::trim)
+                        .map(URI::create)
+                        .toList(),
+                Scenario.of(values.getOrDefault("scenario", "generate")),
+                Arrays.stream(values.getOrDefault("modes", "open,closed").split(","))
+                        .map(String::trim)
+                        .map(LoadTestMode::of)
+                        .toList(),
+                Double.parseDouble(values.getOrDefault("rate", "10")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "1000")),
+                Integer.parseInt(values.getOrDefault("users", "4")),
+                duration(values, "think-time", "0ms"),
+                duration(values, "warmup", "10s"),
+                duration(values, "duration", "30s"),
+                duration(values, "timeout", "10s"),
+                Long.parseLong(values.getOrDefault("seed", "1")),
+                path(values, "dealers-csv", null),
+                path(values, "vehicles-csv", null),
+                path(values, "result", "target/loadtest-result.json"),
+                path(values, "histograms", "target/loadtest"));
+        if (settings.rate <= 0 || settings.maxInFlight <= 0 || settings.users <= 0) {
+            throw new IllegalArgumentException("rate, max-in-flight and users must be positive");
+        }
+        return settings;
+    }
+
+    private static Duration duration(Map<String, String> values, String key, String defaultValue) {
+        return DurationStyle.detectAndParse(values.getOrDefault(key, defaultValue));
+    }
+
+    private static Path path(Map<String, String> values, String key, String defaultValue) {
+        String value = values.getOrDefault(key, defaultValue);
+        return value == null || value.isBlank() ? null : Path.of(value);
+    }
+}
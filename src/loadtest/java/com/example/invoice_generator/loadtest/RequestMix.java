@@ -0,0 +1,144 @@
+package com.example.invoice_generator.loadtest;
+
+import com.example.invoice_generator.dto.InvoiceRequest;
+import com.example.invoice_generator.dto.PdfOutputProfile;
+import com.example.invoice_generator.dto.TaxQuoteRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Random request bodies drawn from the catalog: a uniformly chosen dealer and vehicle(s), a
+ * generated customer name, a buyer state that is the dealer's own half of the time (intra-state
+ * GST) and an explicit output profile for a quarter of the invoices.
+ *
+ * <p>Dealer and vehicle IDs come from the same CSV files as the catalog import, or from the
+ * built-in demo catalog when none are given.
+ */
+final class RequestMix {
+
+    private static final List<String> DEMO_DEALERS = List.of("D001", "D002");
+    private static final List<String> DEMO_VEHICLES = List.of("V001", "V002", "V003", "V004");
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Vivaan", "Aditya", "Ananya", "Diya", "Ishaan", "Kavya", "Meera", "Rohan", "Saanvi"};
+    private static final String[] LAST_NAMES = {
+            "Sharma", "Verma", "Iyer", "Reddy", "Patel", "Nair", "Gupta", "Singh", "Das", "Menon"};
+    private static final String[] STATES = {
+            "Maharashtra", "Delhi", "Karnataka", "Tamil Nadu", "Gujarat", "West Bengal"};
+    private static final int MAX_QUOTE_VEHICLES = 5;
+
+    private final List<String> dealerIds;
+    private final List<String> vehicleIds;
+
+    private RequestMix(List<String> dealerIds, List<String> vehicleIds) {
+        if (dealerIds.isEmpty() || vehicleIds.isEmpty()) {
+            throw new IllegalArgumentException("The load test needs at least one dealer and one vehicle");
+        }
+        this.dealerIds = dealerIds;
+        this.vehicleIds = vehicleIds;
+    }
+
+    /**
+     * @param dealersCsv  dealer CSV with a {@code dealerId} column, or {@code null} for the demo catalog
+     * @param vehiclesCsv vehicle CSV with a {@code vehicleId} column, or {@code null} for the demo catalog
+     */
+    static RequestMix load(Path dealersCsv, Path vehiclesCsv) throws IOException {
+        return new RequestMix(
+                dealersCsv != null ? readIds(dealersCsv, "dealerId") : DEMO_DEALERS,
+                vehiclesCsv != null ? readIds(vehiclesCsv, "vehicleId") : DEMO_VEHICLES);
+    }
+
+    int dealerCount() {
+        return dealerIds.size();
+    }
+
+    int vehicleCount() {
+        return vehicleIds.size();
+    }
+
+    InvoiceRequest invoiceRequest(SplittableRandom random) {
+        InvoiceRequest request = new InvoiceRequest();
+        request.setDealerId(pick(dealerIds, random));
+        request.setVehicleId(pick(vehicleIds, random));
+        request.setCustomerName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        request.setCustomerState(customerState(random));
+        if (random.nextInt(4) == 0) {
+            PdfOutputProfile[] profiles = PdfOutputProfile.values();
+            request.setOutputProfile(profiles[random.nextInt(profiles.length)]);
+        }
+        return request;
+    }
+
+    TaxQuoteRequest taxQuoteRequest(SplittableRandom random) {
+        int count = 1 + random.nextInt(MAX_QUOTE_VEHICLES);
+        List<String> vehicles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vehicles.add(pick(vehicleIds, random));
+        }
+        return new TaxQuoteRequest(pick(dealerIds, random), customerState(random), vehicles);
+    }
+
+    /** {@code null} (the dealer's own state) half of the time. */
+    private static String customerState(SplittableRandom random) {
+        return random.nextBoolean() ? null : STATES[random.nextInt(STATES.length)];
+    }
+
+    private static String pick(List<String> ids, SplittableRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    /**
+     * Reads one column of a catalog CSV; quoted fields may contain commas (addresses do).
+     */
+    private static List<String> readIds(Path file, String column) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IOException("Empty CSV file: " + file);
+            }
+            int index = split(header.replace("﻿", "")).indexOf(column);
+            if (index < 0) {
+                throw new IOException("No " + column + " column in " + file);
+            }
+            List<String> ids = new ArrayList<>();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                List<String> fields = split(line);
+                if (fields.size() > index && !fields.get(index).isBlank()) {
+                    ids.add(fields.get(index));
+                }
+            }
+            return ids;
+        }
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
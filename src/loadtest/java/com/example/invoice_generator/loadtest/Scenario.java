@@ -0,0 +1,45 @@
+package com.example.invoice_generator.loadtest;
+
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+
+/**
+ * The endpoint a load test drives and how its request bodies are drawn from the
+ * {@link RequestMix}. New endpoints are added here.
+ */
+enum Scenario {
+
+    GENERATE("generate", "/api/invoice/generate", RequestMix::invoiceRequest),
+    TAX_QUOTE("tax-quote", "/api/tax/quote", RequestMix::taxQuoteRequest);
+
+    private final String id;
+    private final String path;
+    private final BiFunction<RequestMix, SplittableRandom, Object> body;
+
+    Scenario(String id, String path, BiFunction<RequestMix, SplittableRandom, Object> body) {
+        this.id = id;
+        this.path = path;
+        this.body = body;
+    }
+
+    static Scenario of(String id) {
+        for (Scenario scenario : values()) {
+            if (scenario.id.equals(id)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario: " + id);
+    }
+
+    String id() {
+        return id;
+    }
+
+    String path() {
+        return path;
+    }
+
+    Object body(RequestMix mix, SplittableRandom random) {
+        return body.apply(mix, random);
+    }
+}
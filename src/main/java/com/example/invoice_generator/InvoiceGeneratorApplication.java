@@ -4,11 +4,13 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication(exclude = {
 		DataSourceAutoConfiguration.class,
 		HibernateJpaAutoConfiguration.class
 })
+@ImportRuntimeHints(InvoiceRuntimeHints.class)
 public class InvoiceGeneratorApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(InvoiceGeneratorApplication.class, args);
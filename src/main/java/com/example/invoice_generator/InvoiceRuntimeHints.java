@@ -0,0 +1,30 @@
+package com.example.invoice_generator;
+
+import com.example.invoice_generator.dto.BatchManifestEntry;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Ahead-of-time hints for what Spring cannot discover by itself: resources iText loads by
+ * name at runtime, and types serialized outside of controller signatures. They end up in the
+ * native-image configuration written by {@code process-aot} (see the {@code fast-startup}
+ * profile).
+ */
+class InvoiceRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Standard Type 1 font metrics and the glyph list behind the Helvetica used in every invoice.
+        hints.resources()
+                .registerPattern("com/itextpdf/io/font/afm/*")
+                .registerPattern("com/itextpdf/io/font/AdobeGlyphList.txt")
+                .registerPattern("com/itextpdf/io/font/cmap/*");
+
+        // Written with ObjectMapper directly by BatchInvoiceService.
+        hints.reflection().registerType(BatchManifestEntry.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.DECLARED_FIELDS);
+    }
+}
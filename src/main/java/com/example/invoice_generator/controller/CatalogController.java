@@ -0,0 +1,48 @@
+package com.example.invoice_generator.controller;
+
+import com.example.invoice_generator.dto.CatalogImportRequest;
+import com.example.invoice_generator.services.CatalogService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/catalog")
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogController {
+
+    private final CatalogService catalogService;
+
+    @GetMapping
+    public ResponseEntity<CatalogService.CatalogStats> getStats() {
+        return ResponseEntity.ok(catalogService.stats());
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<CatalogService.CatalogStats> reload() {
+        try {
+            return ResponseEntity.ok(catalogService.reload());
+        } catch (Exception e) {
+            log.error("Error reloading catalog", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<CatalogService.CatalogStats> importCsv(@RequestBody CatalogImportRequest request) {
+        try {
+            return ResponseEntity.ok(catalogService.importCsv(
+                    catalogService.resolveImportFile(request.getDealersCsv()),
+                    catalogService.resolveImportFile(request.getVehiclesCsv())));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid catalog import request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error importing catalog", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
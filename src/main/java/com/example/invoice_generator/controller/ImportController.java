@@ -0,0 +1,95 @@
+package com.example.invoice_generator.controller;
+
+import com.example.invoice_generator.dto.InvoiceImport;
+import com.example.invoice_generator.dto.InvoiceImportRequest;
+import com.example.invoice_generator.services.InvoiceImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+@RestController
+@RequestMapping("/api/imports")
+@RequiredArgsConstructor
+@Slf4j
+public class ImportController {
+
+    private final InvoiceImportService importService;
+
+    @PostMapping
+    public ResponseEntity<InvoiceImport> start(@RequestBody InvoiceImportRequest request) {
+        try {
+            if (request.getFile() == null || request.getFile().isBlank()) {
+                throw new IllegalArgumentException("file is required");
+            }
+            InvoiceImport started = importService.start(request.getFile());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/imports/" + started.getImportId()))
+                    .body(started);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid import request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.error("Invoice imports unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            log.error("Error starting invoice import", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<InvoiceImport>> list() {
+        return ResponseEntity.ok(importService.list());
+    }
+
+    @GetMapping("/{importId}")
+    public ResponseEntity<InvoiceImport> get(@PathVariable String importId) {
+        return importService.find(importId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Per-row invoice numbers and errors; see {@code ImportJournal} for the line format.
+     */
+    @GetMapping("/{importId}/journal")
+    public ResponseEntity<Resource> journal(@PathVariable String importId) {
+        return importService.journal(importId)
+                .<ResponseEntity<Resource>>map(path -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType("text/csv"))
+                        .body(new FileSystemResource(path)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{importId}/pause")
+    public ResponseEntity<InvoiceImport> pause(@PathVariable String importId) {
+        return transition(importId, importService::pause);
+    }
+
+    @PostMapping("/{importId}/resume")
+    public ResponseEntity<InvoiceImport> resume(@PathVariable String importId) {
+        return transition(importId, importService::resume);
+    }
+
+    private ResponseEntity<InvoiceImport> transition(String importId,
+                                                     Function<String, Optional<InvoiceImport>> action) {
+        try {
+            return action.apply(importId)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            log.warn("Invoice import {} not changed: {}", importId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
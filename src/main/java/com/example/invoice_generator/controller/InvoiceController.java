@@ -2,8 +2,25 @@ package com.example.invoice_generator.controller;
 
 
 
+import com.example.invoice_generator.dto.Invoice;
+import com.example.invoice_generator.dto.InvoiceJob;
 import com.example.invoice_generator.dto.InvoiceRequest;
+import com.example.invoice_generator.dto.PdfOutputProfile;
+import com.example.invoice_generator.exception.AdmissionRejectedException;
+import com.example.invoice_generator.exception.IdempotencyConflictException;
+import com.example.invoice_generator.exception.JobQueueFullException;
+import com.example.invoice_generator.services.AdmissionLimiter;
+import com.example.invoice_generator.services.BatchInvoiceService;
+import com.example.invoice_generator.services.ClusterTopology;
+import com.example.invoice_generator.services.DealerRenderScheduler;
+import com.example.invoice_generator.services.IdempotencyService;
+import com.example.invoice_generator.services.InvoiceJobService;
 import com.example.invoice_generator.services.InvoiceService;
+import com.example.invoice_generator.services.InvoiceStore;
+import com.example.invoice_generator.services.QRCodeGenerator;
+import com.example.invoice_generator.services.StoredInvoice;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -11,10 +28,15 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/invoice")
@@ -23,45 +45,290 @@ import java.time.format.DateTimeFormatter;
 @Slf4j
 public class InvoiceController {
 
+    static final String INVOICE_NUMBER_HEADER = "X-Invoice-Number";
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final InvoiceService invoiceService;
+    private final BatchInvoiceService batchInvoiceService;
+    private final QRCodeGenerator qrCodeGenerator;
+    private final InvoiceStore invoiceStore;
+    private final IdempotencyService idempotencyService;
+    private final StoredInvoiceResponder storedInvoiceResponder;
+    private final InvoiceJobService invoiceJobService;
+    private final AdmissionLimiter admissionLimiter;
+    private final ClusterTopology clusterTopology;
 
     @PostMapping("/generate")
-    public ResponseEntity<byte[]> generateInvoice(@Valid @RequestBody InvoiceRequest request) {
+    public ResponseEntity<StreamingResponseBody> generateInvoice(
+            @Valid @RequestBody InvoiceRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) {
+        AdmissionLimiter.Permit permit = null;
+        DealerRenderScheduler.Slot slot = null;
+        boolean handedOff = false;
         try {
-            log.info("Received invoice generation request - DealerID: {}, VehicleID: {}, Customer: {}",
-                    request.getDealerId(), request.getVehicleId(), request.getCustomerName());
-
-            byte[] pdfBytes = invoiceService.generateInvoice(
-                    request.getDealerId(),
-                    request.getVehicleId(),
-                    request.getCustomerName()
-            );
+            log.atDebug()
+                    .addKeyValue("dealer", request.getDealerId())
+                    .addKeyValue("vehicle", request.getVehicleId())
+                    .log("Received invoice generation request");
+            permit = admissionLimiter.acquire();
 
             String filename = String.format("Invoice_%s_%s.pdf",
                     request.getVehicleId(),
                     LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")));
 
+            if (invoiceStore.isEnabled()) {
+                IdempotencyService.Outcome outcome = idempotencyKey == null
+                        ? new IdempotencyService.Outcome(generateAndStore(request), false)
+                        : idempotencyService.execute(idempotencyKey, fingerprint(request),
+                                () -> generateAndStore(request));
+                StoredInvoice stored = outcome.invoice();
+
+                httpResponse.setHeader(INVOICE_NUMBER_HEADER, stored.invoiceNumber());
+                if (outcome.replayed()) {
+                    httpResponse.setHeader(IDEMPOTENT_REPLAYED_HEADER, "true");
+                }
+                storedInvoiceResponder.send(stored, filename, httpRequest, httpResponse);
+                return null;
+            }
+
+            if (idempotencyKey != null) {
+                log.debug("Ignoring Idempotency-Key because the invoice store is disabled");
+            }
+
+            // The render happens after this method returns, so the render slot is taken here,
+            // where a long queue can still answer 429, and goes with the permit to the render.
+            slot = invoiceService.acquireSlot(request.getDealerId());
+
+            Invoice invoice = invoiceService.prepareInvoice(
+                    request.getDealerId(),
+                    request.getVehicleId(),
+                    request.getCustomerName(),
+                    request.getCustomerState(),
+                    request.getOutputProfile()
+            );
+
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("attachment", filename);
-            headers.setContentLength(pdfBytes.length);
             headers.setCacheControl("no-cache, no-store, must-revalidate");
             headers.setPragma("no-cache");
             headers.setExpires(0);
+            headers.set(INVOICE_NUMBER_HEADER, invoice.getInvoiceNumber());
 
-            log.info("Invoice generated successfully - Size: {} bytes", pdfBytes.length);
-
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+            AdmissionLimiter.Permit renderPermit = permit;
+            DealerRenderScheduler.Slot renderSlot = slot;
+            StreamingResponseBody body = out -> {
+                try (renderPermit) {
+                    invoiceService.renderInvoice(invoice, renderSlot, out);
+                } catch (RuntimeException e) {
+                    renderPermit.failed();
+                    throw e;
+                }
+            };
+            handedOff = true;
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
 
+        } catch (AdmissionRejectedException e) {
+            if (permit != null) {
+                // Timed out in the render queue; the wait says nothing about render latency.
+                permit.discard();
+            }
+            log.warn("Invoice request rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
         } catch (IllegalArgumentException e) {
             log.error("Invalid request: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (IdempotencyConflictException e) {
+            log.error("Idempotency conflict: {}", e.getMessage());
+            return ResponseEntity.unprocessableEntity().build();
         } catch (Exception e) {
+            if (permit != null) {
+                permit.failed();
+            }
             log.error("Error generating invoice", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } finally {
+            if (!handedOff) {
+                if (slot != null) {
+                    slot.close();
+                }
+                if (permit != null) {
+                    permit.close();
+                }
+            }
+        }
+    }
+
+    private StoredInvoice generateAndStore(InvoiceRequest request) {
+        Invoice invoice = invoiceService.prepareInvoice(
+                request.getDealerId(),
+                request.getVehicleId(),
+                request.getCustomerName(),
+                request.getCustomerState(),
+                request.getOutputProfile()
+        );
+        return invoiceStore.store(invoice.getInvoiceNumber(),
+                out -> invoiceService.renderInvoice(invoice, out));
+    }
+
+    private static String fingerprint(InvoiceRequest request) {
+        return request.getDealerId() + '\u0000' + request.getVehicleId() + '\u0000' + request.getCustomerName()
+                + '\u0000' + request.getCustomerState() + '\u0000' + request.getOutputProfile();
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<StreamingResponseBody> generateBatch(@RequestBody List<InvoiceRequest> requests) {
+        try {
+            batchInvoiceService.validateBatch(requests);
+            log.debug("Received batch invoice request - Items: {}", requests.size());
+
+            String filename = String.format("Invoices_%s.zip",
+                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")));
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.parseMediaType("application/zip"));
+            headers.setContentDispositionFormData("attachment", filename);
+            headers.setCacheControl("no-cache, no-store, must-revalidate");
+
+            StreamingResponseBody body = out -> batchInvoiceService.generateBatch(requests, out);
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid batch request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         }
     }
 
+    @PostMapping("/merged")
+    public ResponseEntity<StreamingResponseBody> generateMerged(
+            @RequestBody List<InvoiceRequest> requests,
+            @RequestParam(required = false) PdfOutputProfile outputProfile) {
+        AdmissionLimiter.Permit permit = null;
+        DealerRenderScheduler.Slot slot = null;
+        boolean handedOff = false;
+        try {
+            batchInvoiceService.validateMerged(requests);
+            // Admitted and queued before any invoice number is allocated, so a 429 does not waste numbers.
+            permit = admissionLimiter.acquire(requests.size());
+            slot = invoiceService.acquireMergedSlot(requests);
+            List<Invoice> invoices = batchInvoiceService.prepareMerged(requests);
+            log.debug("Received merged invoice request - Items: {}", invoices.size());
+
+            String filename = String.format("Invoices_%s.pdf",
+                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")));
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_PDF);
+            headers.setContentDispositionFormData("attachment", filename);
+            headers.setCacheControl("no-cache, no-store, must-revalidate");
+
+            AdmissionLimiter.Permit renderPermit = permit;
+            DealerRenderScheduler.Slot renderSlot = slot;
+            StreamingResponseBody body = out -> {
+                try (renderPermit) {
+                    invoiceService.renderMerged(invoices, outputProfile, renderSlot, out);
+                } catch (RuntimeException e) {
+                    renderPermit.failed();
+                    throw e;
+                }
+            };
+            handedOff = true;
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+
+        } catch (AdmissionRejectedException e) {
+            if (permit != null) {
+                // Timed out in the render queue; the wait says nothing about render latency.
+                permit.discard();
+            }
+            log.warn("Merged invoice request rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid merged request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            if (permit != null) {
+                permit.failed();
+            }
+            log.error("Error generating merged invoices", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } finally {
+            if (!handedOff) {
+                if (slot != null) {
+                    slot.close();
+                }
+                if (permit != null) {
+                    permit.close();
+                }
+            }
+        }
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<InvoiceJob> submitJob(@RequestBody InvoiceRequest request) {
+        try {
+            InvoiceJob job = invoiceJobService.submit(request);
+            log.debug("Invoice job accepted - Job: {}, Invoice: {}", job.getJobId(), job.getInvoiceNumber());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/invoice/jobs/" + job.getJobId()))
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid job request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (JobQueueFullException e) {
+            log.warn("Invoice job rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (IllegalStateException e) {
+            log.error("Invoice jobs unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<InvoiceJob> getJob(@PathVariable String jobId) {
+        return invoiceJobService.find(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{invoiceNumber}")
+    public void getInvoice(@PathVariable String invoiceNumber,
+                           HttpServletRequest httpRequest,
+                           HttpServletResponse httpResponse) throws IOException {
+        Optional<URI> owner = clusterTopology.remoteOwner(invoiceNumber);
+        if (owner.isPresent()) {
+            // Only the issuing node has the PDF; 307 keeps the method, so HEAD and range requests still work.
+            String query = httpRequest.getQueryString();
+            httpResponse.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            httpResponse.setHeader(HttpHeaders.LOCATION,
+                    owner.get() + httpRequest.getRequestURI() + (query == null ? "" : "?" + query));
+            return;
+        }
+        Optional<StoredInvoice> stored = invoiceStore.find(invoiceNumber);
+        if (stored.isEmpty()) {
+            httpResponse.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        storedInvoiceResponder.send(stored.get(), invoiceNumber + ".pdf", httpRequest, httpResponse);
+    }
+
+    @GetMapping(value = "/qr/{transactionId}", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getQRCode(@PathVariable String transactionId) {
+        byte[] pngBytes = qrCodeGenerator.generateQRCode(transactionId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .contentLength(pngBytes.length)
+                .body(pngBytes);
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("Invoice Generator Service is running");
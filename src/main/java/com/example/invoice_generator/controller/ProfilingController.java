@@ -0,0 +1,146 @@
+package com.example.invoice_generator.controller;
+
+import com.example.invoice_generator.services.FlightRecorderService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+
+/**
+ * Controls the JDK Flight Recorder recording. The endpoints answer 404 unless
+ * {@code invoice.profiling.admin-token} is set, and then only to requests that send that token
+ * in the {@value #TOKEN_HEADER} header.
+ */
+@RestController
+@RequestMapping("/api/admin/profiling")
+@Slf4j
+public class ProfilingController {
+
+    static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private final FlightRecorderService flightRecorderService;
+    private final byte[] adminToken;
+
+    public ProfilingController(FlightRecorderService flightRecorderService,
+                               @Value("${invoice.profiling.admin-token:}") String adminToken) {
+        this.flightRecorderService = flightRecorderService;
+        this.adminToken = adminToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @GetMapping
+    public ResponseEntity<FlightRecorderService.ProfilingStatus> getStatus(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token) {
+        HttpStatus denied = deny(token);
+        if (denied != null) {
+            return ResponseEntity.status(denied).build();
+        }
+        return ResponseEntity.ok(flightRecorderService.status());
+    }
+
+    @PostMapping("/start")
+    public ResponseEntity<FlightRecorderService.ProfilingStatus> start(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token) {
+        HttpStatus denied = deny(token);
+        if (denied != null) {
+            return ResponseEntity.status(denied).build();
+        }
+        try {
+            return ResponseEntity.ok(flightRecorderService.start());
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid profiling configuration: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error starting flight recording", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<FlightRecorderService.ProfilingStatus> stop(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token) {
+        HttpStatus denied = deny(token);
+        if (denied != null) {
+            return ResponseEntity.status(denied).build();
+        }
+        try {
+            return ResponseEntity.ok(flightRecorderService.stop());
+        } catch (Exception e) {
+            log.error("Error stopping flight recording", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Dumps the running recording; open the file with JDK Mission Control or {@code jfr print}.
+     * The dump is streamed from its temporary file, which is deleted once it has been sent.
+     */
+    @GetMapping("/recording.jfr")
+    public ResponseEntity<StreamingResponseBody> dump(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token) {
+        HttpStatus denied = deny(token);
+        if (denied != null) {
+            return ResponseEntity.status(denied).build();
+        }
+        Path file = null;
+        try {
+            file = flightRecorderService.dump();
+            long size = Files.size(file);
+            Path dumped = file;
+            StreamingResponseBody body = out -> {
+                try {
+                    Files.copy(dumped, out);
+                } finally {
+                    delete(dumped);
+                }
+            };
+            ResponseEntity<StreamingResponseBody> response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .contentLength(size)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=recording.jfr")
+                    .body(body);
+            file = null;
+            return response;
+        } catch (IllegalStateException e) {
+            log.warn("Flight recording dump requested while not recording");
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Error dumping flight recording", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } finally {
+            if (file != null) {
+                delete(file);
+            }
+        }
+    }
+
+    /**
+     * @return {@code null} if the request may use the profiling endpoints, otherwise the status to answer with
+     */
+    private HttpStatus deny(String token) {
+        if (adminToken.length == 0) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (token == null || !MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Rejected profiling request without a valid admin token");
+            return HttpStatus.FORBIDDEN;
+        }
+        return null;
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (Exception e) {
+            log.warn("Could not delete flight recording dump {}", file);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.invoice_generator.controller;
+
+import com.example.invoice_generator.dto.TaxQuoteRequest;
+import com.example.invoice_generator.dto.TaxQuoteResponse;
+import com.example.invoice_generator.services.TaxQuoteService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/tax")
+@CrossOrigin("*")
+@RequiredArgsConstructor
+@Slf4j
+public class TaxController {
+
+    private final TaxQuoteService taxQuoteService;
+
+    @PostMapping("/quote")
+    public ResponseEntity<TaxQuoteResponse> quote(@RequestBody TaxQuoteRequest request) {
+        try {
+            return ResponseEntity.ok(taxQuoteService.quote(request));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid tax quote request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error computing tax quote", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.invoice_generator.controller;
+
+import com.example.invoice_generator.services.InvoiceTemplateRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/templates")
+@RequiredArgsConstructor
+@Slf4j
+public class TemplateController {
+
+    private final InvoiceTemplateRegistry templateRegistry;
+
+    @GetMapping
+    public ResponseEntity<InvoiceTemplateRegistry.TemplateStats> getTemplates() {
+        return ResponseEntity.ok(templateRegistry.stats());
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<InvoiceTemplateRegistry.TemplateStats> reload() {
+        try {
+            return ResponseEntity.ok(templateRegistry.reload());
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid invoice template: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error reloading invoice templates", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
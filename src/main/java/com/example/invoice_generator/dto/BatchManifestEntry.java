@@ -0,0 +1,20 @@
+package com.example.invoice_generator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchManifestEntry {
+    private int index;
+    private String dealerId;
+    private String vehicleId;
+    private String status;
+    private String fileName;
+    private long sizeBytes;
+    private String error;
+}
@@ -0,0 +1,15 @@
+package com.example.invoice_generator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogImportRequest {
+
+    private String dealersCsv;
+
+    private String vehiclesCsv;
+}
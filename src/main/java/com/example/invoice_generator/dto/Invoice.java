@@ -18,8 +18,8 @@ public class Invoice {
     private Dealer dealer;
     private Vehicle vehicle;
     private String customerName;
-    private double basePrice;
-    private double taxAmount;
-    private double taxPercentage;
-    private double totalAmount;
+    /** Place of supply; {@code null} when the sale is within the dealer's state. */
+    private String customerState;
+    private TaxQuote tax;
+    private PdfOutputProfile outputProfile;
 }
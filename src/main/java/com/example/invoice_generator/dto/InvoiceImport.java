@@ -0,0 +1,40 @@
+package com.example.invoice_generator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceImport {
+
+    public enum Status { QUEUED, RUNNING, PAUSED, COMPLETED, FAILED }
+
+    private String importId;
+    private Status status;
+    private String source;
+    /** Rows rendered or failed so far. */
+    private long rowsProcessed;
+    private long rendered;
+    private long failed;
+    /** Rows whose render had reached the store when an earlier run was interrupted. */
+    private long recovered;
+    private long renderedBytes;
+    private long bytesRead;
+    private long sourceBytes;
+    private double percentComplete;
+    /** Rows processed per second since the current run started. */
+    private double rowsPerSecond;
+    private Long estimatedSecondsRemaining;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    private String error;
+    private List<String> recentFailures;
+}
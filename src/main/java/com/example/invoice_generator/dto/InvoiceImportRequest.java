@@ -0,0 +1,14 @@
+package com.example.invoice_generator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceImportRequest {
+
+    /** CSV file in invoice.import.source-directory with dealerId, vehicleId, customerName and optional customerState, outputProfile columns. */
+    private String file;
+}
@@ -0,0 +1,26 @@
+package com.example.invoice_generator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private String jobId;
+    private Status status;
+    private String invoiceNumber;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    private String downloadUrl;
+    private String error;
+}
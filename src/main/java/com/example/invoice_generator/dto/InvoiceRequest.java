@@ -19,4 +19,14 @@ public class InvoiceRequest {
 
     @NotBlank(message = "Customer name is required")
     private String customerName;
+
+    /** Optional; falls back to the dealer's configured profile, then the default. */
+    private PdfOutputProfile outputProfile;
+
+    /** Buyer's state, which decides CGST + SGST or IGST; optional, defaults to the dealer's state. */
+    private String customerState;
+
+    public InvoiceRequest(String dealerId, String vehicleId, String customerName) {
+        this(dealerId, vehicleId, customerName, null, null);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.example.invoice_generator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Declarative invoice template as read from {@code <invoice.templates.dir>/<id>.json}. Every
+ * field is optional; anything left out falls back to the built-in layout.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceTemplateDefinition {
+
+    /** Dealer IDs that use this template. The template named {@code default} applies to all others. */
+    private List<String> dealers;
+
+    private String title;
+
+    private String subtitle;
+
+    /** Heading and total-row colour, as {@code #RRGGBB}. */
+    private String primaryColor;
+
+    /** Label cell background, as {@code #RRGGBB}. */
+    private String shadeColor;
+
+    /** PNG or JPEG file, relative to the template directory. */
+    private String logo;
+
+    private Float logoHeight;
+
+    private List<String> terms;
+
+    private String closingNote;
+}
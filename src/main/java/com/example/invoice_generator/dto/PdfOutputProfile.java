@@ -0,0 +1,31 @@
+package com.example.invoice_generator.dto;
+
+/**
+ * Trade-off between render time and PDF size used when writing an invoice.
+ */
+public enum PdfOutputProfile {
+    /** Fastest deflate level, classic cross-reference table. */
+    FAST(1, false),
+    /** Default deflate level with object and cross-reference streams. */
+    BALANCED(-1, true),
+    /** Maximum deflate level with object and cross-reference streams. */
+    SMALLEST(9, true);
+
+    private final int compressionLevel;
+    private final boolean fullCompression;
+
+    PdfOutputProfile(int compressionLevel, boolean fullCompression) {
+        this.compressionLevel = compressionLevel;
+        this.fullCompression = fullCompression;
+    }
+
+    /** zlib level 1-9, or -1 for the zlib default. */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /** Whether objects are packed into compressed object streams with an xref stream. */
+    public boolean isFullCompression() {
+        return fullCompression;
+    }
+}
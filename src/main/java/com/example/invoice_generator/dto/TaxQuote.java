@@ -0,0 +1,21 @@
+package com.example.invoice_generator.dto;
+
+/**
+ * GST on one vehicle sale. Amounts are in paise and rates in basis points (1800 = 18%).
+ * Within a state the GST is split evenly into CGST and SGST; across states it is charged as
+ * IGST. The unused component is zero.
+ */
+public record TaxQuote(long basePaise,
+                       boolean interState,
+                       int gstRateBps,
+                       long cgstPaise,
+                       long sgstPaise,
+                       long igstPaise,
+                       int cessRateBps,
+                       long cessPaise,
+                       long totalPaise) {
+
+    public long taxPaise() {
+        return totalPaise - basePaise;
+    }
+}
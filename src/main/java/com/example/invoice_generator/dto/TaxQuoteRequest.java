@@ -0,0 +1,20 @@
+package com.example.invoice_generator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaxQuoteRequest {
+
+    private String dealerId;
+
+    /** Buyer's state; optional, defaults to the dealer's state. */
+    private String customerState;
+
+    private List<String> vehicleIds;
+}
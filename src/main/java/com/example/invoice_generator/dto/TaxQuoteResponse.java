@@ -0,0 +1,26 @@
+package com.example.invoice_generator.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Bulk quote in columns: element {@code i} of every array belongs to {@code vehicleIds[i]}.
+ * Amounts are in paise and rates in basis points, as in {@link TaxQuote}.
+ */
+@Data
+@Builder
+public class TaxQuoteResponse {
+    private String dealerId;
+    private boolean interState;
+    private List<String> vehicleIds;
+    private long[] basePaise;
+    private int[] gstRateBps;
+    private long[] cgstPaise;
+    private long[] sgstPaise;
+    private long[] igstPaise;
+    private int[] cessRateBps;
+    private long[] cessPaise;
+    private long[] totalPaise;
+}
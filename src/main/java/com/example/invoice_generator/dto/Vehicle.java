@@ -19,4 +19,6 @@ public class Vehicle {
     private double price;
     private String engineNumber;
     private String chassisNumber;
+    /** Key into the GST rate table, e.g. {@code SMALL_CAR_PETROL}; unknown or missing classes use its fallback row. */
+    private String vehicleClass;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.invoice_generator.exception;
+
+/**
+ * Thrown when a render is refused by the admission limiter because the service is at its
+ * concurrency limit or rendering memory budget. Carries a hint for the client's
+ * {@code Retry-After} header.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.invoice_generator.exception;
+
+/**
+ * Thrown when an {@code Idempotency-Key} is reused with a request body that differs from the
+ * one it was first seen with.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
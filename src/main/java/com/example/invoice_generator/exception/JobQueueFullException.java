@@ -0,0 +1,19 @@
+package com.example.invoice_generator.exception;
+
+/**
+ * Thrown when the invoice job queue is at capacity. Carries a hint for the client's
+ * {@code Retry-After} header.
+ */
+public class JobQueueFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public JobQueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
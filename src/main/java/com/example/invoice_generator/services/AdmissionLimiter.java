@@ -0,0 +1,320 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.exception.AdmissionRejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of synchronous invoice rendering.
+ *
+ * <p>Two limits apply and a request must fit under both:
+ * <ul>
+ *     <li>a concurrency limit adjusted AIMD style - it grows by {@code 1/limit} for every render
+ *     that finishes within {@code invoice.admission.latency-target} while the limit is in use,
+ *     and is cut by {@code invoice.admission.backoff-ratio} when a render is slower or fails
+ *     (at most once per target interval, so one slow burst is not punished repeatedly);</li>
+ *     <li>a memory budget - every render reserves {@code invoice.admission.bytes-per-render},
+ *     a merged document another {@code invoice.admission.bytes-per-merged-invoice} for each
+ *     invoice after the first, and the total reservation may not exceed
+ *     {@code invoice.admission.memory-budget}, which defaults to a quarter of the maximum heap.
+ *     A single reservation is capped at the whole budget, so a large document waits for an
+ *     otherwise idle service instead of being refused forever. The finished PDF is streamed
+ *     out through a bounded {@link RenderPool} pipe rather than buffered, so the reservation
+ *     only has to cover the render's working memory.</li>
+ * </ul>
+ * Interactive requests that do not fit are rejected immediately with
+ * {@link AdmissionRejectedException} instead of queueing behind work the JVM cannot absorb.
+ * Background work - jobs, batch items, import rows - goes through
+ * {@link #callWhenAdmitted}, which waits for room under the same limits instead.
+ */
+@Component
+@Slf4j
+public class AdmissionLimiter {
+
+    static final String REASON_CONCURRENCY = "concurrency";
+    static final String REASON_MEMORY = "memory";
+    static final String REASON_QUEUE_TIMEOUT = "queue_timeout";
+
+    /** Background waiters re-check at least this often, in case a wake-up was missed. */
+    private static final long AWAIT_RECHECK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** First pause before a background render that timed out in the render queue queues again; doubles each time. */
+    private static final long REQUEUE_BACKOFF_MIN_MILLIS = 100;
+
+    private final InvoiceMetrics metrics;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private final long bytesPerRender;
+    private final long bytesPerMergedInvoice;
+    private final long memoryBudget;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong averageLatencyNanos;
+    private final ReentrantLock limitLock = new ReentrantLock();
+    private final ReentrantLock awaitLock = new ReentrantLock();
+    private final Condition released = awaitLock.newCondition();
+    private final AtomicInteger awaiting = new AtomicInteger();
+    private volatile double limit;
+    private long lastDecreaseNanos;
+
+    public AdmissionLimiter(InvoiceMetrics metrics,
+                            @Value("${invoice.admission.initial-limit:0}") int initialLimit,
+                            @Value("${invoice.admission.min-limit:1}") int minLimit,
+                            @Value("${invoice.admission.max-limit:0}") int maxLimit,
+                            @Value("${invoice.admission.latency-target:500ms}") Duration latencyTarget,
+                            @Value("${invoice.admission.backoff-ratio:0.9}") double backoffRatio,
+                            @Value("${invoice.admission.bytes-per-render:8MB}") DataSize bytesPerRender,
+                            @Value("${invoice.admission.bytes-per-merged-invoice:128KB}") DataSize bytesPerMergedInvoice,
+                            @Value("${invoice.admission.memory-budget:0B}") DataSize memoryBudget) {
+        this.metrics = metrics;
+        int processors = Runtime.getRuntime().availableProcessors();
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit > 0 ? maxLimit : processors * 8);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit > 0 ? initialLimit : processors * 2));
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.bytesPerRender = bytesPerRender.toBytes();
+        this.bytesPerMergedInvoice = bytesPerMergedInvoice.toBytes();
+        this.memoryBudget = memoryBudget.toBytes() > 0
+                ? memoryBudget.toBytes()
+                : Runtime.getRuntime().maxMemory() / 4;
+        this.averageLatencyNanos = new AtomicLong(latencyTargetNanos / 2);
+        metrics.monitorAdmission(this);
+        log.info("Admission limiter configured - Limit: {} ({}-{}), Latency target: {}, Memory budget: {} MB",
+                (int) limit, this.minLimit, this.maxLimit, latencyTarget, this.memoryBudget >> 20);
+    }
+
+    /**
+     * Admits one render or throws. The returned permit must be released exactly once.
+     *
+     * @throws AdmissionRejectedException if either the concurrency limit or the memory budget is exhausted
+     */
+    public Permit acquire() {
+        return acquire(1);
+    }
+
+    /**
+     * Admits a document of {@code invoices} invoices, a merged PDF when more than one, or throws.
+     * It takes one unit of the concurrency limit and memory in proportion to its size.
+     *
+     * @throws AdmissionRejectedException if either the concurrency limit or the memory budget is exhausted
+     */
+    public Permit acquire(int invoices) {
+        long bytes = reservation(invoices);
+        String reason = tryAdmit(bytes);
+        if (reason != null) {
+            throw reject(reason, REASON_MEMORY.equals(reason)
+                    ? "Rendering memory budget exhausted"
+                    : "Concurrency limit reached");
+        }
+        return new Permit(System.nanoTime(), inFlight.get(), bytes);
+    }
+
+    /**
+     * Runs one background render under a permit, waiting for room under the limits instead of
+     * being rejected: nobody is waiting on a response, so there is nothing to turn away. For the
+     * same reason, when the {@link DealerRenderScheduler} times {@code work} out the permit is
+     * given back and {@code work} queues again after a backoff, so {@code work} must not have
+     * written anything before it takes its render slot. A render that never started says nothing
+     * about how fast renders are, so such a permit is {@linkplain Permit#discard discarded}
+     * rather than counted as slow or failed; otherwise a background backlog would keep cutting
+     * the limit and turn away the interactive traffic it is meant to yield to. The permit is
+     * marked failed if {@code work} throws anything but {@link IllegalArgumentException}.
+     *
+     * @throws IllegalStateException if interrupted while waiting
+     */
+    public <T> T callWhenAdmitted(Supplier<T> work) {
+        long backoffMillis = REQUEUE_BACKOFF_MIN_MILLIS;
+        while (true) {
+            long maxBackoffMillis;
+            try (Permit permit = await(reservation(1))) {
+                try {
+                    return work.get();
+                } catch (AdmissionRejectedException e) {
+                    permit.discard();
+                    maxBackoffMillis = TimeUnit.SECONDS.toMillis(Math.max(1, e.getRetryAfterSeconds()));
+                    log.atDebug()
+                            .addKeyValue("reason", e.getMessage())
+                            .addKeyValue("backoffMs", backoffMillis)
+                            .log("Background render timed out in the render queue, queueing again");
+                } catch (IllegalArgumentException e) {
+                    throw e;
+                } catch (RuntimeException | Error e) {
+                    permit.failed();
+                    throw e;
+                }
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(Math.min(backoffMillis, maxBackoffMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting to queue a render again", e);
+            }
+            backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+        }
+    }
+
+    private Permit await(long bytes) {
+        String reason = tryAdmit(bytes);
+        if (reason != null) {
+            awaiting.incrementAndGet();
+            awaitLock.lock();
+            try {
+                while ((reason = tryAdmit(bytes)) != null) {
+                    released.awaitNanos(AWAIT_RECHECK_NANOS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for admission", e);
+            } finally {
+                awaitLock.unlock();
+                awaiting.decrementAndGet();
+            }
+        }
+        return new Permit(System.nanoTime(), inFlight.get(), bytes);
+    }
+
+    /**
+     * Takes a unit of concurrency and {@code bytes} of the memory budget.
+     *
+     * @return {@code null} if admitted, otherwise the reason it was not
+     */
+    private String tryAdmit(long bytes) {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                return REASON_CONCURRENCY;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        if (reservedBytes.addAndGet(bytes) > memoryBudget) {
+            reservedBytes.addAndGet(-bytes);
+            inFlight.decrementAndGet();
+            return REASON_MEMORY;
+        }
+        return null;
+    }
+
+    private long reservation(int invoices) {
+        return Math.min(memoryBudget, bytesPerRender + Math.max(0, invoices - 1) * bytesPerMergedInvoice);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getReservedBytes() {
+        return reservedBytes.get();
+    }
+
+    private AdmissionRejectedException reject(String reason, String message) {
+        metrics.recordRejection(reason);
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(averageLatencyNanos.get()) + 1);
+        return new AdmissionRejectedException(message, retryAfter);
+    }
+
+    private void onComplete(long latencyNanos, int inFlightAtStart, long bytes, boolean success) {
+        release(bytes);
+        averageLatencyNanos.getAndUpdate(avg -> avg + (latencyNanos - avg) / 8);
+
+        int decreasedTo = -1;
+        // A ReentrantLock rather than a monitor: a virtual thread blocked on a monitor pins its
+        // carrier, and enough of them can leave no carrier for the thread holding the lock.
+        limitLock.lock();
+        try {
+            if (!success || latencyNanos > latencyTargetNanos) {
+                long now = System.nanoTime();
+                if (now - lastDecreaseNanos >= latencyTargetNanos) {
+                    lastDecreaseNanos = now;
+                    double previous = limit;
+                    limit = Math.max(minLimit, previous * backoffRatio);
+                    if ((int) limit != (int) previous) {
+                        decreasedTo = (int) limit;
+                    }
+                }
+            } else if (inFlightAtStart * 2 >= (int) limit) {
+                // Only grow while the limit is actually being exercised; an idle service
+                // would otherwise ratchet up to the maximum without evidence it can cope.
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        } finally {
+            limitLock.unlock();
+        }
+        if (decreasedTo >= 0) {
+            log.warn("Admission limit decreased to {} - Latency: {} ms, Success: {}",
+                    decreasedTo, latencyNanos / 1_000_000, success);
+        }
+    }
+
+    private void release(long bytes) {
+        reservedBytes.addAndGet(-bytes);
+        inFlight.decrementAndGet();
+        if (awaiting.get() > 0) {
+            awaitLock.lock();
+            try {
+                released.signalAll();
+            } finally {
+                awaitLock.unlock();
+            }
+        }
+    }
+
+    public final class Permit implements AutoCloseable {
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private final long bytes;
+        private boolean failed;
+        private boolean discarded;
+        private boolean released;
+
+        private Permit(long startNanos, int inFlightAtStart, long bytes) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Marks the render as failed on the server side, which backs the limit off like a slow
+         * render does. Client errors such as an unknown dealer should not be reported here.
+         */
+        public void failed() {
+            this.failed = true;
+        }
+
+        /**
+         * Gives the permit back without adjusting the limit, for work that never got to render.
+         */
+        public void discard() {
+            this.discarded = true;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                if (discarded) {
+                    release(bytes);
+                } else {
+                    onComplete(System.nanoTime() - startNanos, inFlightAtStart, bytes, !failed);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.BatchManifestEntry;
+import com.example.invoice_generator.dto.Invoice;
+import com.example.invoice_generator.dto.InvoiceRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders a list of invoice requests on a shared, bounded worker pool and streams each
+ * finished PDF into a ZIP archive in completion order. Items that fail are recorded in
+ * {@code manifest.json} instead of aborting the batch.
+ */
+@Service
+@Slf4j
+public class BatchInvoiceService {
+
+    static final String MANIFEST_ENTRY = "manifest.json";
+    static final String STATUS_OK = "OK";
+    static final String STATUS_FAILED = "FAILED";
+
+    private final InvoiceService invoiceService;
+    private final AdmissionLimiter admissionLimiter;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int maxBatchSize;
+    private final int maxMergedSize;
+
+    public BatchInvoiceService(InvoiceService invoiceService,
+                               AdmissionLimiter admissionLimiter,
+                               ObjectMapper objectMapper,
+                               @Value("${invoice.batch.parallelism:0}") int parallelism,
+                               @Value("${invoice.batch.max-size:5000}") int maxBatchSize,
+                               @Value("${invoice.merged.max-size:500}") int maxMergedSize) {
+        this.invoiceService = invoiceService;
+        this.admissionLimiter = admissionLimiter;
+        this.objectMapper = objectMapper;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.maxBatchSize = maxBatchSize;
+        this.maxMergedSize = maxMergedSize;
+        this.executor = Executors.newFixedThreadPool(this.parallelism, namedThreadFactory("invoice-batch-"));
+        log.info("Batch invoice pool started - Parallelism: {}, Max batch size: {}", this.parallelism, maxBatchSize);
+    }
+
+    public void validateBatch(List<InvoiceRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one invoice request");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size " + requests.size() + " exceeds limit of " + maxBatchSize);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the list is empty or larger than {@code invoice.merged.max-size}
+     */
+    public void validateMerged(List<InvoiceRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Merged document must contain at least one invoice request");
+        }
+        if (requests.size() > maxMergedSize) {
+            throw new IllegalArgumentException("Merged document size " + requests.size()
+                    + " exceeds limit of " + maxMergedSize);
+        }
+    }
+
+    /**
+     * Validates and prepares every request of a merged document up front. Unlike the ZIP batch,
+     * a merged PDF cannot skip a bad item once streaming has started, so an unknown dealer or
+     * vehicle anywhere in the list rejects the whole request, before any invoice number is
+     * allocated for it.
+     *
+     * @throws IllegalArgumentException if the list is empty, too large or contains an invalid request
+     */
+    public List<Invoice> prepareMerged(List<InvoiceRequest> requests) {
+        validateMerged(requests);
+        for (InvoiceRequest request : requests) {
+            requireText(request.getDealerId(), "Dealer ID is required");
+            requireText(request.getVehicleId(), "Vehicle ID is required");
+            requireText(request.getCustomerName(), "Customer name is required");
+        }
+        return invoiceService.prepareInvoices(requests);
+    }
+
+    /**
+     * Writes one STORED zip entry per successfully rendered invoice, followed by the manifest.
+     * At most {@code 2 * parallelism} renders of this batch are in flight at any time, so the
+     * number of finished-but-unwritten PDFs held on the heap stays bounded.
+     */
+    public void generateBatch(List<InvoiceRequest> requests, OutputStream out) throws IOException {
+        validateBatch(requests);
+        long start = System.nanoTime();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        CompletionService<ItemResult> completion = new ExecutorCompletionService<>(executor);
+        List<Future<ItemResult>> pending = new ArrayList<>();
+        List<BatchManifestEntry> manifest = new ArrayList<>(requests.size());
+        int window = parallelism * 2;
+        int submitted = 0;
+        int completed = 0;
+        int failed = 0;
+
+        try {
+            while (completed < requests.size()) {
+                while (submitted < requests.size() && submitted - completed < window) {
+                    int index = submitted++;
+                    InvoiceRequest request = requests.get(index);
+                    pending.add(completion.submit(() -> renderItem(index, request)));
+                }
+
+                ItemResult result = completion.take().get();
+                completed++;
+
+                if (result.pdf() != null) {
+                    writeStoredEntry(zip, result.entry().getFileName(), result.pdf());
+                } else {
+                    failed++;
+                }
+                manifest.add(result.entry());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.forEach(f -> f.cancel(true));
+            throw new IOException("Batch generation interrupted", e);
+        } catch (ExecutionException e) {
+            pending.forEach(f -> f.cancel(true));
+            throw new IOException("Batch generation failed", e.getCause());
+        } catch (IOException e) {
+            // Client went away mid-stream; stop rendering the rest of this batch.
+            pending.forEach(f -> f.cancel(true));
+            throw e;
+        }
+
+        manifest.sort(Comparator.comparingInt(BatchManifestEntry::getIndex));
+        zip.putNextEntry(new ZipEntry(MANIFEST_ENTRY));
+        zip.write(objectMapper.writeValueAsBytes(manifest));
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+
+        log.info("Batch generated - Items: {}, Failed: {}, Time: {} ms",
+                requests.size(), failed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private ItemResult renderItem(int index, InvoiceRequest request) {
+        BatchManifestEntry.BatchManifestEntryBuilder entry = BatchManifestEntry.builder()
+                .index(index)
+                .dealerId(request.getDealerId())
+                .vehicleId(request.getVehicleId());
+        try {
+            requireText(request.getDealerId(), "Dealer ID is required");
+            requireText(request.getVehicleId(), "Vehicle ID is required");
+            requireText(request.getCustomerName(), "Customer name is required");
+
+            // Numbered once, outside the admission wait, so a render that queues again keeps it.
+            Invoice invoice = invoiceService.prepareInvoice(
+                    request.getDealerId(),
+                    request.getVehicleId(),
+                    request.getCustomerName(),
+                    request.getCustomerState(),
+                    request.getOutputProfile()
+            );
+            byte[] pdf = admissionLimiter.callWhenAdmitted(() -> invoiceService.renderInvoice(invoice));
+            return new ItemResult(entry
+                    .status(STATUS_OK)
+                    .fileName(fileName(index, request.getVehicleId()))
+                    .sizeBytes(pdf.length)
+                    .build(), pdf);
+        } catch (IllegalArgumentException e) {
+            return new ItemResult(entry.status(STATUS_FAILED).error(e.getMessage()).build(), null);
+        } catch (Exception e) {
+            log.error("Error generating batch item {}", index, e);
+            return new ItemResult(entry.status(STATUS_FAILED).error("Failed to generate invoice").build(), null);
+        }
+    }
+
+    private static void requireText(String value, String message) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * PDFs are already deflated internally, so they are stored rather than compressed again
+     * to keep the single zip-writing thread off the critical path.
+     */
+    private static void writeStoredEntry(ZipOutputStream zip, String name, byte[] data) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        entry.setCompressedSize(data.length);
+        entry.setCrc(crc.getValue());
+
+        zip.putNextEntry(entry);
+        zip.write(data);
+        zip.closeEntry();
+    }
+
+    private static String fileName(int index, String vehicleId) {
+        String safeVehicleId = vehicleId.replaceAll("[^A-Za-z0-9_-]", "_");
+        return String.format("Invoice_%05d_%s.pdf", index, safeVehicleId);
+    }
+
+    static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record ItemResult(BatchManifestEntry entry, byte[] pdf) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Dealer;
+import com.example.invoice_generator.dto.Vehicle;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Streams catalog rows out of a CSV file one line at a time. Columns are matched by the names in
+ * the header row, so column order does not matter. Quoted fields may contain commas and doubled
+ * quotes, but not line breaks.
+ */
+final class CatalogCsvReader<T> implements Iterator<T>, Closeable {
+
+    private final Path file;
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns;
+    private final Function<Row, T> mapper;
+    private String nextLine;
+    private long lineNumber = 1;
+
+    private CatalogCsvReader(Path file, Function<Row, T> mapper) throws IOException {
+        this.file = file;
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        this.mapper = mapper;
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IOException("Empty CSV file: " + file);
+        }
+        this.columns = new HashMap<>();
+        List<String> names = parseLine(header.startsWith("﻿") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        advance();
+    }
+
+    static CatalogCsvReader<Dealer> dealers(Path file) throws IOException {
+        return new CatalogCsvReader<>(file, row -> Dealer.builder()
+                .dealerId(row.required("dealerId"))
+                .dealerName(row.get("dealerName"))
+                .address(row.get("address"))
+                .city(row.get("city"))
+                .state(row.get("state"))
+                .zipCode(row.get("zipCode"))
+                .phone(row.get("phone"))
+                .email(row.get("email"))
+                .gstNumber(row.get("gstNumber"))
+                .build());
+    }
+
+    static CatalogCsvReader<Vehicle> vehicles(Path file) throws IOException {
+        return new CatalogCsvReader<>(file, row -> Vehicle.builder()
+                .vehicleId(row.required("vehicleId"))
+                .make(row.get("make"))
+                .model(row.get("model"))
+                .year(row.get("year"))
+                .color(row.get("color"))
+                .vin(row.get("vin"))
+                .price(Double.parseDouble(row.required("price")))
+                .engineNumber(row.get("engineNumber"))
+                .chassisNumber(row.get("chassisNumber"))
+                .vehicleClass(row.get("vehicleClass"))
+                .build());
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextLine != null;
+    }
+
+    @Override
+    public T next() {
+        if (nextLine == null) {
+            throw new NoSuchElementException();
+        }
+        Row row = new Row(parseLine(nextLine), lineNumber);
+        advance();
+        return mapper.apply(row);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void advance() {
+        try {
+            do {
+                nextLine = reader.readLine();
+                lineNumber++;
+            } while (nextLine != null && nextLine.isBlank());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + file, e);
+        }
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    final class Row {
+        private final List<String> values;
+        private final long lineNumber;
+
+        private Row(List<String> values, long lineNumber) {
+            this.values = values;
+            this.lineNumber = lineNumber;
+        }
+
+        String get(String column) {
+            Integer index = columns.get(column);
+            return index == null || index >= values.size() ? null : values.get(index).trim();
+        }
+
+        String required(String column) {
+            String value = get(column);
+            if (value == null || value.isEmpty()) {
+                throw new IllegalArgumentException(
+                        "Missing " + column + " in " + file.getFileName() + " line " + lineNumber);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Dealer;
+import com.example.invoice_generator.dto.Vehicle;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Writes the binary catalog read by {@link CatalogSnapshot}. Records are streamed to disk as
+ * they arrive; only an int hash and a long offset per record are kept in memory to build the
+ * open-addressing indexes at the end.
+ *
+ * <pre>
+ * header   (64 bytes)  magic, version, counts, index offsets and slot counts
+ * records              per field: u16 byte length + UTF-8 bytes; vehicles have price (f64)
+ *                      after the chassis number, then the vehicle class (since version 2)
+ * dealer index         slots x (i32 hash, i64 record offset), offset 0 = empty slot
+ * vehicle index        same layout
+ * </pre>
+ *
+ * If an ID occurs more than once, the first record wins.
+ */
+final class CatalogFileWriter {
+
+    static final int MAGIC = 0x49474331; // "IGC1"
+    static final int VERSION = 2;
+    /** Oldest version {@link CatalogSnapshot} still reads; version 1 records have no vehicle class. */
+    static final int MIN_READABLE_VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int SLOT_SIZE = 12;
+
+    private CatalogFileWriter() {
+    }
+
+    static void write(Path target, Iterator<Dealer> dealers, Iterator<Vehicle> vehicles) throws IOException {
+        IndexBuilder dealerIndex = new IndexBuilder();
+        IndexBuilder vehicleIndex = new IndexBuilder();
+        long position = HEADER_SIZE;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(target), 1 << 16))) {
+            out.write(new byte[HEADER_SIZE]);
+
+            while (dealers.hasNext()) {
+                Dealer dealer = dealers.next();
+                dealerIndex.add(hash(dealer.getDealerId()), position);
+                position += writeString(out, dealer.getDealerId());
+                position += writeString(out, dealer.getDealerName());
+                position += writeString(out, dealer.getAddress());
+                position += writeString(out, dealer.getCity());
+                position += writeString(out, dealer.getState());
+                position += writeString(out, dealer.getZipCode());
+                position += writeString(out, dealer.getPhone());
+                position += writeString(out, dealer.getEmail());
+                position += writeString(out, dealer.getGstNumber());
+            }
+
+            while (vehicles.hasNext()) {
+                Vehicle vehicle = vehicles.next();
+                vehicleIndex.add(hash(vehicle.getVehicleId()), position);
+                position += writeString(out, vehicle.getVehicleId());
+                position += writeString(out, vehicle.getMake());
+                position += writeString(out, vehicle.getModel());
+                position += writeString(out, vehicle.getYear());
+                position += writeString(out, vehicle.getColor());
+                position += writeString(out, vehicle.getVin());
+                position += writeString(out, vehicle.getEngineNumber());
+                position += writeString(out, vehicle.getChassisNumber());
+                out.writeDouble(vehicle.getPrice());
+                position += Double.BYTES;
+                position += writeString(out, vehicle.getVehicleClass());
+            }
+
+            long dealerIndexOffset = position;
+            position += dealerIndex.writeTo(out);
+            long vehicleIndexOffset = position;
+            position += vehicleIndex.writeTo(out);
+
+            if (position > Integer.MAX_VALUE) {
+                throw new IOException("Catalog exceeds the 2 GB single-mapping limit: " + position + " bytes");
+            }
+
+            out.flush();
+            writeHeader(target, dealerIndex, vehicleIndex, dealerIndexOffset, vehicleIndexOffset);
+        }
+    }
+
+    private static void writeHeader(Path target, IndexBuilder dealerIndex, IndexBuilder vehicleIndex,
+                                    long dealerIndexOffset, long vehicleIndexOffset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(dealerIndex.count)
+                .putInt(vehicleIndex.count)
+                .putLong(dealerIndexOffset)
+                .putInt(dealerIndex.slots())
+                .putLong(vehicleIndexOffset)
+                .putInt(vehicleIndex.slots());
+        header.rewind();
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            channel.write(header, 0);
+            channel.force(true);
+        }
+    }
+
+    private static int writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Catalog field longer than 65535 bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+        return 2 + bytes.length;
+    }
+
+    /**
+     * Spreads {@link String#hashCode()} so sequential IDs do not cluster in the index.
+     */
+    static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class IndexBuilder {
+        private int[] hashes = new int[1024];
+        private long[] offsets = new long[1024];
+        private int count;
+
+        void add(int hash, long offset) {
+            if (count == hashes.length) {
+                hashes = Arrays.copyOf(hashes, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            hashes[count] = hash;
+            offsets[count] = offset;
+            count++;
+        }
+
+        /** Power of two with a load factor of at most 0.5. */
+        int slots() {
+            return Math.max(2, Integer.highestOneBit(Math.max(1, count) * 2 - 1) << 1);
+        }
+
+        long writeTo(DataOutputStream out) throws IOException {
+            int slots = slots();
+            int mask = slots - 1;
+            int[] slotHashes = new int[slots];
+            long[] slotOffsets = new long[slots];
+            for (int i = 0; i < count; i++) {
+                int slot = hashes[i] & mask;
+                while (slotOffsets[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slotHashes[slot] = hashes[i];
+                slotOffsets[slot] = offsets[i];
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                out.writeInt(slotHashes[slot]);
+                out.writeLong(slotOffsets[slot]);
+            }
+            return (long) slots * SLOT_SIZE;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Dealer;
+import com.example.invoice_generator.dto.Vehicle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dealer and vehicle lookups backed by a memory-mapped catalog file. Readers go through a
+ * single volatile snapshot reference and never block; imports and reloads build a new file
+ * next to the current one, move it into place atomically and then swap the snapshot.
+ *
+ * <p>On startup the existing catalog file is mapped if present. Otherwise it is built from the
+ * configured CSV files, or from the built-in demo data when no CSV files are configured.
+ */
+@Service
+@Slf4j
+public class CatalogService {
+
+    private final Path catalogFile;
+    private final String dealersCsv;
+    private final String vehiclesCsv;
+    private final Path importDirectory;
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public CatalogService(@Value("${invoice.catalog.file:data/catalog/catalog.bin}") String catalogFile,
+                          @Value("${invoice.catalog.import.dealers-csv:}") String dealersCsv,
+                          @Value("${invoice.catalog.import.vehicles-csv:}") String vehiclesCsv,
+                          @Value("${invoice.catalog.import.directory:data/catalog/import}") String importDirectory) {
+        this.catalogFile = Paths.get(catalogFile).toAbsolutePath();
+        this.dealersCsv = dealersCsv;
+        this.vehiclesCsv = vehiclesCsv;
+        this.importDirectory = Paths.get(importDirectory).toAbsolutePath().normalize();
+        initialize();
+    }
+
+    public Dealer findDealer(String dealerId) {
+        return snapshot.get().findDealer(dealerId);
+    }
+
+    public Vehicle findVehicle(String vehicleId) {
+        return snapshot.get().findVehicle(vehicleId);
+    }
+
+    /**
+     * Bulk pricing lookup: fills {@code prices} and {@code vehicleClasses} at the index of each ID
+     * without materializing {@link Vehicle} objects. All IDs are read from one snapshot.
+     *
+     * @return the index of the first unknown vehicle ID, or -1 if all were found
+     */
+    public int findPricing(List<String> vehicleIds, double[] prices, String[] vehicleClasses) {
+        CatalogSnapshot current = snapshot.get();
+        for (int i = 0; i < vehicleIds.size(); i++) {
+            if (!current.readPricing(vehicleIds.get(i), i, prices, vehicleClasses)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public CatalogStats stats() {
+        CatalogSnapshot current = snapshot.get();
+        return new CatalogStats(current.file().toString(), current.dealerCount(), current.vehicleCount(),
+                current.sizeBytes(), current.loadedAt());
+    }
+
+    /**
+     * Re-maps the catalog file, picking up a file that was replaced outside the application.
+     */
+    public CatalogStats reload() {
+        writeLock.lock();
+        try {
+            swap(CatalogSnapshot.open(catalogFile));
+            return stats();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to reload catalog " + catalogFile, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the catalog from the given CSV files and swaps it in. Lookups keep using the
+     * previous snapshot until the new file is complete.
+     */
+    public CatalogStats importCsv(Path dealers, Path vehicles) {
+        if (dealers == null || vehicles == null) {
+            throw new IllegalArgumentException("Both dealer and vehicle CSV files are required");
+        }
+        if (!Files.isReadable(dealers)) {
+            throw new IllegalArgumentException("Dealer CSV not readable: " + dealers);
+        }
+        if (!Files.isReadable(vehicles)) {
+            throw new IllegalArgumentException("Vehicle CSV not readable: " + vehicles);
+        }
+
+        writeLock.lock();
+        try (CatalogCsvReader<Dealer> dealerRows = CatalogCsvReader.dealers(dealers);
+             CatalogCsvReader<Vehicle> vehicleRows = CatalogCsvReader.vehicles(vehicles)) {
+            long start = System.nanoTime();
+            swap(writeAndOpen(dealerRows, vehicleRows));
+            CatalogStats stats = stats();
+            log.info("Catalog imported - Dealers: {}, Vehicles: {}, Size: {} bytes, Time: {} ms",
+                    stats.dealers(), stats.vehicles(), stats.sizeBytes(), (System.nanoTime() - start) / 1_000_000);
+            return stats;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to import catalog", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Resolves a CSV file named in an import request against
+     * {@code invoice.catalog.import.directory}; requests cannot reach files outside it, not even
+     * through symbolic links.
+     *
+     * @throws IllegalArgumentException if {@code name} is blank, missing or outside the directory
+     */
+    public Path resolveImportFile(String name) {
+        return ContainedPath.resolve(importDirectory, name, "Catalog CSV");
+    }
+
+    private void initialize() {
+        try {
+            if (Files.exists(catalogFile)) {
+                swap(CatalogSnapshot.open(catalogFile));
+            } else if (!dealersCsv.isBlank() && !vehiclesCsv.isBlank()) {
+                importCsv(Paths.get(dealersCsv), Paths.get(vehiclesCsv));
+            } else {
+                swap(writeAndOpen(demoDealers().iterator(), demoVehicles().iterator()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize catalog " + catalogFile, e);
+        }
+        CatalogStats stats = stats();
+        log.info("Catalog loaded - File: {}, Dealers: {}, Vehicles: {}, Size: {} bytes",
+                stats.file(), stats.dealers(), stats.vehicles(), stats.sizeBytes());
+    }
+
+    private CatalogSnapshot writeAndOpen(Iterator<Dealer> dealers, Iterator<Vehicle> vehicles) throws IOException {
+        Files.createDirectories(catalogFile.getParent());
+        Path tmp = Files.createTempFile(catalogFile.getParent(), "catalog-", ".tmp");
+        try {
+            CatalogFileWriter.write(tmp, dealers, vehicles);
+            Files.move(tmp, catalogFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return CatalogSnapshot.open(catalogFile);
+    }
+
+    /**
+     * The replaced mapping is not unmapped explicitly; in-flight lookups may still be reading
+     * it, and the GC releases it once the last reference is gone.
+     */
+    private void swap(CatalogSnapshot next) {
+        if (next.version() < CatalogFileWriter.VERSION) {
+            log.warn("Catalog {} is format version {} without vehicle classes; GST uses the fallback rate "
+                    + "for every vehicle until the catalog is re-imported", next.file(), next.version());
+        }
+        snapshot.set(next);
+    }
+
+    public record CatalogStats(String file, int dealers, int vehicles, long sizeBytes, Instant loadedAt) {
+    }
+
+    private static List<Dealer> demoDealers() {
+        return List.of(
+                Dealer.builder()
+                        .dealerId("D001")
+                        .dealerName("Premium Auto Sales")
+                        .address("123 Main Street")
+                        .city("Mumbai")
+                        .state("Maharashtra")
+                        .zipCode("400001")
+                        .phone("+91-22-1234-5678")
+                        .email("contact@premiumauto.com")
+                        .gstNumber("27AABCU9603R1ZX")
+                        .build(),
+                Dealer.builder()
+                        .dealerId("D002")
+                        .dealerName("Elite Motors")
+                        .address("456 Park Avenue")
+                        .city("Delhi")
+                        .state("Delhi")
+                        .zipCode("110001")
+                        .phone("+91-11-8765-4321")
+                        .email("info@elitemotors.com")
+                        .gstNumber("07AABCU9603R1ZY")
+                        .build());
+    }
+
+    private static List<Vehicle> demoVehicles() {
+        return List.of(
+                Vehicle.builder()
+                        .vehicleId("V001")
+                        .make("Honda")
+                        .model("City")
+                        .year("2024")
+                        .color("Pearl White")
+                        .vin("1HGBH41JXMN109186")
+                        .price(1250000.00)
+                        .engineNumber("K15C-2401234")
+                        .chassisNumber("MA3FEB81S00443821")
+                        .vehicleClass("MID_CAR")
+                        .build(),
+                Vehicle.builder()
+                        .vehicleId("V002")
+                        .make("Maruti Suzuki")
+                        .model("Swift")
+                        .year("2024")
+                        .color("Metallic Blue")
+                        .vin("MA3EJE81S00362514")
+                        .price(850000.00)
+                        .engineNumber("K12M-2402567")
+                        .chassisNumber("MA3EJE81S00362514")
+                        .vehicleClass("SMALL_CAR_PETROL")
+                        .build(),
+                Vehicle.builder()
+                        .vehicleId("V003")
+                        .make("Hyundai")
+                        .model("Creta")
+                        .year("2024")
+                        .color("Titan Grey")
+                        .vin("MALH11CNXM2012345")
+                        .price(1650000.00)
+                        .engineNumber("G4FJ-2403891")
+                        .chassisNumber("MALH11CNXM2012345")
+                        .vehicleClass("SUV")
+                        .build(),
+                Vehicle.builder()
+                        .vehicleId("V004")
+                        .make("Tata")
+                        .model("Nexon")
+                        .year("2024")
+                        .color("Flame Red")
+                        .vin("MAT621234K1H12345")
+                        .price(1150000.00)
+                        .engineNumber("REVOTRON-2404512")
+                        .chassisNumber("MAT621234K1H12345")
+                        .vehicleClass("SMALL_CAR_PETROL")
+                        .build());
+    }
+}
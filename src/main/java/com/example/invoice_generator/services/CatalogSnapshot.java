@@ -0,0 +1,224 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Dealer;
+import com.example.invoice_generator.dto.Vehicle;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Read-only, memory-mapped view of a catalog file written by {@link CatalogFileWriter}.
+ * Lookups only use absolute reads on the shared mapping, so a snapshot can be used from any
+ * number of threads. DTOs are decoded from the mapped bytes on each lookup; nothing else of the
+ * catalog lives on the heap.
+ */
+final class CatalogSnapshot {
+
+    /** ID through chassis number, the strings that precede a vehicle's price. */
+    private static final int VEHICLE_STRING_FIELDS = 8;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int dealerCount;
+    private final int vehicleCount;
+    private final int dealerIndexOffset;
+    private final int dealerSlots;
+    private final int vehicleIndexOffset;
+    private final int vehicleSlots;
+    private final int version;
+    private final boolean hasVehicleClass;
+    private final Instant loadedAt;
+
+    private CatalogSnapshot(Path file, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < CatalogFileWriter.HEADER_SIZE || buffer.getInt(0) != CatalogFileWriter.MAGIC) {
+            throw new IOException("Not a catalog file: " + file);
+        }
+        this.version = buffer.getInt(4);
+        if (version < CatalogFileWriter.MIN_READABLE_VERSION || version > CatalogFileWriter.VERSION) {
+            throw new IOException("Unsupported catalog version " + version + " in " + file);
+        }
+        this.hasVehicleClass = version >= 2;
+        this.dealerCount = buffer.getInt(8);
+        this.vehicleCount = buffer.getInt(12);
+        this.dealerIndexOffset = (int) buffer.getLong(16);
+        this.dealerSlots = buffer.getInt(24);
+        this.vehicleIndexOffset = (int) buffer.getLong(28);
+        this.vehicleSlots = buffer.getInt(36);
+        this.loadedAt = Instant.now();
+    }
+
+    static CatalogSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Catalog exceeds the 2 GB single-mapping limit: " + file);
+            }
+            // The mapping stays valid after the channel is closed.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CatalogSnapshot(file, buffer);
+        }
+    }
+
+    Dealer findDealer(String dealerId) {
+        int position = find(dealerIndexOffset, dealerSlots, dealerId);
+        if (position < 0) {
+            return null;
+        }
+        RecordReader record = new RecordReader(position);
+        return Dealer.builder()
+                .dealerId(record.readString())
+                .dealerName(record.readString())
+                .address(record.readString())
+                .city(record.readString())
+                .state(record.readString())
+                .zipCode(record.readString())
+                .phone(record.readString())
+                .email(record.readString())
+                .gstNumber(record.readString())
+                .build();
+    }
+
+    Vehicle findVehicle(String vehicleId) {
+        int position = find(vehicleIndexOffset, vehicleSlots, vehicleId);
+        if (position < 0) {
+            return null;
+        }
+        RecordReader record = new RecordReader(position);
+        return Vehicle.builder()
+                .vehicleId(record.readString())
+                .make(record.readString())
+                .model(record.readString())
+                .year(record.readString())
+                .color(record.readString())
+                .vin(record.readString())
+                .engineNumber(record.readString())
+                .chassisNumber(record.readString())
+                .price(record.readDouble())
+                .vehicleClass(readVehicleClass(record))
+                .build();
+    }
+
+    /**
+     * Reads only what pricing needs - the price and vehicle class - into slot {@code i} of the
+     * given arrays, skipping the descriptive fields without decoding them.
+     *
+     * @return false if the vehicle is not in the catalog
+     */
+    boolean readPricing(String vehicleId, int i, double[] prices, String[] vehicleClasses) {
+        int position = find(vehicleIndexOffset, vehicleSlots, vehicleId);
+        if (position < 0) {
+            return false;
+        }
+        RecordReader record = new RecordReader(position);
+        for (int field = 0; field < VEHICLE_STRING_FIELDS; field++) {
+            record.skipString();
+        }
+        prices[i] = record.readDouble();
+        vehicleClasses[i] = readVehicleClass(record);
+        return true;
+    }
+
+    private String readVehicleClass(RecordReader record) {
+        if (!hasVehicleClass) {
+            return null;
+        }
+        String vehicleClass = record.readString();
+        return vehicleClass.isEmpty() ? null : vehicleClass;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    int version() {
+        return version;
+    }
+
+    int dealerCount() {
+        return dealerCount;
+    }
+
+    int vehicleCount() {
+        return vehicleCount;
+    }
+
+    long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    Instant loadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Linear probing over the slot table; the stored hash filters out almost every mismatch
+     * before the ID bytes are compared.
+     */
+    private int find(int indexOffset, int slots, String id) {
+        if (id == null) {
+            return -1;
+        }
+        int hash = CatalogFileWriter.hash(id);
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int mask = slots - 1;
+        int slot = hash & mask;
+        for (int probes = 0; probes < slots; probes++) {
+            int slotPosition = indexOffset + slot * CatalogFileWriter.SLOT_SIZE;
+            long recordOffset = buffer.getLong(slotPosition + Integer.BYTES);
+            if (recordOffset == 0) {
+                return -1;
+            }
+            if (buffer.getInt(slotPosition) == hash && idEquals((int) recordOffset, key)) {
+                return (int) recordOffset;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean idEquals(int recordOffset, byte[] key) {
+        int length = buffer.getShort(recordOffset) & 0xFFFF;
+        if (length != key.length) {
+            return false;
+        }
+        int start = recordOffset + 2;
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final class RecordReader {
+        private int position;
+
+        RecordReader(int position) {
+            this.position = position;
+        }
+
+        void skipString() {
+            position += 2 + (buffer.getShort(position) & 0xFFFF);
+        }
+
+        String readString() {
+            int length = buffer.getShort(position) & 0xFFFF;
+            byte[] bytes = new byte[length];
+            buffer.get(position + 2, bytes);
+            position += 2 + length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        double readDouble() {
+            double value = buffer.getDouble(position);
+            position += Double.BYTES;
+            return value;
+        }
+    }
+}
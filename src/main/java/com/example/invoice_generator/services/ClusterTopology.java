@@ -0,0 +1,91 @@
+package com.example.invoice_generator.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+
+/**
+ * The instances that share the invoice workload, given as {@code invoice.cluster.nodes}, a
+ * comma-separated list of {@code nodeId=baseUrl}. Nodes share nothing: each issues invoice
+ * numbers from its own range and keeps the PDFs it renders in its own store, so any node can
+ * take a generate request and a stored invoice is fetched from the node that issued it. An empty
+ * list means a single instance that owns everything.
+ */
+@Component
+@Slf4j
+public class ClusterTopology {
+
+    private final int nodeId;
+    private final Map<Integer, URI> nodes;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+
+    public ClusterTopology(@Value("${invoice.node.id:0}") int nodeId,
+                           @Value("${invoice.cluster.nodes:}") String nodes,
+                           InvoiceNumberAllocator invoiceNumberAllocator) {
+        this.nodeId = nodeId;
+        this.nodes = parse(nodes);
+        this.invoiceNumberAllocator = invoiceNumberAllocator;
+        if (!this.nodes.isEmpty()) {
+            if (!this.nodes.containsKey(nodeId)) {
+                throw new IllegalArgumentException("invoice.cluster.nodes does not list this node's id " + nodeId);
+            }
+            log.info("Cluster node {} of {} - Nodes: {}", nodeId, this.nodes.size(), this.nodes);
+        }
+    }
+
+    public int nodeId() {
+        return nodeId;
+    }
+
+    public Map<Integer, URI> nodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the base URL of the node that issued {@code invoiceNumber} when that is another
+     *         node of the cluster; empty when it is this node or not a node the cluster knows
+     */
+    public Optional<URI> remoteOwner(String invoiceNumber) {
+        if (nodes.isEmpty()) {
+            return Optional.empty();
+        }
+        OptionalInt owner = invoiceNumberAllocator.issuingNode(invoiceNumber);
+        if (owner.isEmpty() || owner.getAsInt() == nodeId) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(nodes.get(owner.getAsInt()));
+    }
+
+    private static Map<Integer, URI> parse(String nodes) {
+        Map<Integer, URI> parsed = new TreeMap<>();
+        for (String entry : nodes.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected nodeId=baseUrl in invoice.cluster.nodes: " + entry.trim());
+            }
+            int id = Integer.parseInt(entry.substring(0, separator).trim());
+            if (id < 0 || id > TransactionIdGenerator.MAX_NODE_ID) {
+                throw new IllegalArgumentException("Node ID must be between 0 and "
+                        + TransactionIdGenerator.MAX_NODE_ID + ": " + id);
+            }
+            URI url = URI.create(entry.substring(separator + 1).trim().replaceAll("/+$", ""));
+            if (url.getScheme() == null || url.getHost() == null) {
+                throw new IllegalArgumentException("Invalid base URL for node " + id + ": " + url);
+            }
+            if (parsed.put(id, url) != null) {
+                throw new IllegalArgumentException("Node " + id + " is listed twice in invoice.cluster.nodes");
+            }
+        }
+        return Collections.unmodifiableMap(parsed);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.invoice_generator.services;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Resolves file names supplied by API callers or template definitions against the one directory
+ * they are allowed to read from.
+ */
+final class ContainedPath {
+
+    private ContainedPath() {
+    }
+
+    /**
+     * Compares real paths, so neither {@code ..} nor a symbolic link inside {@code directory}
+     * can reach a file outside it.
+     *
+     * @param what how the file is named in error messages, e.g. "Import file"
+     * @return the real path of the existing regular file {@code name} inside {@code directory}
+     * @throws IllegalArgumentException if {@code name} is blank, does not exist or is outside {@code directory}
+     */
+    static Path resolve(Path directory, String name, String what) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException(what + " is required");
+        }
+        Path file;
+        Path root;
+        try {
+            root = directory.toRealPath();
+            file = root.resolve(name).toRealPath();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(what + " not found: " + name);
+        }
+        if (!file.startsWith(root)) {
+            throw new IllegalArgumentException(what + " must be inside " + directory + ": " + name);
+        }
+        if (!Files.isRegularFile(file) || !Files.isReadable(file)) {
+            throw new IllegalArgumentException(what + " not found: " + name);
+        }
+        return file;
+    }
+}
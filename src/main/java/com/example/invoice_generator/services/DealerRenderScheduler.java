@@ -0,0 +1,358 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.exception.AdmissionRejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out render slots fairly between dealers, so one dealer pushing a bulk upload through
+ * {@code /api/invoice/generate} cannot starve other showrooms' counter traffic.
+ *
+ * <p>There are {@code invoice.scheduler.slots} slots (0 = one per {@link RenderPool} thread).
+ * Renders that cannot start immediately wait in a FIFO queue per dealer, and the queues are
+ * served by deficit round robin: each time a dealer's turn comes up it is credited its weight
+ * ({@code invoice.scheduler.weights}, e.g. {@code D001:4,D002:2}, otherwise
+ * {@code invoice.scheduler.default-weight}) and may start renders until the credit is spent.
+ * A dealer never holds more than its cap of slots at once
+ * ({@code invoice.scheduler.dealer-max-concurrency}, otherwise
+ * {@code invoice.scheduler.default-max-concurrency}; 0 = all slots but one), which keeps a
+ * slot free for everybody else while one dealer saturates the service.
+ *
+ * <p>A render that waits longer than {@code invoice.scheduler.max-wait} gives up with
+ * {@link AdmissionRejectedException}; background renders running under
+ * {@link AdmissionLimiter#callWhenAdmitted} queue again instead of failing.
+ *
+ * <p>A document that spans dealers, such as a merged PDF, {@linkplain Slot#transfer transfers}
+ * its slot from dealer to dealer as it renders. Each dealer is charged for its own part even
+ * when that takes it into debt, and it repays the debt on its later turns before it can start
+ * anything else.
+ */
+@Component
+@Slf4j
+public class DealerRenderScheduler {
+
+    private final InvoiceMetrics metrics;
+    private final int slots;
+    private final Map<String, Integer> weights;
+    private final Map<String, Integer> maxConcurrency;
+    private final int defaultWeight;
+    private final int defaultMaxConcurrency;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, DealerQueue> queues = new HashMap<>();
+    /** Dealers with waiting renders, in round-robin order; the head is the dealer whose turn it is. */
+    private final ArrayDeque<DealerQueue> active = new ArrayDeque<>();
+    private boolean headCredited;
+    private int running;
+    private int waiting;
+
+    @Autowired
+    public DealerRenderScheduler(InvoiceMetrics metrics,
+                                 RenderPool renderPool,
+                                 @Value("${invoice.scheduler.slots:0}") int slots,
+                                 @Value("${invoice.scheduler.weights:}") String weights,
+                                 @Value("${invoice.scheduler.default-weight:1}") int defaultWeight,
+                                 @Value("${invoice.scheduler.dealer-max-concurrency:}") String maxConcurrency,
+                                 @Value("${invoice.scheduler.default-max-concurrency:0}") int defaultMaxConcurrency,
+                                 @Value("${invoice.scheduler.max-wait:30s}") Duration maxWait) {
+        this(metrics, slots > 0 ? slots : renderPool.getThreads(),
+                parse(weights, "invoice.scheduler.weights"), defaultWeight,
+                parse(maxConcurrency, "invoice.scheduler.dealer-max-concurrency"), defaultMaxConcurrency,
+                maxWait);
+        metrics.monitorScheduler(this);
+        log.info("Render scheduler configured - Slots: {}, Default weight: {}, Default dealer cap: {}, "
+                        + "Weights: {}, Caps: {}, Max wait: {}",
+                this.slots, this.defaultWeight, this.defaultMaxConcurrency, this.weights,
+                this.maxConcurrency, maxWait);
+    }
+
+    DealerRenderScheduler(InvoiceMetrics metrics, int slots, Map<String, Integer> weights, int defaultWeight,
+                          Map<String, Integer> maxConcurrency, int defaultMaxConcurrency, Duration maxWait) {
+        if (slots < 1 || defaultWeight < 1 || defaultMaxConcurrency < 0) {
+            throw new IllegalArgumentException("Render scheduler needs at least one slot, positive weights "
+                    + "and non-negative caps");
+        }
+        this.metrics = metrics;
+        this.slots = slots;
+        this.weights = Map.copyOf(weights);
+        this.maxConcurrency = Map.copyOf(maxConcurrency);
+        this.defaultWeight = defaultWeight;
+        this.defaultMaxConcurrency = defaultMaxConcurrency > 0 ? defaultMaxConcurrency : Math.max(1, slots - 1);
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /**
+     * A scheduler with effectively unlimited slots, for renders that must not queue behind or
+     * ahead of customer traffic, such as warm-up and benchmarks.
+     */
+    static DealerRenderScheduler unbounded(InvoiceMetrics metrics) {
+        return new DealerRenderScheduler(metrics, Integer.MAX_VALUE, Map.of(), 1, Map.of(),
+                Integer.MAX_VALUE, Duration.ZERO);
+    }
+
+    /**
+     * Waits for a render slot. The returned slot must be closed when the render has finished;
+     * closing it again has no effect.
+     *
+     * @param cost size of the work in single-invoice renders; larger jobs need their dealer to
+     *             build up more credit before they start
+     * @throws AdmissionRejectedException if no slot became available within the maximum wait
+     */
+    public Slot acquire(String dealerId, int cost) {
+        long start = System.nanoTime();
+        String key = dealerId != null ? dealerId : "";
+        Waiter waiter;
+        lock.lock();
+        try {
+            DealerQueue queue = queues.computeIfAbsent(key, this::newQueue);
+            waiter = new Waiter(Math.max(1, cost), lock.newCondition());
+            queue.waiters.addLast(waiter);
+            waiting++;
+            if (queue.waiters.size() == 1) {
+                active.addLast(queue);
+            }
+            dispatch();
+
+            long remaining = maxWaitNanos;
+            while (!waiter.granted) {
+                if (remaining <= 0) {
+                    abandon(queue, waiter);
+                    throw reject(dealerId);
+                }
+                try {
+                    remaining = waiter.condition.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    if (!waiter.granted) {
+                        abandon(queue, waiter);
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for a render slot", e);
+                    }
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        metrics.recordStage(InvoiceMetrics.STAGE_QUEUE, dealerId, System.nanoTime() - start);
+        return new Slot(key);
+    }
+
+    public int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    /**
+     * Starts as many waiting renders as the free slots, dealer caps and credits allow. The
+     * dealer at the head of the ring keeps its turn, and any unspent credit, until it runs out
+     * of credit or hits its cap; its credit is cleared once its queue drains so idle dealers
+     * cannot bank a burst, but a debt is kept until it is repaid.
+     */
+    private void dispatch() {
+        int skipped = 0;
+        while (running < slots && !active.isEmpty() && skipped < active.size()) {
+            DealerQueue queue = active.peekFirst();
+            if (queue.running >= queue.maxConcurrency) {
+                nextTurn();
+                skipped++;
+                continue;
+            }
+            if (!headCredited) {
+                queue.deficit += queue.weight;
+                headCredited = true;
+            }
+            Waiter head = queue.waiters.peekFirst();
+            skipped = 0;
+            if (queue.deficit < head.cost) {
+                nextTurn();
+                continue;
+            }
+
+            queue.deficit -= head.cost;
+            queue.waiters.pollFirst();
+            queue.running++;
+            running++;
+            waiting--;
+            head.granted = true;
+            head.condition.signal();
+            if (queue.waiters.isEmpty()) {
+                active.pollFirst();
+                queue.deficit = Math.min(0, queue.deficit);
+                headCredited = false;
+            }
+        }
+    }
+
+    private void nextTurn() {
+        active.addLast(active.pollFirst());
+        headCredited = false;
+    }
+
+    private void abandon(DealerQueue queue, Waiter waiter) {
+        queue.waiters.remove(waiter);
+        waiting--;
+        if (queue.waiters.isEmpty()) {
+            if (active.peekFirst() == queue) {
+                headCredited = false;
+            }
+            active.remove(queue);
+            queue.deficit = Math.min(0, queue.deficit);
+            removeIfIdle(queue);
+        }
+        dispatch();
+    }
+
+    private void release(String dealerId) {
+        lock.lock();
+        try {
+            DealerQueue queue = queues.get(dealerId);
+            queue.running--;
+            running--;
+            removeIfIdle(queue);
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void transfer(String fromDealerId, String toDealerId, int cost) {
+        lock.lock();
+        try {
+            DealerQueue from = queues.get(fromDealerId);
+            from.running--;
+            removeIfIdle(from);
+            DealerQueue to = queues.computeIfAbsent(toDealerId, this::newQueue);
+            to.running++;
+            to.deficit -= Math.max(1, cost);
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeIfIdle(DealerQueue queue) {
+        if (queue.running == 0 && queue.waiters.isEmpty() && queue.deficit >= 0) {
+            queues.remove(queue.dealerId);
+        }
+    }
+
+    private DealerQueue newQueue(String dealerId) {
+        return new DealerQueue(dealerId,
+                weights.getOrDefault(dealerId, defaultWeight),
+                maxConcurrency.getOrDefault(dealerId, defaultMaxConcurrency));
+    }
+
+    private AdmissionRejectedException reject(String dealerId) {
+        metrics.recordRejection(AdmissionLimiter.REASON_QUEUE_TIMEOUT);
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(maxWaitNanos));
+        return new AdmissionRejectedException("Timed out waiting for a render slot for dealer " + dealerId,
+                retryAfter);
+    }
+
+    private static Map<String, Integer> parse(String value, String property) {
+        Map<String, Integer> entries = new HashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split(":");
+            int number;
+            try {
+                number = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : 0;
+            } catch (NumberFormatException e) {
+                number = 0;
+            }
+            if (number < 1) {
+                throw new IllegalArgumentException("Expected dealerId:<positive number> in " + property + ": " + entry);
+            }
+            entries.put(parts[0].trim(), number);
+        }
+        return entries;
+    }
+
+    public final class Slot implements AutoCloseable {
+        private String dealerId;
+        private boolean released;
+
+        private Slot(String dealerId) {
+            this.dealerId = dealerId;
+        }
+
+        /**
+         * Hands this running slot over to another dealer without waiting and charges that dealer
+         * {@code cost} renders of credit. The dealer's cap does not apply to the handed-over slot.
+         */
+        public void transfer(String dealerId, int cost) {
+            String key = dealerId != null ? dealerId : "";
+            if (released) {
+                throw new IllegalStateException("Render slot already released");
+            }
+            if (!key.equals(this.dealerId)) {
+                DealerRenderScheduler.this.transfer(this.dealerId, key, cost);
+                this.dealerId = key;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(dealerId);
+            }
+        }
+    }
+
+    private static final class DealerQueue {
+        final String dealerId;
+        final int weight;
+        final int maxConcurrency;
+        final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        long deficit;
+        int running;
+
+        DealerQueue(String dealerId, int weight, int maxConcurrency) {
+            this.dealerId = dealerId;
+            this.weight = weight;
+            this.maxConcurrency = maxConcurrency;
+        }
+    }
+
+    private static final class Waiter {
+        final int cost;
+        final Condition condition;
+        boolean granted;
+
+        Waiter(int cost, Condition condition) {
+            this.cost = cost;
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.invoice_generator.services;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Controls one continuous JDK Flight Recorder recording for on-demand profiling. The recording
+ * uses the JDK's {@code invoice.profiling.settings} configuration ({@code default} costs about
+ * 1%, {@code profile} samples more) plus every {@link InvoiceStageEvent} and
+ * {@link PdfSectionEvent}, and keeps only the last {@code invoice.profiling.max-age} and at most
+ * {@code invoice.profiling.max-size} on disk, so it can be left running and dumped when latency
+ * spikes. With {@code invoice.profiling.start-on-boot} it starts with the application.
+ */
+@Service
+@Slf4j
+public class FlightRecorderService {
+
+    static final String RECORDING_NAME = "invoice-generator";
+
+    private final String settings;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Recording recording;
+
+    public FlightRecorderService(@Value("${invoice.profiling.settings:default}") String settings,
+                                 @Value("${invoice.profiling.max-age:10m}") Duration maxAge,
+                                 @Value("${invoice.profiling.max-size:100MB}") DataSize maxSize,
+                                 @Value("${invoice.profiling.start-on-boot:false}") boolean startOnBoot) {
+        this.settings = settings;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        if (startOnBoot) {
+            start();
+        }
+    }
+
+    /**
+     * Starts the recording unless it is already running.
+     *
+     * @throws IllegalArgumentException if {@code invoice.profiling.settings} names no known configuration
+     */
+    public ProfilingStatus start() {
+        lock.lock();
+        try {
+            if (!isRunning()) {
+                Recording started = new Recording(configuration());
+                started.setName(RECORDING_NAME);
+                started.setToDisk(true);
+                started.setMaxAge(maxAge);
+                started.setMaxSize(maxSize.toBytes());
+                started.enable(InvoiceStageEvent.NAME);
+                started.enable(PdfSectionEvent.NAME);
+                started.start();
+                recording = started;
+                log.info("Flight recording started - Settings: {}, Max age: {}, Max size: {}", settings, maxAge, maxSize);
+            }
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ProfilingStatus stop() {
+        lock.lock();
+        try {
+            if (recording != null) {
+                recording.close();
+                recording = null;
+                log.info("Flight recording stopped");
+            }
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes what the running recording currently holds to a new temporary file, which the
+     * caller must delete.
+     *
+     * @throws IllegalStateException if no recording is running
+     */
+    public Path dump() throws IOException {
+        lock.lock();
+        try {
+            if (!isRunning()) {
+                throw new IllegalStateException("No flight recording is running");
+            }
+            Path file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+            try {
+                recording.dump(file);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            log.info("Flight recording dumped - File: {}, Size: {} bytes", file, Files.size(file));
+            return file;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ProfilingStatus status() {
+        lock.lock();
+        try {
+            boolean running = isRunning();
+            return new ProfilingStatus(running, settings, maxAge, maxSize.toBytes(),
+                    running ? recording.getStartTime() : null,
+                    running ? recording.getSize() : 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private Configuration configuration() {
+        try {
+            return Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR configuration in invoice.profiling.settings: " + settings, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stop();
+    }
+
+    public record ProfilingStatus(boolean running, String settings, Duration maxAge, long maxSizeBytes,
+                                  Instant startedAt, long sizeBytes) {
+    }
+}
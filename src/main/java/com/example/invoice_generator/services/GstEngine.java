@@ -0,0 +1,163 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.TaxQuote;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes GST on vehicle sales in paise. Rates come from a rule table
+ * ({@code invoice.tax.rules}, a CSV of {@code vehicleClass,gstRate,cessRate} in percent) that is
+ * compiled at startup into parallel {@code int} arrays of basis points, indexed by class. The
+ * row for class {@code *} applies to vehicles whose class is missing or not in the table.
+ *
+ * <p>Sales within the dealer's state pay CGST and SGST at half the GST rate each; sales to
+ * another state pay IGST at the full rate. Cess depends only on the vehicle class. Each
+ * component is rounded half up to the paisa on its own, as it appears on the invoice.
+ */
+@Component
+@Slf4j
+public class GstEngine {
+
+    static final String FALLBACK_CLASS = "*";
+
+    private final Map<String, Integer> classIndexes;
+    private final int fallbackIndex;
+    private final int[] gstRateBps;
+    private final int[] cessRateBps;
+
+    @Autowired
+    public GstEngine(@Value("${invoice.tax.rules:classpath:tax/gst-rates.csv}") Resource rules) {
+        this(readLines(rules));
+        log.info("GST rule table loaded - Source: {}, Classes: {}", rules.getDescription(), gstRateBps.length);
+    }
+
+    GstEngine(List<String> lines) {
+        Map<String, Integer> indexes = new HashMap<>();
+        List<int[]> rates = new ArrayList<>();
+        boolean header = true;
+        for (String raw : lines) {
+            String line = raw.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (header) {
+                header = false;
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("Expected vehicleClass,gstRate,cessRate: " + line);
+            }
+            String vehicleClass = fields[0].strip();
+            if (indexes.putIfAbsent(vehicleClass, rates.size()) != null) {
+                throw new IllegalArgumentException("Duplicate vehicle class in GST rules: " + vehicleClass);
+            }
+            int gstBps = toBasisPoints(fields[1]);
+            if (gstBps % 2 != 0) {
+                throw new IllegalArgumentException("GST rate must split evenly into CGST and SGST: " + line);
+            }
+            rates.add(new int[]{gstBps, toBasisPoints(fields[2])});
+        }
+        Integer fallback = indexes.get(FALLBACK_CLASS);
+        if (fallback == null) {
+            throw new IllegalArgumentException("GST rules need a '" + FALLBACK_CLASS + "' row for unknown vehicle classes");
+        }
+
+        this.classIndexes = Map.copyOf(indexes);
+        this.fallbackIndex = fallback;
+        this.gstRateBps = new int[rates.size()];
+        this.cessRateBps = new int[rates.size()];
+        for (int i = 0; i < rates.size(); i++) {
+            gstRateBps[i] = rates.get(i)[0];
+            cessRateBps[i] = rates.get(i)[1];
+        }
+    }
+
+    /**
+     * Resolves a vehicle class to its row in the rule table; unknown and missing classes map to
+     * the fallback row.
+     */
+    public int classIndex(String vehicleClass) {
+        if (vehicleClass == null) {
+            return fallbackIndex;
+        }
+        return classIndexes.getOrDefault(vehicleClass, fallbackIndex);
+    }
+
+    /**
+     * The place of supply for a vehicle sale is the buyer's state; when it is not known the
+     * sale is treated as within the dealer's state.
+     */
+    public static boolean isInterState(String dealerState, String customerState) {
+        return customerState != null && !customerState.isBlank()
+                && dealerState != null && !dealerState.strip().equalsIgnoreCase(customerState.strip());
+    }
+
+    public TaxQuote quote(long basePaise, String vehicleClass, boolean interState) {
+        int index = classIndex(vehicleClass);
+        int gstBps = gstRateBps[index];
+        int cessBps = cessRateBps[index];
+        long cgst = interState ? 0 : Money.applyRate(basePaise, gstBps / 2);
+        long sgst = cgst;
+        long igst = interState ? Money.applyRate(basePaise, gstBps) : 0;
+        long cess = Money.applyRate(basePaise, cessBps);
+        return new TaxQuote(basePaise, interState, gstBps, cgst, sgst, igst, cessBps, cess,
+                basePaise + cgst + sgst + igst + cess);
+    }
+
+    /**
+     * Prices {@code quotes.size()} vehicles in one pass over primitive arrays. {@code classIndexes}
+     * holds the results of {@link #classIndex(String)}.
+     */
+    public void quote(long[] basePaise, int[] classIndexes, boolean interState, TaxQuotes quotes) {
+        for (int i = 0; i < quotes.size(); i++) {
+            int index = classIndexes[i];
+            int gstBps = gstRateBps[index];
+            int cessBps = cessRateBps[index];
+            long base = basePaise[i];
+            long cgst = interState ? 0 : Money.applyRate(base, gstBps / 2);
+            long igst = interState ? Money.applyRate(base, gstBps) : 0;
+            long cess = Money.applyRate(base, cessBps);
+
+            quotes.basePaise[i] = base;
+            quotes.gstRateBps[i] = gstBps;
+            quotes.cgstPaise[i] = cgst;
+            quotes.sgstPaise[i] = cgst;
+            quotes.igstPaise[i] = igst;
+            quotes.cessRateBps[i] = cessBps;
+            quotes.cessPaise[i] = cess;
+            quotes.totalPaise[i] = base + 2 * cgst + igst + cess;
+        }
+    }
+
+    private static int toBasisPoints(String percent) {
+        try {
+            return new BigDecimal(percent.strip()).movePointRight(2).intValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid rate in GST rules: " + percent, e);
+        }
+    }
+
+    private static List<String> readLines(Resource rules) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(rules.getInputStream(), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read GST rules from " + rules.getDescription(), e);
+        }
+    }
+}
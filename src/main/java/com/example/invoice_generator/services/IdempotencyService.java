@@ -0,0 +1,90 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.exception.IdempotencyConflictException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the stored invoice produced for each {@code Idempotency-Key} for a configurable
+ * window. The first request for a key runs the render; concurrent and later requests with the
+ * same key wait on, or reuse, that single result. Failed renders are forgotten so the client
+ * can retry.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> entries;
+
+    public IdempotencyService(@Value("${invoice.idempotency.window:24h}") Duration window,
+                              @Value("${invoice.idempotency.max-entries:100000}") long maxEntries) {
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxEntries)
+                .build();
+        log.info("Idempotency cache configured - Window: {}, Max entries: {}", window, maxEntries);
+    }
+
+    /**
+     * @param fingerprint identifies the request payload; reusing a key with a different
+     *                    fingerprint is rejected with {@link IdempotencyConflictException}
+     */
+    public Outcome execute(String key, String fingerprint, Supplier<StoredInvoice> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+
+        Entry created = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(key, created);
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) {
+                throw new IdempotencyConflictException(
+                        "Idempotency-Key was already used with a different request: " + key);
+            }
+            log.debug("Idempotent replay for key: {}", key);
+            return new Outcome(await(existing.result()), true);
+        }
+
+        try {
+            StoredInvoice stored = action.get();
+            created.result().complete(stored);
+            return new Outcome(stored, false);
+        } catch (Throwable e) {
+            // Errors too (an OutOfMemoryError inside iText): an incomplete future would block
+            // every retry with this key until the entry expires.
+            entries.asMap().remove(key, created);
+            created.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static StoredInvoice await(CompletableFuture<StoredInvoice> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public record Outcome(StoredInvoice invoice, boolean replayed) {
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<StoredInvoice> result) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.invoice_generator.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the rows of a bulk import CSV and reports the byte offset just past each row, so an
+ * interrupted import can seek straight back to its last checkpoint instead of re-reading the
+ * file. Columns are matched by the header row: {@code dealerId}, {@code vehicleId} and
+ * {@code customerName} are required, {@code customerState} and {@code outputProfile} optional.
+ * Quoted fields may contain commas and doubled quotes, but not line breaks. Blank lines are
+ * skipped and do not count as rows.
+ */
+final class ImportCsvReader implements Closeable {
+
+    static final String DEALER_ID = "dealerId";
+    static final String VEHICLE_ID = "vehicleId";
+    static final String CUSTOMER_NAME = "customerName";
+    static final String CUSTOMER_STATE = "customerState";
+    static final String OUTPUT_PROFILE = "outputProfile";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long offset;
+    private long nextRow;
+
+    private ImportCsvReader(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    /**
+     * Reads the header, then positions the reader at {@code offset}.
+     *
+     * @param offset   byte offset of the first row to read, as returned by {@link Row#endOffset()}
+     *                 of the row before it, or 0 to start after the header
+     * @param firstRow index of the row at {@code offset}
+     * @throws IllegalArgumentException if the header lacks a required column
+     */
+    static ImportCsvReader open(Path file, long offset, long firstRow) throws IOException {
+        ImportCsvReader reader = new ImportCsvReader(file);
+        try {
+            reader.readHeader();
+            if (offset > 0) {
+                reader.seek(offset);
+            }
+            reader.nextRow = firstRow;
+            return reader;
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the next row, or {@code null} at the end of the file
+     */
+    Row next() throws IOException {
+        String text;
+        do {
+            text = readLine();
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+        List<String> values = CatalogCsvReader.parseLine(text);
+        return new Row(nextRow++, offset,
+                get(values, DEALER_ID), get(values, VEHICLE_ID), get(values, CUSTOMER_NAME),
+                get(values, CUSTOMER_STATE), get(values, OUTPUT_PROFILE));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readHeader() throws IOException {
+        String header = readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("Empty CSV file: " + file);
+        }
+        List<String> names = CatalogCsvReader.parseLine(header.startsWith("﻿") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        for (String required : List.of(DEALER_ID, VEHICLE_ID, CUSTOMER_NAME)) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Missing " + required + " column in " + file.getFileName());
+            }
+        }
+    }
+
+    private void seek(long position) throws IOException {
+        if (position < offset || position > channel.size()) {
+            throw new IllegalArgumentException("Offset " + position + " is outside the rows of " + file.getFileName());
+        }
+        channel.position(position);
+        buffer.clear().flip();
+        offset = position;
+    }
+
+    private String readLine() throws IOException {
+        line.reset();
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read <= 0) {
+                    return line.size() == 0 ? null : decodeLine();
+                }
+            }
+            byte b = buffer.get();
+            offset++;
+            if (b == '\n') {
+                return decodeLine();
+            }
+            line.write(b);
+        }
+    }
+
+    private String decodeLine() {
+        String text = line.toString(StandardCharsets.UTF_8);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    private String get(List<String> values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * One data row.
+     *
+     * @param index     0-based row number, not counting the header or blank lines
+     * @param endOffset byte offset just past this row's line
+     */
+    record Row(long index, long endOffset, String dealerId, String vehicleId, String customerName,
+               String customerState, String outputProfile) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.invoice_generator.services;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only record of what happened to each row of a bulk import, one line per event:
+ *
+ * <pre>
+ * R,&lt;row&gt;,&lt;invoiceNumber&gt;,&lt;transactionId&gt;   number issued, render about to start
+ * D,&lt;row&gt;,&lt;invoiceNumber&gt;,&lt;bytes&gt;           PDF stored
+ * F,&lt;row&gt;,&lt;error&gt;                           row failed and is not retried
+ * </pre>
+ *
+ * Reservations are flushed before their renders start, so after the process is killed every row
+ * that may have reached the {@link InvoiceStore} has its invoice number on record: resuming checks
+ * the store for that number instead of rendering the row again under a new one. A line cut short
+ * by the kill is dropped when the journal is reopened.
+ */
+final class ImportJournal implements Closeable {
+
+    static final char RESERVED = 'R';
+    static final char DONE = 'D';
+    static final char FAILED = 'F';
+
+    private final Map<Long, Entry> replayed;
+    private final BufferedWriter writer;
+
+    private ImportJournal(Map<Long, Entry> replayed, BufferedWriter writer) {
+        this.replayed = replayed;
+        this.writer = writer;
+    }
+
+    /**
+     * Opens the journal for appending and replays the entries of rows from {@code fromRow} on;
+     * earlier rows are covered by the checkpoint.
+     */
+    static ImportJournal open(Path file, long fromRow) throws IOException {
+        Map<Long, Entry> replayed = new HashMap<>();
+        if (Files.exists(file)) {
+            dropIncompleteLine(file);
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    Entry entry = parse(line);
+                    if (entry != null && entry.row() >= fromRow) {
+                        // A settled entry always follows the reservation of the same row.
+                        replayed.put(entry.row(), entry);
+                    }
+                }
+            }
+        }
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return new ImportJournal(replayed, writer);
+    }
+
+    /**
+     * @return the last entry written for {@code row} before this journal was opened, or {@code null}
+     */
+    Entry replayed(long row) {
+        return replayed.remove(row);
+    }
+
+    void reserved(long row, String invoiceNumber, String transactionId) throws IOException {
+        writer.write(RESERVED + "," + row + "," + invoiceNumber + "," + transactionId + "\n");
+    }
+
+    void done(long row, String invoiceNumber, long bytes) throws IOException {
+        writer.write(DONE + "," + row + "," + invoiceNumber + "," + bytes + "\n");
+    }
+
+    void failed(long row, String error) throws IOException {
+        writer.write(FAILED + "," + row + ",\"" + error.replace("\"", "\"\"").replaceAll("[\r\n]", " ") + "\"\n");
+    }
+
+    /**
+     * Hands everything written so far to the operating system, which is enough to survive the
+     * process being killed.
+     */
+    void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static Entry parse(String line) {
+        List<String> fields = CatalogCsvReader.parseLine(line);
+        if (fields.size() < 3 || fields.get(0).length() != 1) {
+            return null;
+        }
+        char type = fields.get(0).charAt(0);
+        long row = Long.parseLong(fields.get(1));
+        return switch (type) {
+            case RESERVED -> new Entry(type, row, fields.get(2), fields.size() > 3 ? fields.get(3) : null, 0, null);
+            case DONE -> new Entry(type, row, fields.get(2), null, fields.size() > 3 ? Long.parseLong(fields.get(3)) : 0, null);
+            case FAILED -> new Entry(type, row, null, null, 0, fields.get(2));
+            default -> null;
+        };
+    }
+
+    private static void dropIncompleteLine(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            ByteBuffer one = ByteBuffer.allocate(1);
+            long end = size;
+            while (end > 0) {
+                one.clear();
+                channel.read(one, end - 1);
+                if (one.get(0) == '\n') {
+                    break;
+                }
+                end--;
+            }
+            if (end < size) {
+                channel.truncate(end);
+            }
+        }
+    }
+
+    /**
+     * @param type          {@link #RESERVED}, {@link #DONE} or {@link #FAILED}
+     * @param transactionId set for reservations
+     * @param bytes         PDF size, set for {@link #DONE}
+     * @param error         set for {@link #FAILED}
+     */
+    record Entry(char type, long row, String invoiceNumber, String transactionId, long bytes, String error) {
+
+        boolean settled() {
+            return type != RESERVED;
+        }
+    }
+}
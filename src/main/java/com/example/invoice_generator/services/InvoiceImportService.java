@@ -0,0 +1,764 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Invoice;
+import com.example.invoice_generator.dto.InvoiceImport;
+import com.example.invoice_generator.dto.PdfOutputProfile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Generates invoices for every row of a CSV file into the {@link InvoiceStore}, for backfills
+ * and end-of-day runs too large to post one by one.
+ *
+ * <p>Each import has a directory under {@code invoice.import.directory}:
+ * <pre>
+ * job.json          source file, status, timestamps
+ * checkpoint.json   rows settled in file order, the byte offset after them and their counts
+ * journal.csv       per-row invoice numbers and outcomes ({@link ImportJournal})
+ * </pre>
+ *
+ * The file is read as a stream and rows are rendered on {@code invoice.import.parallelism}
+ * worker threads with up to twice that many in flight, through the same render scheduler and
+ * pool as interactive requests. A checkpoint is written every
+ * {@code invoice.import.checkpoint-interval}. A restarted import seeks to the checkpoint,
+ * settles the few rows after it from the journal, and never renders a row twice: a row whose
+ * render was cut off is rendered again under the invoice number it was first given, unless its
+ * PDF already made it into the store.
+ *
+ * <p>Imports run one at a time in submission order. Those still running at shutdown are resumed
+ * once the next instance is ready, unless {@code invoice.import.resume-on-startup=false}.
+ */
+@Service
+@Slf4j
+public class InvoiceImportService {
+
+    static final String JOB_FILE = "job.json";
+    static final String CHECKPOINT_FILE = "checkpoint.json";
+    static final String JOURNAL_FILE = "journal.csv";
+
+    private static final int RECENT_FAILURES = 20;
+
+    private final InvoiceService invoiceService;
+    private final InvoiceStore invoiceStore;
+    private final AdmissionLimiter admissionLimiter;
+    private final InvoiceMetrics metrics;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final Path sourceDirectory;
+    private final int parallelism;
+    private final long checkpointIntervalNanos;
+    private final boolean resumeOnStartup;
+    private final Duration shutdownTimeout;
+    private final ExecutorService coordinator;
+    private final ExecutorService workers;
+    private final Map<String, ImportRun> imports = new ConcurrentHashMap<>();
+    private volatile boolean shuttingDown;
+
+    public InvoiceImportService(InvoiceService invoiceService,
+                                InvoiceStore invoiceStore,
+                                AdmissionLimiter admissionLimiter,
+                                InvoiceMetrics metrics,
+                                ObjectMapper objectMapper,
+                                RenderPool renderPool,
+                                @Value("${invoice.import.directory:data/imports}") String directory,
+                                @Value("${invoice.import.source-directory:data/imports/incoming}") String sourceDirectory,
+                                @Value("${invoice.import.parallelism:0}") int parallelism,
+                                @Value("${invoice.import.checkpoint-interval:5s}") Duration checkpointInterval,
+                                @Value("${invoice.import.resume-on-startup:true}") boolean resumeOnStartup,
+                                @Value("${invoice.import.shutdown-timeout:5s}") Duration shutdownTimeout) {
+        this.invoiceService = invoiceService;
+        this.invoiceStore = invoiceStore;
+        this.admissionLimiter = admissionLimiter;
+        this.metrics = metrics;
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.sourceDirectory = Paths.get(sourceDirectory).toAbsolutePath().normalize();
+        // Leave half of the render threads to interactive traffic by default.
+        this.parallelism = parallelism > 0 ? parallelism : Math.max(1, renderPool.getThreads() / 2);
+        this.checkpointIntervalNanos = checkpointInterval.toNanos();
+        this.resumeOnStartup = resumeOnStartup;
+        this.shutdownTimeout = shutdownTimeout;
+        this.coordinator = Executors.newSingleThreadExecutor(BatchInvoiceService.namedThreadFactory("invoice-import-"));
+        this.workers = Executors.newFixedThreadPool(this.parallelism,
+                BatchInvoiceService.namedThreadFactory("invoice-import-worker-"));
+        log.info("Invoice import configured - Directory: {}, Parallelism: {}", this.directory, this.parallelism);
+    }
+
+    /**
+     * Queues an import of the CSV file {@code source}, resolved against
+     * {@code invoice.import.source-directory}; files outside that directory cannot be imported.
+     *
+     * @throws IllegalArgumentException if the file is outside the source directory or missing, or
+     *                                  its header lacks a required column
+     * @throws IllegalStateException    if the invoice store is disabled
+     */
+    public InvoiceImport start(String source) {
+        if (!invoiceStore.isEnabled()) {
+            throw new IllegalStateException("Invoice imports require the invoice store to be enabled");
+        }
+        Path file = ContainedPath.resolve(sourceDirectory, source, "Import file");
+        try {
+            // Fail on a bad header now rather than in the background.
+            ImportCsvReader.open(file, 0, 0).close();
+            String id = UUID.randomUUID().toString();
+            ImportRun run = new ImportRun(id, directory.resolve(id), file, Files.size(file),
+                    Files.getLastModifiedTime(file).toMillis(), Instant.now());
+            Files.createDirectories(run.dir);
+            saveJob(run);
+            imports.put(id, run);
+            log.info("Invoice import queued - Import: {}, File: {}, Size: {} bytes", id, file, run.sourceBytes);
+            enqueue(run);
+            return run.toDto();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start import of " + file, e);
+        }
+    }
+
+    public Optional<InvoiceImport> find(String importId) {
+        return Optional.ofNullable(imports.get(importId)).map(ImportRun::toDto);
+    }
+
+    public List<InvoiceImport> list() {
+        return imports.values().stream()
+                .sorted(Comparator.comparing(run -> run.createdAt))
+                .map(ImportRun::toDto)
+                .toList();
+    }
+
+    /**
+     * The import's journal, which maps each row to its invoice number or error.
+     */
+    public Optional<Path> journal(String importId) {
+        return Optional.ofNullable(imports.get(importId))
+                .map(run -> run.dir.resolve(JOURNAL_FILE))
+                .filter(Files::exists);
+    }
+
+    /**
+     * Stops the import after the rows in flight have been stored; {@link #resume} continues it.
+     *
+     * @throws IllegalStateException if the import has already finished
+     */
+    public Optional<InvoiceImport> pause(String importId) {
+        return Optional.ofNullable(imports.get(importId)).map(run -> {
+            boolean dequeued;
+            synchronized (run) {
+                if (run.status == InvoiceImport.Status.COMPLETED || run.status == InvoiceImport.Status.FAILED) {
+                    throw new IllegalStateException("Import " + importId + " has already finished");
+                }
+                run.stopRequested = true;
+                dequeued = run.status == InvoiceImport.Status.QUEUED;
+                if (dequeued) {
+                    run.status = InvoiceImport.Status.PAUSED;
+                }
+            }
+            if (dequeued) {
+                saveJobQuietly(run);
+            }
+            return run.toDto();
+        });
+    }
+
+    /**
+     * Queues a paused or failed import to continue from its last checkpoint.
+     *
+     * @throws IllegalStateException if the import has completed
+     */
+    public Optional<InvoiceImport> resume(String importId) {
+        return Optional.ofNullable(imports.get(importId)).map(run -> {
+            boolean requeued;
+            synchronized (run) {
+                if (run.status == InvoiceImport.Status.COMPLETED) {
+                    throw new IllegalStateException("Import " + importId + " has already completed");
+                }
+                requeued = run.status == InvoiceImport.Status.PAUSED || run.status == InvoiceImport.Status.FAILED;
+                if (requeued) {
+                    run.error = null;
+                    markQueued(run);
+                }
+            }
+            if (requeued) {
+                submit(run);
+            }
+            return run.toDto();
+        });
+    }
+
+    /**
+     * Picks up the imports found on disk; those that were queued or running when the previous
+     * instance stopped are resumed. Runs once the application is ready, so warm-up finishes first.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        if (!invoiceStore.isEnabled() || !Files.isDirectory(directory)) {
+            return;
+        }
+        List<ImportRun> found = new ArrayList<>();
+        try (Stream<Path> dirs = Files.list(directory)) {
+            for (Path dir : dirs.filter(dir -> Files.isRegularFile(dir.resolve(JOB_FILE))).toList()) {
+                try {
+                    found.add(ImportRun.from(objectMapper.readValue(dir.resolve(JOB_FILE).toFile(), JobFile.class), dir));
+                } catch (IOException e) {
+                    log.error("Cannot read invoice import {}", dir, e);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Cannot list invoice imports in {}", directory, e);
+            return;
+        }
+        found.sort(Comparator.comparing(run -> run.createdAt));
+        for (ImportRun run : found) {
+            readCheckpointQuietly(run);
+            imports.put(run.id, run);
+            boolean unfinished = run.status == InvoiceImport.Status.QUEUED || run.status == InvoiceImport.Status.RUNNING;
+            if (unfinished && resumeOnStartup) {
+                log.info("Resuming invoice import {} at row {}", run.id, run.checkpoint.rows());
+                enqueue(run);
+            } else if (unfinished) {
+                run.status = InvoiceImport.Status.PAUSED;
+            }
+        }
+    }
+
+    private void enqueue(ImportRun run) {
+        synchronized (run) {
+            markQueued(run);
+        }
+        submit(run);
+    }
+
+    private static void markQueued(ImportRun run) {
+        run.status = InvoiceImport.Status.QUEUED;
+        run.stopRequested = false;
+    }
+
+    private void submit(ImportRun run) {
+        saveJobQuietly(run);
+        coordinator.execute(() -> execute(run));
+    }
+
+    private void execute(ImportRun run) {
+        synchronized (run) {
+            if (run.stopRequested || run.status != InvoiceImport.Status.QUEUED) {
+                return;
+            }
+            run.status = InvoiceImport.Status.RUNNING;
+            run.startedAt = Instant.now();
+            run.completedAt = null;
+        }
+        saveJobQuietly(run);
+        try {
+            process(run);
+            synchronized (run) {
+                if (!run.stopRequested) {
+                    run.status = InvoiceImport.Status.COMPLETED;
+                    run.completedAt = Instant.now();
+                } else if (!shuttingDown) {
+                    run.status = InvoiceImport.Status.PAUSED;
+                }
+                // Stopped by shutdown: stays RUNNING on disk so the next instance resumes it.
+            }
+            log.atInfo()
+                    .addKeyValue("import", run.id)
+                    .addKeyValue("status", run.status)
+                    .addKeyValue("rendered", run.rendered)
+                    .addKeyValue("failed", run.failed)
+                    .addKeyValue("recovered", run.recovered)
+                    .addKeyValue("rowsPerSecond", String.format(Locale.ROOT, "%.1f", run.rowsPerSecond()))
+                    .log(run.status == InvoiceImport.Status.COMPLETED ? "Invoice import completed" : "Invoice import stopped");
+        } catch (Exception e) {
+            if (shuttingDown || Thread.currentThread().isInterrupted()) {
+                // Cut off by shutdown: left RUNNING on disk, like an import that stopped in time.
+                log.warn("Invoice import {} interrupted at row {}; it resumes on the next start",
+                        run.id, run.checkpoint.rows(), e);
+                return;
+            }
+            synchronized (run) {
+                run.status = InvoiceImport.Status.FAILED;
+                run.error = e.getMessage();
+                run.completedAt = Instant.now();
+            }
+            log.error("Invoice import {} failed at row {}", run.id, run.checkpoint.rows(), e);
+        }
+        saveJobQuietly(run);
+    }
+
+    private void process(ImportRun run) throws IOException, InterruptedException {
+        if (Files.size(run.source) != run.sourceBytes
+                || Files.getLastModifiedTime(run.source).toMillis() != run.sourceModified) {
+            throw new IllegalStateException("Source file changed since the import started: " + run.source);
+        }
+        readCheckpoint(run);
+        run.restart();
+
+        try (ImportJournal journal = ImportJournal.open(run.dir.resolve(JOURNAL_FILE), run.checkpoint.rows());
+             ImportCsvReader reader = ImportCsvReader.open(run.source, run.checkpoint.offset(), run.checkpoint.rows())) {
+            CompletionService<RowResult> completion = new ExecutorCompletionService<>(workers);
+            ArrayDeque<PendingRow> window = new ArrayDeque<>();
+            Map<Long, PendingRow> rendering = new HashMap<>();
+            List<PendingRow> admitted = new ArrayList<>();
+            int maxInFlight = parallelism * 2;
+            boolean exhausted = false;
+            long nextCheckpoint = System.nanoTime() + checkpointIntervalNanos;
+
+            while (true) {
+                while (!exhausted && !run.stopRequested && rendering.size() < maxInFlight) {
+                    ImportCsvReader.Row row = reader.next();
+                    if (row == null) {
+                        exhausted = true;
+                        break;
+                    }
+                    run.bytesRead = row.endOffset();
+                    PendingRow pending = new PendingRow(row.index(), row.endOffset());
+                    window.addLast(pending);
+                    if (admit(run, journal, row, pending)) {
+                        rendering.put(row.index(), pending);
+                        admitted.add(pending);
+                    }
+                }
+                // Reservations must be on record before their renders can reach the store.
+                journal.flush();
+                for (PendingRow pending : admitted) {
+                    long row = pending.row;
+                    Invoice invoice = pending.invoice;
+                    completion.submit(() -> render(row, invoice));
+                }
+                admitted.clear();
+
+                if (rendering.isEmpty() && (exhausted || run.stopRequested)) {
+                    break;
+                }
+                Future<RowResult> done = completion.poll(
+                        Math.max(0, nextCheckpoint - System.nanoTime()), TimeUnit.NANOSECONDS);
+                while (done != null) {
+                    RowResult result = result(done);
+                    settle(run, journal, rendering.remove(result.row()), result);
+                    done = completion.poll();
+                }
+                advance(run, window);
+                if (System.nanoTime() - nextCheckpoint >= 0) {
+                    journal.flush();
+                    writeCheckpoint(run);
+                    logProgress(run);
+                    nextCheckpoint = System.nanoTime() + checkpointIntervalNanos;
+                }
+            }
+            journal.flush();
+            advance(run, window);
+            writeCheckpoint(run);
+        }
+    }
+
+    /**
+     * Settles a row that needs no render, or prepares the invoice to render for it.
+     *
+     * @return whether the row needs rendering
+     */
+    private boolean admit(ImportRun run, ImportJournal journal, ImportCsvReader.Row row, PendingRow pending)
+            throws IOException {
+        ImportJournal.Entry previous = journal.replayed(row.index());
+        if (previous != null && previous.settled()) {
+            // Settled after the last checkpoint of an earlier run.
+            if (previous.type() == ImportJournal.DONE) {
+                pending.settle(Outcome.RENDERED, previous.bytes());
+            } else {
+                pending.settle(Outcome.FAILED, 0);
+                run.recordFailure(row.index(), previous.error());
+            }
+            run.count(pending);
+            return false;
+        }
+        if (previous != null) {
+            Optional<StoredInvoice> stored = invoiceStore.find(previous.invoiceNumber());
+            if (stored.isPresent()) {
+                journal.done(row.index(), previous.invoiceNumber(), stored.get().size());
+                pending.settle(Outcome.RECOVERED, stored.get().size());
+                run.count(pending);
+                metrics.recordImportRow(Outcome.RECOVERED.tag);
+                return false;
+            }
+        }
+        try {
+            requireText(row.dealerId(), "Dealer ID is required");
+            requireText(row.vehicleId(), "Vehicle ID is required");
+            requireText(row.customerName(), "Customer name is required");
+            Invoice invoice = invoiceService.prepareInvoice(row.dealerId(), row.vehicleId(), row.customerName(),
+                    row.customerState(), outputProfile(row.outputProfile()),
+                    previous != null ? previous.invoiceNumber() : null,
+                    previous != null ? previous.transactionId() : null);
+            if (previous == null) {
+                journal.reserved(row.index(), invoice.getInvoiceNumber(), invoice.getTransactionId());
+            }
+            pending.invoice = invoice;
+            return true;
+        } catch (IllegalArgumentException e) {
+            journal.failed(row.index(), e.getMessage());
+            pending.settle(Outcome.FAILED, 0);
+            run.recordFailure(row.index(), e.getMessage());
+            run.count(pending);
+            metrics.recordImportRow(Outcome.FAILED.tag);
+            return false;
+        }
+    }
+
+    /**
+     * Runs on a worker thread. Rows are only failed for errors in the row itself; under load the
+     * row waits for admission and a render slot as long as it takes.
+     */
+    private RowResult render(long row, Invoice invoice) {
+        try {
+            StoredInvoice stored = admissionLimiter.callWhenAdmitted(() -> invoiceStore.store(
+                    invoice.getInvoiceNumber(), out -> invoiceService.renderInvoice(invoice, out)));
+            return new RowResult(row, stored.size(), null, false);
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                return new RowResult(row, 0, null, true);
+            }
+            log.error("Error generating import row {} as {}", row, invoice.getInvoiceNumber(), e);
+            return new RowResult(row, 0, "Failed to generate invoice", false);
+        }
+    }
+
+    private void settle(ImportRun run, ImportJournal journal, PendingRow pending, RowResult result) throws IOException {
+        if (result.interrupted()) {
+            // Left reserved: the next run checks the store and renders it again if needed.
+            run.stopRequested = true;
+            return;
+        }
+        if (result.error() == null) {
+            journal.done(result.row(), pending.invoice.getInvoiceNumber(), result.bytes());
+            pending.settle(Outcome.RENDERED, result.bytes());
+        } else {
+            journal.failed(result.row(), result.error());
+            pending.settle(Outcome.FAILED, 0);
+            run.recordFailure(result.row(), result.error());
+        }
+        pending.invoice = null;
+        run.count(pending);
+        metrics.recordImportRow(pending.outcome.tag);
+    }
+
+    /**
+     * Moves the checkpoint past every leading row of the window that has settled.
+     */
+    private static void advance(ImportRun run, ArrayDeque<PendingRow> window) {
+        Checkpoint checkpoint = run.checkpoint;
+        long rows = checkpoint.rows();
+        long offset = checkpoint.offset();
+        long rendered = checkpoint.rendered();
+        long failed = checkpoint.failed();
+        long recovered = checkpoint.recovered();
+        long bytes = checkpoint.renderedBytes();
+        while (!window.isEmpty() && window.peekFirst().outcome != null) {
+            PendingRow pending = window.pollFirst();
+            rows = pending.row + 1;
+            offset = pending.endOffset;
+            switch (pending.outcome) {
+                case RENDERED -> rendered++;
+                case RECOVERED -> {
+                    rendered++;
+                    recovered++;
+                }
+                case FAILED -> failed++;
+            }
+            bytes += pending.bytes;
+        }
+        run.checkpoint = new Checkpoint(rows, offset, rendered, failed, recovered, bytes);
+    }
+
+    private static RowResult result(Future<RowResult> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // render() returns every failure as a result.
+            throw new IllegalStateException("Import render failed", e.getCause());
+        }
+    }
+
+    private static PdfOutputProfile outputProfile(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return PdfOutputProfile.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown output profile: " + value);
+        }
+    }
+
+    private static void requireText(String value, String message) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private void logProgress(ImportRun run) {
+        InvoiceImport status = run.toDto();
+        log.atInfo()
+                .addKeyValue("import", run.id)
+                .addKeyValue("rows", status.getRowsProcessed())
+                .addKeyValue("failed", status.getFailed())
+                .addKeyValue("percent", String.format(Locale.ROOT, "%.1f", status.getPercentComplete()))
+                .addKeyValue("rowsPerSecond", String.format(Locale.ROOT, "%.1f", status.getRowsPerSecond()))
+                .log("Invoice import progress");
+    }
+
+    private void readCheckpoint(ImportRun run) throws IOException {
+        Path file = run.dir.resolve(CHECKPOINT_FILE);
+        run.checkpoint = Files.exists(file)
+                ? objectMapper.readValue(file.toFile(), Checkpoint.class)
+                : Checkpoint.START;
+    }
+
+    private void readCheckpointQuietly(ImportRun run) {
+        try {
+            readCheckpoint(run);
+            run.restart();
+        } catch (IOException e) {
+            log.error("Cannot read checkpoint of invoice import {}", run.id, e);
+        }
+    }
+
+    private void writeCheckpoint(ImportRun run) throws IOException {
+        writeAtomically(run.dir.resolve(CHECKPOINT_FILE), objectMapper.writeValueAsBytes(run.checkpoint));
+    }
+
+    private void saveJob(ImportRun run) throws IOException {
+        writeAtomically(run.dir.resolve(JOB_FILE), objectMapper.writeValueAsBytes(run.toJobFile()));
+    }
+
+    private void saveJobQuietly(ImportRun run) {
+        try {
+            saveJob(run);
+        } catch (IOException e) {
+            log.error("Cannot save invoice import {}", run.id, e);
+        }
+    }
+
+    private static void writeAtomically(Path file, byte[] content) throws IOException {
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, content);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Lets the running import store the rows in flight and checkpoint for up to
+     * {@code invoice.import.shutdown-timeout}; whatever is cut off after that is recovered from
+     * the journal on the next start.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        shuttingDown = true;
+        imports.values().forEach(run -> run.stopRequested = true);
+        coordinator.shutdown();
+        if (!coordinator.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Invoice import did not stop within {}; it resumes from its journal on the next start",
+                    shutdownTimeout);
+        }
+        workers.shutdownNow();
+        coordinator.shutdownNow();
+        // Lets the interrupted import settle before the store and journal go away.
+        coordinator.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    enum Outcome {
+        RENDERED("rendered"), RECOVERED("recovered"), FAILED("failed");
+
+        final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Rows before {@code rows} are settled; the next one starts at byte {@code offset}.
+     */
+    record Checkpoint(long rows, long offset, long rendered, long failed, long recovered, long renderedBytes) {
+        static final Checkpoint START = new Checkpoint(0, 0, 0, 0, 0, 0);
+    }
+
+    record JobFile(String id, String source, long sourceBytes, long sourceModified, InvoiceImport.Status status,
+                   Instant createdAt, Instant startedAt, Instant completedAt, String error) {
+    }
+
+    private record RowResult(long row, long bytes, String error, boolean interrupted) {
+    }
+
+    /** A row read from the file but not yet behind the checkpoint; only the coordinator touches it. */
+    private static final class PendingRow {
+        final long row;
+        final long endOffset;
+        Invoice invoice;
+        Outcome outcome;
+        long bytes;
+
+        PendingRow(long row, long endOffset) {
+            this.row = row;
+            this.endOffset = endOffset;
+        }
+
+        void settle(Outcome outcome, long bytes) {
+            this.outcome = outcome;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Live state of one import. The counters are written by the coordinator thread only and
+     * read by status requests.
+     */
+    private static final class ImportRun {
+        final String id;
+        final Path dir;
+        final Path source;
+        final long sourceBytes;
+        final long sourceModified;
+        final Instant createdAt;
+        final ConcurrentLinkedDeque<String> recentFailures = new ConcurrentLinkedDeque<>();
+        volatile InvoiceImport.Status status = InvoiceImport.Status.QUEUED;
+        volatile boolean stopRequested;
+        volatile Instant startedAt;
+        volatile Instant completedAt;
+        volatile String error;
+        volatile Checkpoint checkpoint = Checkpoint.START;
+        volatile long rendered;
+        volatile long failed;
+        volatile long recovered;
+        volatile long renderedBytes;
+        volatile long bytesRead;
+        volatile long processedThisRun;
+        volatile long runStartNanos = System.nanoTime();
+
+        ImportRun(String id, Path dir, Path source, long sourceBytes, long sourceModified, Instant createdAt) {
+            this.id = id;
+            this.dir = dir;
+            this.source = source;
+            this.sourceBytes = sourceBytes;
+            this.sourceModified = sourceModified;
+            this.createdAt = createdAt;
+        }
+
+        static ImportRun from(JobFile job, Path dir) {
+            ImportRun run = new ImportRun(job.id(), dir, Path.of(job.source()), job.sourceBytes(),
+                    job.sourceModified(), job.createdAt());
+            run.status = job.status();
+            run.startedAt = job.startedAt();
+            run.completedAt = job.completedAt();
+            run.error = job.error();
+            return run;
+        }
+
+        /** Resets the live counters to the checkpoint. */
+        void restart() {
+            rendered = checkpoint.rendered();
+            failed = checkpoint.failed();
+            recovered = checkpoint.recovered();
+            renderedBytes = checkpoint.renderedBytes();
+            bytesRead = checkpoint.offset();
+            processedThisRun = 0;
+            runStartNanos = System.nanoTime();
+        }
+
+        void count(PendingRow pending) {
+            switch (pending.outcome) {
+                case RENDERED -> rendered++;
+                case RECOVERED -> {
+                    rendered++;
+                    recovered++;
+                }
+                case FAILED -> failed++;
+            }
+            renderedBytes += pending.bytes;
+            processedThisRun++;
+        }
+
+        void recordFailure(long row, String error) {
+            recentFailures.addLast("row " + (row + 1) + ": " + error);
+            while (recentFailures.size() > RECENT_FAILURES) {
+                recentFailures.pollFirst();
+            }
+        }
+
+        double rowsPerSecond() {
+            double seconds = (System.nanoTime() - runStartNanos) / 1e9;
+            return seconds > 0 ? processedThisRun / seconds : 0;
+        }
+
+        JobFile toJobFile() {
+            return new JobFile(id, source.toString(), sourceBytes, sourceModified, status,
+                    createdAt, startedAt, completedAt, error);
+        }
+
+        InvoiceImport toDto() {
+            InvoiceImport.Status current = status;
+            long read = bytesRead;
+            double rate = current == InvoiceImport.Status.RUNNING ? rowsPerSecond() : 0;
+            long processed = rendered + failed;
+            Long remaining = null;
+            if (rate > 0 && processed > 0 && read > 0) {
+                // Rows left, estimated from the bytes left at the average row size so far.
+                double rowsLeft = (sourceBytes - read) * (double) processed / read;
+                remaining = Math.round(rowsLeft / rate);
+            }
+            return InvoiceImport.builder()
+                    .importId(id)
+                    .status(current)
+                    .source(source.toString())
+                    .rowsProcessed(processed)
+                    .rendered(rendered)
+                    .failed(failed)
+                    .recovered(recovered)
+                    .renderedBytes(renderedBytes)
+                    .bytesRead(read)
+                    .sourceBytes(sourceBytes)
+                    .percentComplete(current == InvoiceImport.Status.COMPLETED ? 100
+                            : sourceBytes == 0 ? 0 : read * 100.0 / sourceBytes)
+                    .rowsPerSecond(rate)
+                    .estimatedSecondsRemaining(remaining)
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .error(error)
+                    .recentFailures(List.copyOf(recentFailures))
+                    .build();
+        }
+    }
+}
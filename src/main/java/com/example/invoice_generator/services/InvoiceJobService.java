@@ -0,0 +1,223 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Invoice;
+import com.example.invoice_generator.dto.InvoiceJob;
+import com.example.invoice_generator.dto.InvoiceRequest;
+import com.example.invoice_generator.exception.JobQueueFullException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accepts invoice requests for background rendering. A submission first takes one of
+ * {@code invoice.jobs.queue-capacity} queue places (plus one per worker) and is rejected with
+ * {@link JobQueueFullException} when none is left, before an invoice number is allocated, so
+ * overload does not leave gaps in the numbering. Requests are then validated and numbered on
+ * the caller's thread and run on a fixed pool. Finished PDFs go into the {@link InvoiceStore},
+ * and job status is kept until {@code invoice.jobs.retention} after the job has finished.
+ */
+@Service
+@Slf4j
+public class InvoiceJobService {
+
+    private static final long MAX_RETRY_AFTER_SECONDS = 60;
+
+    private final InvoiceService invoiceService;
+    private final InvoiceStore invoiceStore;
+    private final AdmissionLimiter admissionLimiter;
+    private final ThreadPoolExecutor executor;
+    /** Queued and running jobs; the executor's queue itself is unbounded. */
+    private final Semaphore places;
+    private final Cache<String, Job> jobs;
+    private final int workers;
+    /** Exponentially weighted average of job run time, used for the Retry-After hint. */
+    private final AtomicLong averageRunNanos = new AtomicLong(TimeUnit.MILLISECONDS.toNanos(100));
+
+    public InvoiceJobService(InvoiceService invoiceService,
+                             InvoiceStore invoiceStore,
+                             AdmissionLimiter admissionLimiter,
+                             InvoiceMetrics metrics,
+                             @Value("${invoice.jobs.workers:0}") int workers,
+                             @Value("${invoice.jobs.queue-capacity:1000}") int queueCapacity,
+                             @Value("${invoice.jobs.retention:1h}") Duration retention) {
+        this.invoiceService = invoiceService;
+        this.invoiceStore = invoiceStore;
+        this.admissionLimiter = admissionLimiter;
+        this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.places = new Semaphore(queueCapacity + this.workers);
+        this.executor = new ThreadPoolExecutor(this.workers, this.workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                BatchInvoiceService.namedThreadFactory("invoice-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(new RetainFinished(retention))
+                .build();
+        metrics.monitorJobQueue(executor.getQueue());
+        log.info("Invoice job pool started - Workers: {}, Queue capacity: {}, Retention: {}",
+                this.workers, queueCapacity, retention);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the request is incomplete or names an unknown dealer or vehicle
+     * @throws IllegalStateException    if the invoice store is disabled or the service is shutting down
+     * @throws JobQueueFullException    if the queue is at capacity
+     */
+    public InvoiceJob submit(InvoiceRequest request) {
+        if (!invoiceStore.isEnabled()) {
+            throw new IllegalStateException("Invoice jobs require the invoice store to be enabled");
+        }
+        requireText(request.getDealerId(), "Dealer ID is required");
+        requireText(request.getVehicleId(), "Vehicle ID is required");
+        requireText(request.getCustomerName(), "Customer name is required");
+        if (!places.tryAcquire()) {
+            throw new JobQueueFullException("Invoice job queue is full", retryAfterSeconds());
+        }
+
+        Job job;
+        try {
+            Invoice invoice = invoiceService.prepareInvoice(
+                    request.getDealerId(),
+                    request.getVehicleId(),
+                    request.getCustomerName(),
+                    request.getCustomerState(),
+                    request.getOutputProfile()
+            );
+            job = new Job(UUID.randomUUID().toString(), invoice.getInvoiceNumber(), Instant.now());
+            executor.execute(() -> {
+                try {
+                    run(job, invoice);
+                } finally {
+                    places.release();
+                }
+            });
+            jobs.put(job.id, job);
+        } catch (RejectedExecutionException e) {
+            places.release();
+            throw new IllegalStateException("Invoice job pool is shut down", e);
+        } catch (RuntimeException e) {
+            places.release();
+            throw e;
+        }
+        log.debug("Invoice job queued - Job: {}, Invoice: {}", job.id, job.invoiceNumber);
+        return job.toDto();
+    }
+
+    public Optional<InvoiceJob> find(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId)).map(Job::toDto);
+    }
+
+    private void run(Job job, Invoice invoice) {
+        job.startedAt = Instant.now();
+        job.status = InvoiceJob.Status.RUNNING;
+        long start = System.nanoTime();
+        try {
+            admissionLimiter.callWhenAdmitted(() -> invoiceStore.store(invoice.getInvoiceNumber(),
+                    out -> invoiceService.renderInvoice(invoice, out)));
+            job.completedAt = Instant.now();
+            job.status = InvoiceJob.Status.COMPLETED;
+            log.debug("Invoice job completed - Job: {}, Invoice: {}", job.id, job.invoiceNumber);
+        } catch (Exception e) {
+            job.error = "Failed to generate invoice";
+            job.completedAt = Instant.now();
+            job.status = InvoiceJob.Status.FAILED;
+            log.error("Invoice job failed - Job: {}, Invoice: {}", job.id, job.invoiceNumber, e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            averageRunNanos.getAndUpdate(avg -> avg + (elapsed - avg) / 8);
+            // Starts the retention period.
+            jobs.put(job.id, job);
+        }
+    }
+
+    /**
+     * Roughly how long the current backlog takes to drain across all workers.
+     */
+    private long retryAfterSeconds() {
+        long drainNanos = executor.getQueue().size() * averageRunNanos.get() / workers;
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(drainNanos) + 1;
+        return Math.min(seconds, MAX_RETRY_AFTER_SECONDS);
+    }
+
+    private static void requireText(String value, String message) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queued and running jobs never expire; their number is bounded by the queue places.
+     * Finished ones expire {@code retention} after they finished.
+     */
+    private static final class RetainFinished implements Expiry<String, Job> {
+        private final long retentionNanos;
+
+        RetainFinished(Duration retention) {
+            this.retentionNanos = retention.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String id, Job job, long currentTime) {
+            return job.completedAt != null ? retentionNanos : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, Job job, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, job, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String id, Job job, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static final class Job {
+        final String id;
+        final String invoiceNumber;
+        final Instant submittedAt;
+        volatile InvoiceJob.Status status = InvoiceJob.Status.QUEUED;
+        volatile Instant startedAt;
+        volatile Instant completedAt;
+        volatile String error;
+
+        Job(String id, String invoiceNumber, Instant submittedAt) {
+            this.id = id;
+            this.invoiceNumber = invoiceNumber;
+            this.submittedAt = submittedAt;
+        }
+
+        InvoiceJob toDto() {
+            InvoiceJob.Status current = status;
+            return InvoiceJob.builder()
+                    .jobId(id)
+                    .status(current)
+                    .invoiceNumber(invoiceNumber)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .downloadUrl(current == InvoiceJob.Status.COMPLETED ? "/api/invoice/" + invoiceNumber : null)
+                    .error(error)
+                    .build();
+        }
+    }
+}
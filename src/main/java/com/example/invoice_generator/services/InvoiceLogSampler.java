@@ -0,0 +1,85 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Invoice;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes the one log line per finished invoice as key-value fields rather than a formatted
+ * message. Only a fraction of successful invoices are logged
+ * ({@code invoice.logging.success-sample-rate}, 1 = all, 0 = none); invoices that took at least
+ * {@code invoice.logging.slow-threshold} to render are always logged, at WARN. Render time leaves
+ * out waiting for a render slot and for the client to read the output (see {@link RenderClock});
+ * the {@code queue} and {@code write} stage timers cover those. Failures are logged where they are
+ * handled and are not sampled. Customer names are never logged.
+ */
+@Component
+@Slf4j
+public class InvoiceLogSampler {
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    @Autowired
+    public InvoiceLogSampler(@Value("${invoice.logging.success-sample-rate:0.01}") double sampleRate,
+                             @Value("${invoice.logging.slow-threshold:1s}") Duration slowThreshold) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("invoice.logging.success-sample-rate must be between 0 and 1: "
+                    + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    /**
+     * Logs nothing, for renders that are not customer invoices such as warm-up and benchmarks.
+     */
+    static InvoiceLogSampler silent() {
+        return new InvoiceLogSampler(0, Duration.ofNanos(Long.MAX_VALUE));
+    }
+
+    public void generated(Invoice invoice, long sizeBytes, long durationNanos) {
+        boolean slow = durationNanos >= slowThresholdNanos;
+        if (!slow && !sampled()) {
+            return;
+        }
+        LoggingEventBuilder event = slow ? log.atWarn() : log.atInfo();
+        event.addKeyValue("invoice", invoice.getInvoiceNumber())
+                .addKeyValue("dealer", invoice.getDealer().getDealerId())
+                .addKeyValue("vehicle", invoice.getVehicle().getVehicleId())
+                .addKeyValue("profile", invoice.getOutputProfile())
+                .addKeyValue("bytes", sizeBytes)
+                .addKeyValue("ms", durationNanos / 1_000_000)
+                .log(slow ? "Slow invoice" : "Invoice generated");
+    }
+
+    /**
+     * Logs a merged document like one invoice. It counts as slow when it took at least the
+     * threshold per invoice it contains.
+     */
+    public void mergedGenerated(List<Invoice> invoices, long sizeBytes, long durationNanos) {
+        boolean slow = durationNanos / invoices.size() >= slowThresholdNanos;
+        if (!slow && !sampled()) {
+            return;
+        }
+        LoggingEventBuilder event = slow ? log.atWarn() : log.atInfo();
+        event.addKeyValue("invoices", invoices.size())
+                .addKeyValue("first", invoices.get(0).getInvoiceNumber())
+                .addKeyValue("last", invoices.get(invoices.size() - 1).getInvoiceNumber())
+                .addKeyValue("dealer", invoices.get(0).getDealer().getDealerId())
+                .addKeyValue("bytes", sizeBytes)
+                .addKeyValue("ms", durationNanos / 1_000_000)
+                .log(slow ? "Slow merged invoices" : "Merged invoices generated");
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.invoice_generator.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer instruments for invoice generation:
+ * <ul>
+ *     <li>{@code invoice.stage.duration} - timer per stage and dealer, with percentile histograms</li>
+ *     <li>{@code invoice.pdf.size} - distribution of PDF sizes in bytes, per dealer and output profile</li>
+ *     <li>{@code invoice.failures} - failures by cause</li>
+ *     <li>{@code invoice.jobs.queued} - background jobs waiting for a worker</li>
+ *     <li>{@code invoice.admission.*} - admission limit, renders in flight, reserved memory and rejections</li>
+ *     <li>{@code invoice.scheduler.*} - render slots in use and renders waiting for one; the wait
+ *     itself is the {@value #STAGE_QUEUE} stage</li>
+ *     <li>{@code invoice.import.rows} - bulk import rows by outcome (rendered, recovered, failed)</li>
+ *     <li>{@code invoice.render.slow} - renders flagged by the JFR slow-render detector</li>
+ *     <li>{@code invoice.warmup.duration} and {@code invoice.first-render.duration} - startup warm-up
+ *     time and the render latency of the first real invoice after it</li>
+ * </ul>
+ * Only the first {@code invoice.metrics.max-dealer-tags} dealers seen get their own tag value;
+ * later ones are reported as {@value #OTHER_DEALER} to keep the number of series bounded.
+ */
+@Component
+@Slf4j
+public class InvoiceMetrics {
+
+    public static final String STAGE_LOOKUP = "lookup";
+    public static final String STAGE_QUEUE = "queue";
+    public static final String STAGE_QR = "qr";
+    public static final String STAGE_LAYOUT = "layout";
+    public static final String STAGE_SERIALIZE = "serialize";
+
+    public static final String CAUSE_DEALER_NOT_FOUND = "dealer_not_found";
+    public static final String CAUSE_VEHICLE_NOT_FOUND = "vehicle_not_found";
+    public static final String CAUSE_QR_ERROR = "qr_error";
+    public static final String CAUSE_RENDER_ERROR = "render_error";
+
+    static final String OTHER_DEALER = "other";
+
+    private final MeterRegistry registry;
+    private final int maxDealerTags;
+    private final Set<String> taggedDealers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> sizeSummaries = new ConcurrentHashMap<>();
+    private final Map<String, Counter> failureCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejectionCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> importCounters = new ConcurrentHashMap<>();
+    private final AtomicLong warmupNanos = new AtomicLong();
+    private final AtomicLong firstRenderNanos = new AtomicLong();
+    private final AtomicBoolean firstRenderSeen = new AtomicBoolean();
+
+    public InvoiceMetrics(MeterRegistry registry,
+                          @Value("${invoice.metrics.max-dealer-tags:50}") int maxDealerTags) {
+        this.registry = registry;
+        this.maxDealerTags = maxDealerTags;
+    }
+
+    /**
+     * Metrics that go nowhere, for renders that should not show up in production figures.
+     */
+    static InvoiceMetrics detached() {
+        InvoiceMetrics metrics = new InvoiceMetrics(new SimpleMeterRegistry(), 1);
+        metrics.firstRenderSeen.set(true);
+        return metrics;
+    }
+
+    public void recordStage(String stage, String dealerId, long durationNanos) {
+        String dealer = dealerTag(dealerId);
+        stageTimers.computeIfAbsent(stage + '|' + dealer, key -> Timer.builder("invoice.stage.duration")
+                        .description("Time spent in each stage of invoice generation")
+                        .tag("stage", stage)
+                        .tag("dealer", dealer)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPdfSize(String dealerId, String outputProfile, long bytes) {
+        String dealer = dealerTag(dealerId);
+        sizeSummaries.computeIfAbsent(dealer + '|' + outputProfile, key -> DistributionSummary.builder("invoice.pdf.size")
+                        .description("Size of generated invoice PDFs")
+                        .baseUnit("bytes")
+                        .tag("dealer", dealer)
+                        .tag("profile", outputProfile)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(bytes);
+    }
+
+    public void recordFailure(String cause) {
+        failureCounters.computeIfAbsent(cause, key -> Counter.builder("invoice.failures")
+                        .description("Invoice generation failures by cause")
+                        .tag("cause", cause)
+                        .register(registry))
+                .increment();
+    }
+
+    public void recordImportRow(String outcome) {
+        importCounters.computeIfAbsent(outcome, key -> Counter.builder("invoice.import.rows")
+                        .description("Bulk import rows by outcome")
+                        .tag("outcome", outcome)
+                        .register(registry))
+                .increment();
+    }
+
+    public void recordSlowRender() {
+        Counter.builder("invoice.render.slow")
+                .description("Renders slower than invoice.profiling.slow-render.threshold")
+                .register(registry)
+                .increment();
+    }
+
+    public void recordWarmup(long durationNanos) {
+        warmupNanos.set(durationNanos);
+        TimeGauge.builder("invoice.warmup.duration", warmupNanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .description("Time spent rendering synthetic invoices before accepting traffic")
+                .register(registry);
+    }
+
+    /**
+     * Keeps the render latency of the first invoice after startup; later calls cost one
+     * volatile read.
+     */
+    public void recordRender(long durationNanos) {
+        if (firstRenderSeen.get() || !firstRenderSeen.compareAndSet(false, true)) {
+            return;
+        }
+        firstRenderNanos.set(durationNanos);
+        TimeGauge.builder("invoice.first-render.duration", firstRenderNanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .description("Render latency of the first invoice after startup")
+                .register(registry);
+        log.info("First invoice rendered in {} ms", durationNanos / 1_000_000);
+    }
+
+    public void monitorJobQueue(Collection<?> queue) {
+        Gauge.builder("invoice.jobs.queued", queue, Collection::size)
+                .description("Invoice jobs waiting for a worker")
+                .register(registry);
+    }
+
+    public void monitorAdmission(AdmissionLimiter limiter) {
+        Gauge.builder("invoice.admission.limit", limiter, AdmissionLimiter::getLimit)
+                .description("Current adaptive concurrency limit for rendering")
+                .register(registry);
+        Gauge.builder("invoice.admission.in-flight", limiter, AdmissionLimiter::getInFlight)
+                .description("Renders currently admitted")
+                .register(registry);
+        Gauge.builder("invoice.admission.reserved", limiter, AdmissionLimiter::getReservedBytes)
+                .description("Memory reserved by admitted renders")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public void monitorScheduler(DealerRenderScheduler scheduler) {
+        Gauge.builder("invoice.scheduler.running", scheduler, DealerRenderScheduler::getRunning)
+                .description("Render slots in use")
+                .register(registry);
+        Gauge.builder("invoice.scheduler.waiting", scheduler, DealerRenderScheduler::getWaiting)
+                .description("Renders waiting for a slot")
+                .register(registry);
+    }
+
+    public void recordRejection(String reason) {
+        rejectionCounters.computeIfAbsent(reason, key -> Counter.builder("invoice.admission.rejected")
+                        .description("Requests rejected by admission control")
+                        .tag("reason", reason)
+                        .register(registry))
+                .increment();
+    }
+
+    private String dealerTag(String dealerId) {
+        if (dealerId == null) {
+            return OTHER_DEALER;
+        }
+        if (taggedDealers.contains(dealerId)) {
+            return dealerId;
+        }
+        synchronized (taggedDealers) {
+            if (taggedDealers.contains(dealerId) || taggedDealers.size() < maxDealerTags) {
+                taggedDealers.add(dealerId);
+                return dealerId;
+            }
+        }
+        return OTHER_DEALER;
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.invoice_generator.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hands out invoice numbers of the form {@code INV-yyyyMMdd-NNNNNN}, unique per day.
+ *
+ * <p>Numbers are leased from a local sequence file in blocks. Within a block, allocation is a
+ * single {@code getAndIncrement} on the current block; only exhausting a block or crossing
+ * midnight takes the lease lock and writes the file. The file records the high-water mark of
+ * everything leased so far and is fsynced before a block is used, so a restart may leave gaps
+ * but never reissues a number.
+ *
+ * <p>Each node numbers within its own range of {@code node-range} numbers per day, node
+ * {@code n} issuing {@code n * node-range + 1} up to {@code (n + 1) * node-range - 1}, so
+ * instances never need to coordinate and node 0 keeps the single-instance numbering. The range
+ * also makes the issuing node, and with it the node whose store holds the PDF, readable from
+ * the number itself ({@link #issuingNode}). The range must be the same on every node.
+ */
+@Component
+@Slf4j
+public class InvoiceNumberAllocator {
+
+    private static final int MIN_DIGITS = 6;
+    static final long DEFAULT_NODE_RANGE = 10_000_000;
+    private static final Pattern NUMBER = Pattern.compile("INV-\\d{8}-(\\d{1,18})");
+
+    private final Path sequenceFile;
+    private final int blockSize;
+    private final long nodeOffset;
+    private final long nodeRange;
+    private final Clock clock;
+    private final ReentrantLock leaseLock = new ReentrantLock();
+
+    private volatile Block current = Block.EXHAUSTED;
+    private LocalDate leasedDay;
+    private long leasedUpTo;
+
+    @Autowired
+    public InvoiceNumberAllocator(@Value("${invoice.sequence.file:data/sequence/invoice-number.seq}") String sequenceFile,
+                                  @Value("${invoice.sequence.block-size:1000}") int blockSize,
+                                  @Value("${invoice.node.id:0}") int nodeId,
+                                  @Value("${invoice.sequence.node-range:" + DEFAULT_NODE_RANGE + "}") long nodeRange) {
+        this(Paths.get(sequenceFile), blockSize, nodeId, nodeRange, Clock.systemDefaultZone());
+    }
+
+    InvoiceNumberAllocator(Path sequenceFile, int blockSize, Clock clock) {
+        this(sequenceFile, blockSize, 0, DEFAULT_NODE_RANGE, clock);
+    }
+
+    InvoiceNumberAllocator(Path sequenceFile, int blockSize, int nodeId, long nodeRange, Clock clock) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        if (nodeRange < 2 || nodeId < 0 || nodeId > TransactionIdGenerator.MAX_NODE_ID
+                || Long.MAX_VALUE / nodeRange <= nodeId) {
+            throw new IllegalArgumentException("Invalid node range " + nodeRange + " for node " + nodeId);
+        }
+        this.sequenceFile = sequenceFile.toAbsolutePath();
+        this.blockSize = blockSize;
+        this.nodeOffset = nodeId * nodeRange;
+        this.nodeRange = nodeRange;
+        this.clock = clock;
+        readSequenceFile();
+    }
+
+    public String nextInvoiceNumber() {
+        while (true) {
+            Block block = current;
+            long now = clock.millis();
+            if (now >= block.dayStart && now < block.dayEnd) {
+                long number = block.next.getAndIncrement();
+                if (number < block.limit) {
+                    return block.format(number);
+                }
+            }
+            lease(block, now);
+        }
+    }
+
+    /**
+     * @return the node whose range {@code invoiceNumber} falls in, or empty if it is not a number
+     *         this allocator's format
+     */
+    public OptionalInt issuingNode(String invoiceNumber) {
+        Matcher matcher = NUMBER.matcher(invoiceNumber);
+        if (!matcher.matches()) {
+            return OptionalInt.empty();
+        }
+        long node = Long.parseLong(matcher.group(1)) / nodeRange;
+        return node <= TransactionIdGenerator.MAX_NODE_ID ? OptionalInt.of((int) node) : OptionalInt.empty();
+    }
+
+    private void lease(Block exhausted, long now) {
+        leaseLock.lock();
+        try {
+            if (current != exhausted) {
+                return; // another thread already leased a new block
+            }
+            ZoneId zone = clock.getZone();
+            LocalDate today = LocalDate.ofInstant(clock.instant(), zone);
+            if (leasedDay != null && today.isBefore(leasedDay)) {
+                // Clock moved back across midnight; keep numbering the later day rather than
+                // restarting a day whose numbers have already been issued.
+                log.warn("Clock is behind the leased invoice day {}; continuing with that day", leasedDay);
+                today = leasedDay;
+            }
+
+            long first = today.equals(leasedDay) ? leasedUpTo + 1 : 1;
+            if (first >= nodeRange) {
+                throw new IllegalStateException("Invoice numbers for " + today + " exhausted: node range of "
+                        + nodeRange + " used up");
+            }
+            long limit = Math.min(first + blockSize, nodeRange);
+            writeSequenceFile(today, limit - 1);
+            leasedDay = today;
+            leasedUpTo = limit - 1;
+
+            long dayStart = today.atStartOfDay(zone).toInstant().toEpochMilli();
+            long dayEnd = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            if (now < dayStart) {
+                dayStart = Long.MIN_VALUE;
+            }
+            current = new Block(today, first, limit, nodeOffset, dayStart, dayEnd);
+            log.debug("Leased invoice numbers {} to {} for {}", first, limit - 1, today);
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    private void readSequenceFile() {
+        if (!Files.exists(sequenceFile)) {
+            return;
+        }
+        try {
+            String[] parts = Files.readString(sequenceFile, StandardCharsets.US_ASCII).trim().split(" ");
+            leasedDay = LocalDate.parse(parts[0]);
+            leasedUpTo = Long.parseLong(parts[1]);
+            log.info("Invoice sequence resumed - Day: {}, Leased up to: {}", leasedDay, leasedUpTo);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read invoice sequence file " + sequenceFile, e);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Corrupt invoice sequence file " + sequenceFile, e);
+        }
+    }
+
+    private void writeSequenceFile(LocalDate day, long upTo) {
+        try {
+            Files.createDirectories(sequenceFile.getParent());
+            Path tmp = sequenceFile.resolveSibling(sequenceFile.getFileName() + ".tmp");
+            byte[] content = (day + " " + upTo + "\n").getBytes(StandardCharsets.US_ASCII);
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(content));
+                channel.force(true);
+            }
+            Files.move(tmp, sequenceFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to lease invoice numbers", e);
+        }
+    }
+
+    private static final class Block {
+        static final Block EXHAUSTED = new Block(null, 0, 0, 0, 0, 0);
+
+        final AtomicLong next;
+        final long limit;
+        final long offset;
+        final long dayStart;
+        final long dayEnd;
+        /** {@code INV-yyyyMMdd-}, pre-encoded once per block. */
+        final char[] prefix;
+
+        Block(LocalDate day, long first, long limit, long offset, long dayStart, long dayEnd) {
+            this.next = new AtomicLong(first);
+            this.limit = limit;
+            this.offset = offset;
+            this.dayStart = dayStart;
+            this.dayEnd = dayEnd;
+            this.prefix = day == null ? new char[0] : prefix(day);
+        }
+
+        String format(long sequence) {
+            long number = offset + sequence;
+            int digits = Math.max(MIN_DIGITS, (int) Math.log10(number) + 1);
+            char[] chars = new char[prefix.length + digits];
+            System.arraycopy(prefix, 0, chars, 0, prefix.length);
+            for (int i = chars.length - 1; i >= prefix.length; i--) {
+                chars[i] = (char) ('0' + number % 10);
+                number /= 10;
+            }
+            return new String(chars);
+        }
+
+        private static char[] prefix(LocalDate day) {
+            int date = day.getYear() * 10_000 + day.getMonthValue() * 100 + day.getDayOfMonth();
+            char[] chars = "INV-00000000-".toCharArray();
+            for (int i = 11; i >= 4; i--) {
+                chars[i] = (char) ('0' + date % 10);
+                date /= 10;
+            }
+            return chars;
+        }
+    }
+}
@@ -2,172 +2,342 @@ package com.example.invoice_generator.services;
 
 import com.example.invoice_generator.dto.Dealer;
 import com.example.invoice_generator.dto.Invoice;
+import com.example.invoice_generator.dto.InvoiceRequest;
+import com.example.invoice_generator.dto.PdfOutputProfile;
+import com.example.invoice_generator.dto.TaxQuote;
 import com.example.invoice_generator.dto.Vehicle;
+import com.google.zxing.common.BitMatrix;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
 public class InvoiceService {
 
-    private static final double TAX_PERCENTAGE = 10.0;
+    private static final int RENDER_BUFFER_SIZE = 16 * 1024;
+
     private final PDFGenerator pdfGenerator;
     private final QRCodeGenerator qrCodeGenerator;
-    private final Map<String, Dealer> dealerDatabase;
-    private final Map<String, Vehicle> vehicleDatabase;
+    private final QRCodeRenderMode qrCodeRenderMode;
+    private final InvoiceMetrics metrics;
+    private final CatalogService catalogService;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final PdfOutputProfiles outputProfiles;
+    private final GstEngine gstEngine;
+    private final DealerRenderScheduler scheduler;
+    private final RenderPool renderPool;
+    private final InvoiceLogSampler logSampler;
 
-    public InvoiceService(PDFGenerator pdfGenerator, QRCodeGenerator qrCodeGenerator) {
+    public InvoiceService(PDFGenerator pdfGenerator,
+                          QRCodeGenerator qrCodeGenerator,
+                          CatalogService catalogService,
+                          InvoiceNumberAllocator invoiceNumberAllocator,
+                          TransactionIdGenerator transactionIdGenerator,
+                          PdfOutputProfiles outputProfiles,
+                          GstEngine gstEngine,
+                          DealerRenderScheduler scheduler,
+                          RenderPool renderPool,
+                          InvoiceLogSampler logSampler,
+                          InvoiceMetrics metrics,
+                          @Value("${invoice.qr.render-mode:VECTOR}") QRCodeRenderMode qrCodeRenderMode) {
         this.pdfGenerator = pdfGenerator;
         this.qrCodeGenerator = qrCodeGenerator;
-        this.dealerDatabase = new ConcurrentHashMap<>();
-        this.vehicleDatabase = new ConcurrentHashMap<>();
-        initializeMockData();
+        this.metrics = metrics;
+        this.catalogService = catalogService;
+        this.invoiceNumberAllocator = invoiceNumberAllocator;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.outputProfiles = outputProfiles;
+        this.gstEngine = gstEngine;
+        this.scheduler = scheduler;
+        this.renderPool = renderPool;
+        this.logSampler = logSampler;
+        this.qrCodeRenderMode = qrCodeRenderMode;
     }
 
     public byte[] generateInvoice(String dealerId, String vehicleId, String customerName) {
-        log.info("Generating invoice for dealer: {}, vehicle: {}, customer: {}",
-                dealerId, vehicleId, customerName);
+        return generateInvoice(dealerId, vehicleId, customerName, null, null);
+    }
+
+    public byte[] generateInvoice(String dealerId, String vehicleId, String customerName,
+                                  String customerState, PdfOutputProfile outputProfile) {
+        Invoice invoice = prepareInvoice(dealerId, vehicleId, customerName, customerState, outputProfile);
+        return renderInvoice(invoice);
+    }
+
+    /**
+     * Resolves the dealer and vehicle and assigns invoice number, transaction ID and prices.
+     * Lookup failures surface here, before anything has been written to a response.
+     */
+    public Invoice prepareInvoice(String dealerId, String vehicleId, String customerName) {
+        return prepareInvoice(dealerId, vehicleId, customerName, null, null);
+    }
+
+    /**
+     * @param customerState buyer's state for GST, or {@code null} for a sale within the dealer's state
+     * @param outputProfile requested output profile, or {@code null} for the dealer's or default one
+     */
+    public Invoice prepareInvoice(String dealerId, String vehicleId, String customerName,
+                                  String customerState, PdfOutputProfile outputProfile) {
+        return prepareInvoice(dealerId, vehicleId, customerName, customerState, outputProfile, null, null);
+    }
+
+    /**
+     * Like {@link #prepareInvoice(String, String, String, String, PdfOutputProfile)}, but keeps an
+     * invoice number and transaction ID issued earlier, so an invoice whose render was
+     * interrupted can be rendered again under the same number.
+     *
+     * @param invoiceNumber previously issued number, or {@code null} to allocate one
+     * @param transactionId previously issued transaction ID, or {@code null} to allocate one
+     */
+    public Invoice prepareInvoice(String dealerId, String vehicleId, String customerName,
+                                  String customerState, PdfOutputProfile outputProfile,
+                                  String invoiceNumber, String transactionId) {
+        Invoice invoice = draft(dealerId, vehicleId, customerName, customerState, outputProfile);
+        return issue(invoice, invoiceNumber, transactionId);
+    }
+
+    /**
+     * Prepares the invoices of one merged document. Every request is looked up and priced before
+     * the first number is allocated, so a request that fails leaves no gap in the numbering.
+     */
+    public List<Invoice> prepareInvoices(List<InvoiceRequest> requests) {
+        List<Invoice> invoices = new ArrayList<>(requests.size());
+        for (InvoiceRequest request : requests) {
+            invoices.add(draft(request.getDealerId(), request.getVehicleId(), request.getCustomerName(),
+                    request.getCustomerState(), request.getOutputProfile()));
+        }
+        for (Invoice invoice : invoices) {
+            issue(invoice, null, null);
+        }
+        return invoices;
+    }
 
+    /**
+     * Everything that can reject a request: lookups, tax and profile. No number is issued yet.
+     */
+    private Invoice draft(String dealerId, String vehicleId, String customerName,
+                          String customerState, PdfOutputProfile outputProfile) {
+        log.atDebug()
+                .addKeyValue("dealer", dealerId)
+                .addKeyValue("vehicle", vehicleId)
+                .log("Preparing invoice");
+
+        long lookupStart = System.nanoTime();
+        InvoiceStageEvent lookupEvent = InvoiceStageEvent.start(InvoiceMetrics.STAGE_LOOKUP);
         Dealer dealer = getDealerById(dealerId);
         Vehicle vehicle = getVehicleById(vehicleId);
+        metrics.recordStage(InvoiceMetrics.STAGE_LOOKUP, dealerId, System.nanoTime() - lookupStart);
+        lookupEvent.finish(null, dealerId, 0);
 
-        String invoiceNumber = generateInvoiceNumber();
-        String transactionId = generateTransactionId();
-        LocalDateTime invoiceDate = LocalDateTime.now();
-
-        double basePrice = vehicle.getPrice();
-        double taxAmount = calculateTax(basePrice);
-        double totalAmount = basePrice + taxAmount;
+        TaxQuote tax = gstEngine.quote(Money.toPaise(vehicle.getPrice()), vehicle.getVehicleClass(),
+                GstEngine.isInterState(dealer.getState(), customerState));
 
-        Invoice invoice = Invoice.builder()
-                .invoiceNumber(invoiceNumber)
-                .transactionId(transactionId)
-                .invoiceDate(invoiceDate)
+        return Invoice.builder()
                 .dealer(dealer)
                 .vehicle(vehicle)
                 .customerName(customerName)
-                .basePrice(basePrice)
-                .taxAmount(taxAmount)
-                .taxPercentage(TAX_PERCENTAGE)
-                .totalAmount(totalAmount)
+                .customerState(customerState)
+                .tax(tax)
+                .outputProfile(outputProfiles.resolve(dealerId, outputProfile))
                 .build();
+    }
 
-        byte[] qrCodeImage = qrCodeGenerator.generateQRCode(transactionId);
+    private Invoice issue(Invoice invoice, String invoiceNumber, String transactionId) {
+        invoice.setInvoiceNumber(invoiceNumber != null ? invoiceNumber : invoiceNumberAllocator.nextInvoiceNumber());
+        invoice.setTransactionId(transactionId != null ? transactionId : transactionIdGenerator.nextTransactionId());
+        invoice.setInvoiceDate(LocalDateTime.now());
+        return invoice;
+    }
 
-        return pdfGenerator.generatePDF(invoice, qrCodeImage);
+    /**
+     * Renders a prepared invoice once its dealer's turn comes up in the {@link DealerRenderScheduler}.
+     * QR encoding and layout run on the {@link RenderPool}, which streams the PDF to {@code out},
+     * usually a client connection, on the calling thread while it is being rendered. The render
+     * slot is given back as soon as the render is done, not when the last bytes are written.
+     */
+    public void renderInvoice(Invoice invoice, OutputStream out) {
+        try (DealerRenderScheduler.Slot slot = acquireSlot(dealerId(invoice))) {
+            renderInvoice(invoice, slot, out);
+        }
+    }
+
+    /**
+     * Waits for a render slot for one invoice of {@code dealerId}, for callers that must still be
+     * able to answer 429 after handing the render off, such as a streamed response. Taking it
+     * before the invoice is prepared keeps a rejected request from using up an invoice number.
+     *
+     * @throws AdmissionRejectedException if no slot became available within the maximum wait
+     */
+    public DealerRenderScheduler.Slot acquireSlot(String dealerId) {
+        InvoiceStageEvent queueEvent = InvoiceStageEvent.start(InvoiceMetrics.STAGE_QUEUE);
+        DealerRenderScheduler.Slot slot = scheduler.acquire(dealerId, 1);
+        queueEvent.finish(null, dealerId, 0);
+        return slot;
+    }
+
+    /**
+     * Renders a prepared invoice in a slot taken with {@link #acquireSlot(String)}, as
+     * {@link #renderInvoice(Invoice, OutputStream)} does. The slot is closed when the render is done.
+     */
+    public void renderInvoice(Invoice invoice, DealerRenderScheduler.Slot slot, OutputStream out) {
+        String dealerId = dealerId(invoice);
+        long size;
+        long[] renderNanos = new long[1];
+        try (slot) {
+            InvoiceStageEvent writeEvent = InvoiceStageEvent.start(InvoiceStageEvent.STAGE_WRITE);
+            size = renderPool.stream(target -> {
+                try {
+                    InvoiceStageEvent renderEvent = InvoiceStageEvent.start(InvoiceStageEvent.STAGE_RENDER);
+                    CountingOutputStream counting = new CountingOutputStream(target);
+                    renderNanos[0] = render(invoice, dealerId, counting);
+                    renderEvent.finish(invoice.getInvoiceNumber(), dealerId, counting.getCount());
+                } finally {
+                    slot.close();
+                }
+            }, out);
+            writeEvent.finish(invoice.getInvoiceNumber(), dealerId, size);
+        }
+        logSampler.generated(invoice, size, renderNanos[0]);
+    }
+
+    /**
+     * Renders a prepared invoice into memory, for callers that need the whole PDF at once.
+     */
+    public byte[] renderInvoice(Invoice invoice) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(RENDER_BUFFER_SIZE);
+        renderInvoice(invoice, buffer);
+        return buffer.toByteArray();
+    }
+
+    /**
+     * @return the render time, leaving out time blocked on {@code out}
+     */
+    private long render(Invoice invoice, String dealerId, OutputStream out) {
+        long renderStart = RenderClock.now();
+        long qrStart = renderStart;
+        InvoiceStageEvent qrEvent = InvoiceStageEvent.start(InvoiceMetrics.STAGE_QR);
+        BitMatrix qrMatrix = null;
+        byte[] qrCodeImage = null;
+        try {
+            if (qrCodeRenderMode == QRCodeRenderMode.VECTOR) {
+                qrMatrix = qrCodeGenerator.encodeMatrix(invoice.getTransactionId());
+            } else {
+                qrCodeImage = qrCodeGenerator.generateQRCode(invoice.getTransactionId());
+            }
+        } catch (RuntimeException e) {
+            metrics.recordFailure(InvoiceMetrics.CAUSE_QR_ERROR);
+            throw e;
+        }
+        metrics.recordStage(InvoiceMetrics.STAGE_QR, dealerId, RenderClock.now() - qrStart);
+        qrEvent.finish(invoice.getInvoiceNumber(), dealerId, qrCodeImage != null ? qrCodeImage.length : 0);
+
+        if (qrMatrix != null) {
+            pdfGenerator.generatePDF(invoice, qrMatrix, out);
+        } else {
+            pdfGenerator.generatePDF(invoice, qrCodeImage, out);
+        }
+        long renderNanos = RenderClock.now() - renderStart;
+        metrics.recordRender(renderNanos);
+        return renderNanos;
+    }
+
+    /**
+     * Renders already prepared invoices into a single PDF, one invoice per page run. The whole
+     * document shares one writer, so {@code profile} applies to every invoice in it; when null,
+     * the first invoice's resolved profile is used. The document holds one render slot, which
+     * is charged to each dealer in turn as the render reaches that dealer's run of invoices,
+     * one render per invoice. QR codes follow {@code invoice.qr.render-mode} as for single invoices.
+     * The slot is taken beforehand with {@link #acquireMergedSlot(List)} and closed when the render is done.
+     */
+    public void renderMerged(List<Invoice> invoices, PdfOutputProfile profile, DealerRenderScheduler.Slot slot,
+                             OutputStream out) {
+        PdfOutputProfile effective = profile != null ? profile : invoices.get(0).getOutputProfile();
+        List<String> dealerIds = invoices.stream().map(InvoiceService::dealerId).toList();
+        long size;
+        long[] renderNanos = new long[1];
+        try (slot) {
+            size = renderPool.stream(target -> {
+                long renderStart = RenderClock.now();
+                try {
+                    int[] next = {0};
+                    Consumer<Invoice> chargeDealer = invoice -> {
+                        int index = next[0]++;
+                        if (index > 0 && !dealerIds.get(index).equals(dealerIds.get(index - 1))) {
+                            slot.transfer(dealerIds.get(index), runLength(dealerIds, index));
+                        }
+                    };
+                    if (qrCodeRenderMode == QRCodeRenderMode.VECTOR) {
+                        pdfGenerator.generateMergedPDF(invoices, effective, invoice -> {
+                            chargeDealer.accept(invoice);
+                            return qrCodeGenerator.encodeMatrix(invoice.getTransactionId());
+                        }, target);
+                    } else {
+                        pdfGenerator.generateMergedPDFWithImages(invoices, effective, invoice -> {
+                            chargeDealer.accept(invoice);
+                            return qrCodeGenerator.generateQRCode(invoice.getTransactionId());
+                        }, target);
+                    }
+                } finally {
+                    slot.close();
+                    renderNanos[0] = RenderClock.now() - renderStart;
+                }
+            }, out);
+        }
+        logSampler.mergedGenerated(invoices, size, renderNanos[0]);
+    }
+
+    /**
+     * Waits for the render slot of a merged document, charged to the dealer of its first run of
+     * invoices. Like {@link #acquireSlot(String)}, it is taken before the invoices are prepared.
+     *
+     * @throws AdmissionRejectedException if no slot became available within the maximum wait
+     */
+    public DealerRenderScheduler.Slot acquireMergedSlot(List<InvoiceRequest> requests) {
+        List<String> dealerIds = requests.stream().map(InvoiceRequest::getDealerId).toList();
+        return scheduler.acquire(dealerIds.get(0), runLength(dealerIds, 0));
+    }
+
+    /**
+     * The number of consecutive invoices of the same dealer starting at {@code from}.
+     */
+    private static int runLength(List<String> dealerIds, int from) {
+        String dealerId = dealerIds.get(from);
+        int end = from + 1;
+        while (end < dealerIds.size() && Objects.equals(dealerId, dealerIds.get(end))) {
+            end++;
+        }
+        return end - from;
+    }
+
+    private static String dealerId(Invoice invoice) {
+        return invoice.getDealer().getDealerId();
     }
 
     private Dealer getDealerById(String dealerId) {
-        Dealer dealer = dealerDatabase.get(dealerId);
+        Dealer dealer = catalogService.findDealer(dealerId);
         if (dealer == null) {
+            metrics.recordFailure(InvoiceMetrics.CAUSE_DEALER_NOT_FOUND);
             throw new IllegalArgumentException("Dealer not found: " + dealerId);
         }
         return dealer;
     }
 
     private Vehicle getVehicleById(String vehicleId) {
-        Vehicle vehicle = vehicleDatabase.get(vehicleId);
+        Vehicle vehicle = catalogService.findVehicle(vehicleId);
         if (vehicle == null) {
+            metrics.recordFailure(InvoiceMetrics.CAUSE_VEHICLE_NOT_FOUND);
             throw new IllegalArgumentException("Vehicle not found: " + vehicleId);
         }
         return vehicle;
     }
-
-    private double calculateTax(double basePrice) {
-        return (basePrice * TAX_PERCENTAGE) / 100.0;
-    }
-
-    private String generateInvoiceNumber() {
-        return String.format("INV-%s-%06d",
-                LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd")),
-                (int) (Math.random() * 1000000));
-    }
-
-    private String generateTransactionId() {
-        return "TXN-" + UUID.randomUUID().toString().substring(0, 18).toUpperCase();
-    }
-
-    private void initializeMockData() {
-        // Initialize Dealers
-        dealerDatabase.put("D001", Dealer.builder()
-                .dealerId("D001")
-                .dealerName("Premium Auto Sales")
-                .address("123 Main Street")
-                .city("Mumbai")
-                .state("Maharashtra")
-                .zipCode("400001")
-                .phone("+91-22-1234-5678")
-                .email("contact@premiumauto.com")
-                .gstNumber("27AABCU9603R1ZX")
-                .build());
-
-        dealerDatabase.put("D002", Dealer.builder()
-                .dealerId("D002")
-                .dealerName("Elite Motors")
-                .address("456 Park Avenue")
-                .city("Delhi")
-                .state("Delhi")
-                .zipCode("110001")
-                .phone("+91-11-8765-4321")
-                .email("info@elitemotors.com")
-                .gstNumber("07AABCU9603R1ZY")
-                .build());
-
-        // Initialize Vehicles
-        vehicleDatabase.put("V001", Vehicle.builder()
-                .vehicleId("V001")
-                .make("Honda")
-                .model("City")
-                .year("2024")
-                .color("Pearl White")
-                .vin("1HGBH41JXMN109186")
-                .price(1250000.00)
-                .engineNumber("K15C-2401234")
-                .chassisNumber("MA3FEB81S00443821")
-                .build());
-
-        vehicleDatabase.put("V002", Vehicle.builder()
-                .vehicleId("V002")
-                .make("Maruti Suzuki")
-                .model("Swift")
-                .year("2024")
-                .color("Metallic Blue")
-                .vin("MA3EJE81S00362514")
-                .price(850000.00)
-                .engineNumber("K12M-2402567")
-                .chassisNumber("MA3EJE81S00362514")
-                .build());
-
-        vehicleDatabase.put("V003", Vehicle.builder()
-                .vehicleId("V003")
-                .make("Hyundai")
-                .model("Creta")
-                .year("2024")
-                .color("Titan Grey")
-                .vin("MALH11CNXM2012345")
-                .price(1650000.00)
-                .engineNumber("G4FJ-2403891")
-                .chassisNumber("MALH11CNXM2012345")
-                .build());
-
-        vehicleDatabase.put("V004", Vehicle.builder()
-                .vehicleId("V004")
-                .make("Tata")
-                .model("Nexon")
-                .year("2024")
-                .color("Flame Red")
-                .vin("MAT621234K1H12345")
-                .price(1150000.00)
-                .engineNumber("REVOTRON-2404512")
-                .chassisNumber("MAT621234K1H12345")
-                .build());
-
-        log.info("Mock data initialized - Dealers: {}, Vehicles: {}",
-                dealerDatabase.size(), vehicleDatabase.size());
-    }
 }
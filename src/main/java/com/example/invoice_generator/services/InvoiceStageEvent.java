@@ -0,0 +1,77 @@
+package com.example.invoice_generator.services;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event for one stage of producing an invoice: catalog lookup, waiting for
+ * a render slot, QR encoding and PNG writing, PDF layout and serialization, the whole render
+ * and writing the result out. Stage names match the {@code invoice.stage.duration} timers
+ * where there is one. The event's duration is the time spent in the stage, of which
+ * {@code blocked} went to waiting for a slow reader to take the output (see {@link RenderClock});
+ * the stage timers leave that part out. With JFR off, creating and committing one costs next to nothing.
+ */
+@Name(InvoiceStageEvent.NAME)
+@Label("Invoice Stage")
+@Category({"Invoice Generator"})
+@Description("Time spent in one stage of invoice generation")
+@StackTrace(false)
+class InvoiceStageEvent extends Event {
+
+    static final String NAME = "com.example.invoice_generator.InvoiceStage";
+
+    /** The whole render on a render thread: QR code, layout and serialization. */
+    static final String STAGE_RENDER = "render";
+    /** Writing the PNG QR image, part of the QR stage in PNG mode. */
+    static final String STAGE_PNG = "png";
+    /** Streaming the PDF to the caller's stream, usually the client connection, as it renders. */
+    static final String STAGE_WRITE = "write";
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Invoice Number")
+    String invoiceNumber;
+
+    @Label("Dealer")
+    String dealerId;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Blocked On Output")
+    @Description("Part of the duration spent waiting for the output to be read")
+    @Timespan
+    long blocked;
+
+    private transient long blockedAtStart;
+
+    /**
+     * Starts timing {@code stage}; pair with {@link #finish}.
+     */
+    static InvoiceStageEvent start(String stage) {
+        InvoiceStageEvent event = new InvoiceStageEvent();
+        event.stage = stage;
+        event.blockedAtStart = RenderClock.blockedNanos();
+        event.begin();
+        return event;
+    }
+
+    void finish(String invoiceNumber, String dealerId, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.invoiceNumber = invoiceNumber;
+            this.dealerId = dealerId;
+            this.bytes = bytes;
+            this.blocked = RenderClock.blockedNanos() - blockedAtStart;
+            commit();
+        }
+    }
+}
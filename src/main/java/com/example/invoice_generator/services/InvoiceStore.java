@@ -0,0 +1,200 @@
+package com.example.invoice_generator.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Write-once, content-addressed PDF store on the local filesystem.
+ *
+ * <pre>
+ * objects/ab/abcdef...pdf   PDF bytes, named by SHA-256
+ * index/INV-...             SHA-256 of the invoice's PDF
+ * tmp/                      in-progress writes
+ * </pre>
+ *
+ * Writes go to {@code tmp/}, are forced to disk and only then moved into place atomically, so
+ * readers only ever see complete files, and a crash cannot leave an issued invoice number
+ * pointing at a truncated PDF. The index entry is published with a hard link, which fails if the
+ * number is already taken, so two concurrent stores of the same number cannot both succeed.
+ */
+@Component
+@Slf4j
+public class InvoiceStore {
+
+    private static final Pattern INVOICE_NUMBER = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_-]{0,63}");
+
+    private final boolean enabled;
+    private final Path objectsDir;
+    private final Path indexDir;
+    private final Path tmpDir;
+
+    public InvoiceStore(@Value("${invoice.store.enabled:true}") boolean enabled,
+                        @Value("${invoice.store.directory:data/invoices}") String directory) {
+        this.enabled = enabled;
+        Path root = Paths.get(directory).toAbsolutePath().normalize();
+        this.objectsDir = root.resolve("objects");
+        this.indexDir = root.resolve("index");
+        this.tmpDir = root.resolve("tmp");
+        if (enabled) {
+            try {
+                Files.createDirectories(objectsDir);
+                Files.createDirectories(indexDir);
+                Files.createDirectories(tmpDir);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create invoice store at " + root, e);
+            }
+            log.info("Invoice store ready at {}", root);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Streams the PDF produced by {@code writer} to disk and registers it under the invoice
+     * number. Identical content is stored once.
+     */
+    public StoredInvoice store(String invoiceNumber, Consumer<OutputStream> writer) {
+        if (!enabled) {
+            throw new IllegalStateException("Invoice store is disabled");
+        }
+        requireValidNumber(invoiceNumber);
+        Path indexFile = indexDir.resolve(invoiceNumber);
+        if (Files.exists(indexFile)) {
+            throw new IllegalStateException("Invoice already stored: " + invoiceNumber);
+        }
+
+        Path tmpFile = null;
+        try {
+            tmpFile = Files.createTempFile(tmpDir, invoiceNumber, ".pdf");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.WRITE)) {
+                OutputStream out = new DigestOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel)), digest);
+                writer.accept(out);
+                out.flush();
+                channel.force(true);
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            Path objectFile = objectPath(sha256);
+            Files.createDirectories(objectFile.getParent());
+            long size = Files.size(tmpFile);
+            if (Files.exists(objectFile)) {
+                Files.delete(tmpFile);
+            } else {
+                // Replaces an identical object if one appeared meanwhile, which is harmless.
+                Files.move(tmpFile, objectFile, StandardCopyOption.ATOMIC_MOVE);
+                forceDirectory(objectFile.getParent());
+            }
+
+            publishIndex(indexFile, sha256);
+            log.debug("Invoice stored: {} ({} bytes, sha256 {})", invoiceNumber, size, sha256);
+            return new StoredInvoice(invoiceNumber, objectFile, sha256, size);
+
+        } catch (IOException e) {
+            deleteQuietly(tmpFile);
+            throw new UncheckedIOException("Failed to store invoice " + invoiceNumber, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(tmpFile);
+            throw e;
+        }
+    }
+
+    public Optional<StoredInvoice> find(String invoiceNumber) {
+        if (!enabled || !INVOICE_NUMBER.matcher(invoiceNumber).matches()) {
+            return Optional.empty();
+        }
+        Path indexFile = indexDir.resolve(invoiceNumber);
+        try {
+            String sha256 = Files.readString(indexFile, StandardCharsets.US_ASCII).trim();
+            Path objectFile = objectPath(sha256);
+            return Optional.of(new StoredInvoice(invoiceNumber, objectFile, sha256, Files.size(objectFile)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read invoice " + invoiceNumber, e);
+        }
+    }
+
+    /**
+     * Links a fully written index entry into place; {@link Files#createLink} fails if the name
+     * exists, which makes it the point where a concurrent duplicate loses.
+     *
+     * @throws IllegalStateException if the invoice number was stored meanwhile
+     */
+    private void publishIndex(Path indexFile, String sha256) throws IOException {
+        Path tmpIndex = Files.createTempFile(tmpDir, indexFile.getFileName().toString(), ".idx");
+        try {
+            try (FileChannel channel = FileChannel.open(tmpIndex, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(sha256.getBytes(StandardCharsets.US_ASCII)));
+                channel.force(true);
+            }
+            Files.createLink(indexFile, tmpIndex);
+            forceDirectory(indexDir);
+        } catch (FileAlreadyExistsException e) {
+            throw new IllegalStateException("Invoice already stored: " + indexFile.getFileName());
+        } finally {
+            Files.deleteIfExists(tmpIndex);
+        }
+    }
+
+    /**
+     * Makes a rename or link in {@code dir} durable. Not every platform can open a directory for
+     * this; there the rename is as durable as the filesystem makes it anyway.
+     */
+    private static void forceDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Cannot sync directory {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private Path objectPath(String sha256) {
+        return objectsDir.resolve(sha256.substring(0, 2)).resolve(sha256 + ".pdf");
+    }
+
+    private static void requireValidNumber(String invoiceNumber) {
+        if (invoiceNumber == null || !INVOICE_NUMBER.matcher(invoiceNumber).matches()) {
+            throw new IllegalArgumentException("Invalid invoice number: " + invoiceNumber);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete temporary file {}", file);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.invoice_generator.services;
+
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.kernel.colors.DeviceRgb;
+
+/**
+ * A template compiled by {@link InvoiceTemplateRegistry}: colours parsed, terms joined and the
+ * logo decoded, so rendering only reads fields. {@code version} changes whenever the template's
+ * files change on reload and is part of the {@link LayoutFragmentCache} key.
+ *
+ * @param logo decoded logo, or {@code null} for none
+ */
+public record InvoiceTemplate(String id,
+                              long version,
+                              String title,
+                              String subtitle,
+                              DeviceRgb primaryColor,
+                              DeviceRgb shadeColor,
+                              ImageData logo,
+                              float logoHeight,
+                              String terms,
+                              String closingNote) {
+}
@@ -0,0 +1,235 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.InvoiceTemplateDefinition;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Per-dealer invoice templates, read from {@code *.json} files in {@code invoice.templates.dir}
+ * (see {@link InvoiceTemplateDefinition}) and compiled into {@link InvoiceTemplate}s at startup
+ * and on {@link #reload()}. Lookups at render time are a single map read against an immutable
+ * snapshot.
+ *
+ * <p>A template whose JSON and logo bytes are unchanged keeps its compiled instance and version
+ * across reloads, so only edited templates invalidate their cached layout fragments. A reload
+ * that fails validation leaves the current templates in place.
+ */
+@Component
+@Slf4j
+public class InvoiceTemplateRegistry {
+
+    public static final String DEFAULT_TEMPLATE_ID = "default";
+
+    private static final String DEFAULT_TITLE = "VEHICLE SALES INVOICE";
+    private static final String DEFAULT_SUBTITLE = "Original for Buyer";
+    private static final DeviceRgb DEFAULT_PRIMARY_COLOR = new DeviceRgb(41, 128, 185);
+    private static final DeviceRgb DEFAULT_SHADE_COLOR = new DeviceRgb(240, 240, 240);
+    private static final float DEFAULT_LOGO_HEIGHT = 40;
+    private static final List<String> DEFAULT_TERMS = List.of(
+            "This invoice is computer generated and requires no signature.",
+            "Payment is due within 7 days of invoice date.",
+            "Vehicle delivery subject to full payment clearance.",
+            "All disputes subject to local jurisdiction.");
+    private static final String DEFAULT_CLOSING_NOTE = "Thank you for your business!";
+
+    private final Path directory;
+    private final ObjectReader definitionReader;
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public InvoiceTemplateRegistry(ObjectMapper objectMapper,
+                                   @Value("${invoice.templates.dir:config/templates}") String directory) {
+        this.directory = directory.isBlank() ? null : Paths.get(directory);
+        this.definitionReader = objectMapper.readerFor(InvoiceTemplateDefinition.class)
+                .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        TemplateStats stats = reload();
+        log.info("Invoice templates loaded - Directory: {}, Templates: {}", directory, stats.templates().size());
+    }
+
+    public InvoiceTemplate templateFor(String dealerId) {
+        Snapshot current = snapshot.get();
+        return current.byDealer().getOrDefault(dealerId, current.fallback());
+    }
+
+    public TemplateStats stats() {
+        return snapshot.get().stats();
+    }
+
+    /**
+     * Re-reads the template directory and swaps in the result.
+     *
+     * @throws IllegalArgumentException if a template is malformed or two templates claim the same dealer
+     */
+    public TemplateStats reload() {
+        reloadLock.lock();
+        try {
+            Snapshot previous = snapshot.get();
+            Snapshot next = load(previous);
+            snapshot.set(next);
+            if (previous != null) {
+                log.info("Invoice templates reloaded - Templates: {}", next.stats().templates().size());
+            }
+            return next.stats();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read invoice templates from " + directory, e);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private Snapshot load(Snapshot previous) throws IOException {
+        Map<String, Compiled> compiled = new HashMap<>();
+        if (directory != null && Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.json")) {
+                for (Path file : files) {
+                    String id = file.getFileName().toString().replaceFirst("\\.json$", "");
+                    compiled.put(id, compile(id, file, previous));
+                }
+            }
+        }
+        if (!compiled.containsKey(DEFAULT_TEMPLATE_ID)) {
+            Compiled builtIn = previous != null ? previous.templates().get(DEFAULT_TEMPLATE_ID) : null;
+            compiled.put(DEFAULT_TEMPLATE_ID, builtIn != null && builtIn.checksum() == 0
+                    ? builtIn
+                    : new Compiled(build(DEFAULT_TEMPLATE_ID, new InvoiceTemplateDefinition(), null), List.of(), 0, 0));
+        }
+
+        Map<String, InvoiceTemplate> byDealer = new HashMap<>();
+        List<TemplateSummary> summaries = new ArrayList<>();
+        for (Map.Entry<String, Compiled> entry : compiled.entrySet()) {
+            Compiled template = entry.getValue();
+            for (String dealerId : template.dealers()) {
+                InvoiceTemplate other = byDealer.put(dealerId, template.template());
+                if (other != null) {
+                    throw new IllegalArgumentException("Dealer " + dealerId + " is assigned to templates "
+                            + other.id() + " and " + entry.getKey());
+                }
+            }
+            summaries.add(new TemplateSummary(entry.getKey(), template.template().version(),
+                    template.dealers(), template.logoBytes()));
+        }
+        summaries.sort((a, b) -> a.id().compareTo(b.id()));
+
+        return new Snapshot(Map.copyOf(compiled), Map.copyOf(byDealer),
+                compiled.get(DEFAULT_TEMPLATE_ID).template(),
+                new TemplateStats(String.valueOf(directory), List.copyOf(summaries), Instant.now()));
+    }
+
+    private Compiled compile(String id, Path file, Snapshot previous) throws IOException {
+        byte[] json = Files.readAllBytes(file);
+        InvoiceTemplateDefinition definition;
+        try {
+            definition = definitionReader.readValue(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid template " + file.getFileName() + ": " + e.getOriginalMessage(), e);
+        }
+
+        byte[] logo = null;
+        if (definition.getLogo() != null) {
+            Path logoFile = ContainedPath.resolve(directory, definition.getLogo(), "Logo of template " + id);
+            logo = Files.readAllBytes(logoFile);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(json);
+        if (logo != null) {
+            crc.update(logo);
+        }
+        long checksum = crc.getValue() + 1;
+
+        Compiled existing = previous != null ? previous.templates().get(id) : null;
+        if (existing != null && existing.checksum() == checksum) {
+            return existing;
+        }
+        List<String> dealers = definition.getDealers() != null ? List.copyOf(definition.getDealers()) : List.of();
+        return new Compiled(build(id, definition, logo), dealers, checksum, logo != null ? logo.length : 0);
+    }
+
+    private InvoiceTemplate build(String id, InvoiceTemplateDefinition definition, byte[] logo) {
+        ImageData logoData = null;
+        if (logo != null) {
+            try {
+                logoData = ImageDataFactory.create(logo);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Logo for template " + id + " is not a supported image", e);
+            }
+        }
+
+        List<String> terms = definition.getTerms() != null ? definition.getTerms() : DEFAULT_TERMS;
+        StringBuilder numberedTerms = new StringBuilder();
+        for (int i = 0; i < terms.size(); i++) {
+            if (i > 0) {
+                numberedTerms.append('\n');
+            }
+            numberedTerms.append(i + 1).append(". ").append(terms.get(i));
+        }
+
+        return new InvoiceTemplate(
+                id,
+                versions.incrementAndGet(),
+                orDefault(definition.getTitle(), DEFAULT_TITLE),
+                orDefault(definition.getSubtitle(), DEFAULT_SUBTITLE),
+                parseColor(id, definition.getPrimaryColor(), DEFAULT_PRIMARY_COLOR),
+                parseColor(id, definition.getShadeColor(), DEFAULT_SHADE_COLOR),
+                logoData,
+                definition.getLogoHeight() != null ? definition.getLogoHeight() : DEFAULT_LOGO_HEIGHT,
+                numberedTerms.toString(),
+                orDefault(definition.getClosingNote(), DEFAULT_CLOSING_NOTE));
+    }
+
+    private static DeviceRgb parseColor(String id, String value, DeviceRgb defaultColor) {
+        if (value == null) {
+            return defaultColor;
+        }
+        if (!value.matches("#[0-9a-fA-F]{6}")) {
+            throw new IllegalArgumentException("Invalid colour in template " + id + ": " + value);
+        }
+        int rgb = Integer.parseInt(value.substring(1), 16);
+        return new DeviceRgb((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+    }
+
+    private static String orDefault(String value, String defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    /** {@code checksum} is 0 for the built-in default, otherwise CRC32 of the JSON and logo plus one. */
+    private record Compiled(InvoiceTemplate template, List<String> dealers, long checksum, int logoBytes) {
+    }
+
+    private record Snapshot(Map<String, Compiled> templates,
+                            Map<String, InvoiceTemplate> byDealer,
+                            InvoiceTemplate fallback,
+                            TemplateStats stats) {
+    }
+
+    public record TemplateSummary(String id, long version, List<String> dealers, int logoBytes) {
+    }
+
+    public record TemplateStats(String directory, List<TemplateSummary> templates, Instant loadedAt) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Dealer;
+import com.example.invoice_generator.dto.Invoice;
+import com.example.invoice_generator.dto.PdfOutputProfile;
+import com.example.invoice_generator.dto.Vehicle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Renders synthetic invoices at startup so iText's layout engine, font handling and ZXing are
+ * JIT-compiled before the first customer request. Spring Boot only reports readiness
+ * ({@code /actuator/health/readiness}) once all application runners have finished, so the
+ * service is kept out of rotation while this runs.
+ *
+ * <p>Warm-up renders go through their own {@link InvoiceService} and {@link PDFGenerator}
+ * instances backed by a throwaway meter registry, fragment cache and render scheduler: they
+ * exercise the same code without consuming invoice numbers, touching the store, taking render
+ * slots or skewing the production latency histograms.
+ */
+@Component
+@Slf4j
+public class InvoiceWarmup implements ApplicationRunner {
+
+    private final InvoiceService warmupService;
+    private final GstEngine gstEngine;
+    private final InvoiceMetrics metrics;
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration maxDuration;
+
+    public InvoiceWarmup(QRCodeGenerator qrCodeGenerator,
+                         CatalogService catalogService,
+                         InvoiceNumberAllocator invoiceNumberAllocator,
+                         TransactionIdGenerator transactionIdGenerator,
+                         PdfOutputProfiles outputProfiles,
+                         InvoiceTemplateRegistry templates,
+                         GstEngine gstEngine,
+                         InvoiceMetrics metrics,
+                         @Value("${invoice.qr.render-mode:VECTOR}") QRCodeRenderMode qrCodeRenderMode,
+                         @Value("${invoice.warmup.enabled:true}") boolean enabled,
+                         @Value("${invoice.warmup.iterations:200}") int iterations,
+                         @Value("${invoice.warmup.max-duration:30s}") Duration maxDuration) {
+        InvoiceMetrics warmupMetrics = InvoiceMetrics.detached();
+        this.warmupService = new InvoiceService(
+                new PDFGenerator(new LayoutFragmentCache(), templates, warmupMetrics),
+                qrCodeGenerator,
+                catalogService,
+                invoiceNumberAllocator,
+                transactionIdGenerator,
+                outputProfiles,
+                gstEngine,
+                DealerRenderScheduler.unbounded(warmupMetrics),
+                RenderPool.callerRuns(),
+                InvoiceLogSampler.silent(),
+                warmupMetrics,
+                qrCodeRenderMode);
+        this.gstEngine = gstEngine;
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || iterations <= 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        long firstNanos = 0;
+        long lastNanos = 0;
+        int rendered = 0;
+        try {
+            while (rendered < iterations && System.nanoTime() < deadline) {
+                long renderStart = System.nanoTime();
+                warmupService.renderInvoice(syntheticInvoice(rendered), OutputStream.nullOutputStream());
+                lastNanos = System.nanoTime() - renderStart;
+                if (rendered == 0) {
+                    firstNanos = lastNanos;
+                }
+                rendered++;
+            }
+        } catch (RuntimeException e) {
+            // A failed warm-up only costs latency; it must not keep the service from starting.
+            log.warn("Warm-up stopped after {} renders", rendered, e);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        metrics.recordWarmup(elapsed);
+        log.info("Warm-up completed - Renders: {}, Time: {} ms, First render: {} ms, Last render: {} ms",
+                rendered, elapsed / 1_000_000, firstNanos / 1_000_000, lastNanos / 1_000_000);
+    }
+
+    /**
+     * Varies the transaction ID, amounts and the intra/inter-state split so QR encoding, tax
+     * rows and number formatting see realistic input rather than one constant-folded value.
+     */
+    private Invoice syntheticInvoice(int i) {
+        double basePrice = 500_000 + i * 1_000.0;
+        boolean interState = i % 2 == 1;
+        return Invoice.builder()
+                .invoiceNumber("INV-WARMUP-" + i)
+                .transactionId(TransactionIdGenerator.format(0x5EED_0000_0000_0000L + i))
+                .invoiceDate(LocalDateTime.now())
+                .dealer(Dealer.builder()
+                        .dealerId("WARMUP")
+                        .dealerName("Warm-up Motors")
+                        .address("1 Startup Road")
+                        .city("Mumbai")
+                        .state("Maharashtra")
+                        .zipCode("400001")
+                        .phone("+91-22-0000-0000")
+                        .email("warmup@example.com")
+                        .gstNumber("27AAAAA0000A1Z5")
+                        .build())
+                .vehicle(Vehicle.builder()
+                        .vehicleId("WARMUP-" + i)
+                        .make("Warmup")
+                        .model("Model " + i)
+                        .year("2024")
+                        .color("White")
+                        .vin("WARMUPVIN" + i)
+                        .price(basePrice)
+                        .engineNumber("ENG-" + i)
+                        .chassisNumber("CHS-" + i)
+                        .vehicleClass("SMALL_CAR_PETROL")
+                        .build())
+                .customerName("Warm-up Customer")
+                .customerState(interState ? "Karnataka" : null)
+                .tax(gstEngine.quote(Money.toPaise(basePrice), "SMALL_CAR_PETROL", interState))
+                .outputProfile(PdfOutputProfile.values()[i % PdfOutputProfile.values().length])
+                .build();
+    }
+}
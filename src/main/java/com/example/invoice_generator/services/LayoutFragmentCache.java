@@ -0,0 +1,205 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Dealer;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfResources;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Canvas;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.layout.LayoutArea;
+import com.itextpdf.layout.layout.LayoutContext;
+import com.itextpdf.layout.layout.LayoutResult;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.renderer.IRenderer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the parts of an invoice that only depend on the dealer - the title block, the dealer
+ * address block and the terms footer - as pre-laid-out pages of a small template PDF. Each new
+ * invoice imports those pages as form XObjects instead of running layout for them again.
+ *
+ * <p>Templates are kept as serialized bytes rather than open documents because iText documents
+ * are not thread safe; opening a reader over a few kilobytes is far cheaper than re-laying out
+ * the tables and paragraphs.
+ *
+ * <p>Entries are keyed by dealer and remember the dealer record and {@link InvoiceTemplate}
+ * version they were built from; a change to either rebuilds the entry on next use.
+ */
+@Component
+@Slf4j
+public class LayoutFragmentCache {
+
+    static final float CONTENT_WIDTH = PageSize.A4.getWidth() - 60;
+    static final float TITLE_WIDTH = CONTENT_WIDTH * 0.6f - 4;
+    static final float DEALER_WIDTH = CONTENT_WIDTH * 0.5f - 22;
+
+    private static final float MAX_FRAGMENT_HEIGHT = 1000;
+    private static final int TITLE_PAGE = 1;
+    private static final int DEALER_PAGE = 2;
+    private static final int FOOTER_PAGE = 3;
+
+    private final Map<String, DealerTemplate> templates = new ConcurrentHashMap<>();
+
+    /**
+     * Imports the dealer's fragments into {@code target}, rebuilding them first if the dealer
+     * record or the invoice template has changed since they were cached.
+     */
+    public Fragments fragmentsFor(Dealer dealer, InvoiceTemplate invoiceTemplate, PdfDocument target) {
+        DealerTemplate template = templates.get(dealer.getDealerId());
+        if (template == null || !template.matches(dealer, invoiceTemplate)) {
+            template = templates.compute(dealer.getDealerId(), (id, existing) ->
+                    existing != null && existing.matches(dealer, invoiceTemplate)
+                            ? existing
+                            : buildTemplate(dealer, invoiceTemplate));
+        }
+
+        try (PdfDocument source = new PdfDocument(new PdfReader(new ByteArrayInputStream(template.pdf())))) {
+            return new Fragments(
+                    source.getPage(TITLE_PAGE).copyAsFormXObject(target),
+                    source.getPage(DEALER_PAGE).copyAsFormXObject(target),
+                    source.getPage(FOOTER_PAGE).copyAsFormXObject(target)
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to import layout fragments", e);
+        }
+    }
+
+    public void invalidate(String dealerId) {
+        if (templates.remove(dealerId) != null) {
+            log.info("Layout fragments invalidated for dealer: {}", dealerId);
+        }
+    }
+
+    public void invalidateAll() {
+        templates.clear();
+    }
+
+    private DealerTemplate buildTemplate(Dealer dealer, InvoiceTemplate invoiceTemplate) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos))) {
+            addFragmentPage(pdfDoc, titleBlock(invoiceTemplate), TITLE_WIDTH);
+            addFragmentPage(pdfDoc, dealerBlock(dealer, invoiceTemplate), DEALER_WIDTH);
+            addFragmentPage(pdfDoc, footerBlock(invoiceTemplate), CONTENT_WIDTH);
+        }
+        log.debug("Layout fragments built for dealer: {} with template {} v{} ({} bytes)",
+                dealer.getDealerId(), invoiceTemplate.id(), invoiceTemplate.version(), baos.size());
+        return new DealerTemplate(dealer.toBuilder().build(), invoiceTemplate.version(), baos.toByteArray());
+    }
+
+    /**
+     * Measures the content on a detached canvas, then lays it out on a page of exactly that
+     * height so the imported XObject's bounding box starts at the origin.
+     */
+    private static void addFragmentPage(PdfDocument pdfDoc, Div content, float width) {
+        Rectangle measureArea = new Rectangle(width, MAX_FRAGMENT_HEIGHT);
+        float height;
+        try (Canvas measureCanvas = new Canvas(
+                new PdfCanvas(new PdfStream(), new PdfResources(), pdfDoc), measureArea)) {
+            IRenderer renderer = content.createRendererSubTree().setParent(measureCanvas.getRenderer());
+            LayoutResult result = renderer.layout(new LayoutContext(new LayoutArea(1, measureArea)));
+            height = result.getOccupiedArea().getBBox().getHeight();
+        }
+
+        PdfPage page = pdfDoc.addNewPage(new PageSize(width, height));
+        try (Canvas canvas = new Canvas(page, page.getPageSize())) {
+            canvas.add(content);
+        }
+    }
+
+    private static Div titleBlock(InvoiceTemplate template) {
+        Div title = new Div();
+        if (template.logo() != null) {
+            title.add(new Image(template.logo())
+                    .setHeight(template.logoHeight())
+                    .setAutoScaleWidth(true)
+                    .setMarginBottom(5));
+        }
+        return title
+                .add(new Paragraph(template.title())
+                        .setFontSize(22)
+                        .setBold()
+                        .setFontColor(template.primaryColor()))
+                .add(new Paragraph(template.subtitle())
+                        .setFontSize(10)
+                        .setFontColor(ColorConstants.GRAY));
+    }
+
+    private static Div dealerBlock(Dealer dealer, InvoiceTemplate template) {
+        return new Div()
+                .add(new Paragraph("Dealer Information")
+                        .setFontSize(12)
+                        .setBold()
+                        .setFontColor(ColorConstants.WHITE)
+                        .setBackgroundColor(template.primaryColor())
+                        .setPadding(5))
+                .add(new Paragraph(dealer.getDealerName())
+                        .setFontSize(11).setBold().setMarginTop(10))
+                .add(new Paragraph(dealer.getAddress())
+                        .setFontSize(9))
+                .add(new Paragraph(dealer.getCity() + ", " + dealer.getState() + " - " + dealer.getZipCode())
+                        .setFontSize(9))
+                .add(new Paragraph("Phone: " + dealer.getPhone())
+                        .setFontSize(9))
+                .add(new Paragraph("Email: " + dealer.getEmail())
+                        .setFontSize(9))
+                .add(new Paragraph("GST No: " + dealer.getGstNumber())
+                        .setFontSize(9).setBold());
+    }
+
+    private static Div footerBlock(InvoiceTemplate template) {
+        Table footerTable = new Table(1)
+                .useAllAvailableWidth()
+                .setBorder(new SolidBorder(ColorConstants.LIGHT_GRAY, 1, 0.5f));
+
+        footerTable.addCell(new Cell()
+                .add(new Paragraph("Terms & Conditions:")
+                        .setFontSize(10).setBold())
+                .add(new Paragraph(template.terms())
+                        .setFontSize(8)
+                        .setFontColor(ColorConstants.DARK_GRAY))
+                .setBorder(Border.NO_BORDER)
+                .setPadding(10)
+                .setBackgroundColor(template.shadeColor()));
+
+        return new Div()
+                .add(footerTable)
+                .add(new Paragraph(template.closingNote())
+                        .setFontSize(10)
+                        .setTextAlignment(TextAlignment.CENTER)
+                        .setMarginTop(10)
+                        .setItalic()
+                        .setFontColor(template.primaryColor()));
+    }
+
+    public record Fragments(PdfFormXObject title, PdfFormXObject dealer, PdfFormXObject footer) {
+    }
+
+    private record DealerTemplate(Dealer dealer, long templateVersion, byte[] pdf) {
+
+        boolean matches(Dealer currentDealer, InvoiceTemplate currentTemplate) {
+            return templateVersion == currentTemplate.version() && dealer.equals(currentDealer);
+        }
+    }
+}
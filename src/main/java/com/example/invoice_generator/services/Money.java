@@ -0,0 +1,80 @@
+package com.example.invoice_generator.services;
+
+/**
+ * Paise arithmetic and formatting helpers. Formatting writes digits straight into a small char
+ * buffer instead of going through {@link String#format}, which builds a new {@link java.util.Formatter}
+ * and re-parses the pattern on every call.
+ */
+public final class Money {
+
+    private static final char RUPEE = '₹';
+
+    private Money() {
+    }
+
+    /**
+     * Converts a catalog price in rupees to paise. Catalog prices carry at most two decimals, so
+     * rounding recovers the exact amount.
+     */
+    public static long toPaise(double rupees) {
+        return Math.round(rupees * 100);
+    }
+
+    /**
+     * {@code amount * rateBps / 10000}, rounded half up to the nearest paisa.
+     */
+    public static long applyRate(long amountPaise, int rateBps) {
+        long product = Math.multiplyExact(amountPaise, (long) rateBps);
+        return Math.floorDiv(product + 5_000, 10_000);
+    }
+
+    /**
+     * Formats paise as rupees with Indian digit grouping, e.g. {@code 137500000} as
+     * {@code "₹ 13,75,000.00"}.
+     */
+    public static String format(long paise) {
+        char[] buf = new char[32];
+        int pos = buf.length;
+        boolean negative = paise < 0;
+        // Work with the negated value so Long.MIN_VALUE does not overflow.
+        long value = negative ? paise : -paise;
+
+        buf[--pos] = (char) ('0' - value % 10);
+        value /= 10;
+        buf[--pos] = (char) ('0' - value % 10);
+        value /= 10;
+        buf[--pos] = '.';
+
+        int digits = 0;
+        do {
+            if (digits == 3 || (digits > 3 && (digits - 3) % 2 == 0)) {
+                buf[--pos] = ',';
+            }
+            buf[--pos] = (char) ('0' - value % 10);
+            value /= 10;
+            digits++;
+        } while (value != 0);
+
+        if (negative) {
+            buf[--pos] = '-';
+        }
+        buf[--pos] = ' ';
+        buf[--pos] = RUPEE;
+        return new String(buf, pos, buf.length - pos);
+    }
+
+    /**
+     * Formats basis points as a percentage without trailing zeros: 900 as {@code "9"}, 250 as
+     * {@code "2.5"}.
+     */
+    public static String formatRate(int rateBps) {
+        int whole = rateBps / 100;
+        int fraction = rateBps % 100;
+        if (fraction == 0) {
+            return Integer.toString(whole);
+        }
+        return fraction % 10 == 0
+                ? whole + "." + fraction / 10
+                : whole + "." + (fraction < 10 ? "0" : "") + fraction;
+    }
+}
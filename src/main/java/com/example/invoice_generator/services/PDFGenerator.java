@@ -1,80 +1,235 @@
 package com.example.invoice_generator.services;
 
 import com.example.invoice_generator.dto.Invoice;
+import com.example.invoice_generator.dto.PdfOutputProfile;
+import com.example.invoice_generator.dto.TaxQuote;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
 import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.colors.DeviceRgb;
 import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.borders.Border;
 import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.AreaBreak;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Image;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.AreaBreakType;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Component
 @Slf4j
 public class PDFGenerator {
 
-    private static final DeviceRgb HEADER_COLOR = new DeviceRgb(41, 128, 185);
-    private static final DeviceRgb LIGHT_GRAY = new DeviceRgb(240, 240, 240);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a");
 
+    private final LayoutFragmentCache fragmentCache;
+    private final InvoiceTemplateRegistry templates;
+    private final InvoiceMetrics metrics;
+
+    public PDFGenerator(LayoutFragmentCache fragmentCache, InvoiceTemplateRegistry templates, InvoiceMetrics metrics) {
+        this.fragmentCache = fragmentCache;
+        this.templates = templates;
+        this.metrics = metrics;
+    }
+
     public byte[] generatePDF(Invoice invoice, byte[] qrCodeImage) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        generatePDF(invoice, qrCodeImage, baos);
+        return baos.toByteArray();
+    }
+
+    public byte[] generatePDF(Invoice invoice, BitMatrix qrMatrix) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        generatePDF(invoice, qrMatrix, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Writes the PDF straight to {@code out} as iText serializes it. The stream is flushed but
+     * not closed, so callers can pass a servlet or archive stream they still own.
+     */
+    public void generatePDF(Invoice invoice, byte[] qrCodeImage, OutputStream out) {
+        generatePDF(invoice, pdfDoc -> new Image(ImageDataFactory.create(qrCodeImage)), out);
+    }
+
+    public void generatePDF(Invoice invoice, BitMatrix qrMatrix, OutputStream out) {
+        generatePDF(invoice, pdfDoc -> createVectorQRCode(pdfDoc, qrMatrix), out);
+    }
+
+    private void generatePDF(Invoice invoice, Function<PdfDocument, Image> qrCodeFactory, OutputStream out) {
+        String dealerId = invoice.getDealer().getDealerId();
+        try {
+            long layoutStart = RenderClock.now();
+            InvoiceStageEvent layoutEvent = InvoiceStageEvent.start(InvoiceMetrics.STAGE_LAYOUT);
+            PdfOutputProfile profile = invoice.getOutputProfile() != null
+                    ? invoice.getOutputProfile()
+                    : PdfOutputProfile.BALANCED;
+            PdfWriter writer = new PdfWriter(out, writerProperties(profile));
+            writer.setCloseStream(false);
             PdfDocument pdfDoc = new PdfDocument(writer);
             Document document = new Document(pdfDoc, PageSize.A4);
             document.setMargins(30, 30, 30, 30);
 
-            addHeader(document, invoice);
-            document.add(new Paragraph("\n"));
+            InvoiceTemplate template = templates.templateFor(dealerId);
+            LayoutFragmentCache.Fragments fragments = fragmentCache.fragmentsFor(invoice.getDealer(), template, pdfDoc);
+            addInvoice(document, invoice, template, fragments, qrCodeFactory);
 
-            addDealerAndCustomerInfo(document, invoice);
-            document.add(new Paragraph("\n"));
+            long serializeStart = RenderClock.now();
+            metrics.recordStage(InvoiceMetrics.STAGE_LAYOUT, dealerId, serializeStart - layoutStart);
+            layoutEvent.finish(invoice.getInvoiceNumber(), dealerId, 0);
 
-            addVehicleDetails(document, invoice);
-            document.add(new Paragraph("\n"));
+            InvoiceStageEvent serializeEvent = InvoiceStageEvent.start(InvoiceMetrics.STAGE_SERIALIZE);
+            document.close();
+            metrics.recordStage(InvoiceMetrics.STAGE_SERIALIZE, dealerId, RenderClock.now() - serializeStart);
+            metrics.recordPdfSize(dealerId, profile.name(), writer.getCurrentPos());
+            serializeEvent.finish(invoice.getInvoiceNumber(), dealerId, writer.getCurrentPos());
+
+        } catch (Exception e) {
+            metrics.recordFailure(InvoiceMetrics.CAUSE_RENDER_ERROR);
+            log.atError()
+                    .setCause(e)
+                    .addKeyValue("invoice", invoice.getInvoiceNumber())
+                    .addKeyValue("dealer", dealerId)
+                    .log("Error generating PDF");
+            throw new RuntimeException("Failed to generate PDF", e);
+        }
+    }
 
-            addPriceBreakdown(document, invoice);
-            document.add(new Paragraph("\n"));
+    /**
+     * Renders several invoices into one document, each starting on a new page. Every dealer's
+     * title, address block and terms footer are imported once and drawn from the same form
+     * XObjects on each of that dealer's pages, and the standard fonts are shared by the whole
+     * document, so each additional invoice only adds its own text and QR code.
+     *
+     * @param qrMatrices supplies the QR module matrix for each invoice as it is rendered
+     */
+    public void generateMergedPDF(List<Invoice> invoices, PdfOutputProfile profile,
+                                  Function<Invoice, BitMatrix> qrMatrices, OutputStream out) {
+        generateMergedPDF(invoices, profile, out, invoice -> {
+            BitMatrix qrMatrix = qrMatrices.apply(invoice);
+            return doc -> createVectorQRCode(doc, qrMatrix);
+        });
+    }
 
-            addQRCodeSection(document, invoice, qrCodeImage);
+    /**
+     * Like {@link #generateMergedPDF(List, PdfOutputProfile, Function, OutputStream)}, with the QR
+     * code of each invoice embedded as a PNG image.
+     *
+     * @param qrImages supplies the QR PNG for each invoice as it is rendered
+     */
+    public void generateMergedPDFWithImages(List<Invoice> invoices, PdfOutputProfile profile,
+                                            Function<Invoice, byte[]> qrImages, OutputStream out) {
+        generateMergedPDF(invoices, profile, out, invoice -> {
+            byte[] qrCodeImage = qrImages.apply(invoice);
+            return doc -> new Image(ImageDataFactory.create(qrCodeImage));
+        });
+    }
 
-            addFooter(document);
+    private void generateMergedPDF(List<Invoice> invoices, PdfOutputProfile profile, OutputStream out,
+                                   Function<Invoice, Function<PdfDocument, Image>> qrCodeFactories) {
+        try {
+            long start = RenderClock.now();
+            PdfWriter writer = new PdfWriter(out, writerProperties(profile));
+            writer.setCloseStream(false);
+            PdfDocument pdfDoc = new PdfDocument(writer);
+            Document document = new Document(pdfDoc, PageSize.A4);
+            document.setMargins(30, 30, 30, 30);
 
+            Map<String, InvoiceTemplate> templatesByDealer = new HashMap<>();
+            Map<String, LayoutFragmentCache.Fragments> fragmentsByDealer = new HashMap<>();
+            for (int i = 0; i < invoices.size(); i++) {
+                Invoice invoice = invoices.get(i);
+                if (i > 0) {
+                    document.add(new AreaBreak(AreaBreakType.NEXT_PAGE));
+                }
+                String dealerId = invoice.getDealer().getDealerId();
+                // Resolved once per dealer so a concurrent template reload cannot mix versions within one document.
+                InvoiceTemplate template = templatesByDealer.computeIfAbsent(dealerId, templates::templateFor);
+                LayoutFragmentCache.Fragments fragments = fragmentsByDealer.computeIfAbsent(dealerId,
+                        id -> fragmentCache.fragmentsFor(invoice.getDealer(), template, pdfDoc));
+                addInvoice(document, invoice, template, fragments, qrCodeFactories.apply(invoice));
+            }
+
+            int pages = pdfDoc.getNumberOfPages();
             document.close();
-            log.info("PDF generated successfully for invoice: {}", invoice.getInvoiceNumber());
-            return baos.toByteArray();
+            log.info("Merged PDF generated - Invoices: {}, Pages: {}, Size: {} bytes, Time: {} ms",
+                    invoices.size(), pages, writer.getCurrentPos(),
+                    (RenderClock.now() - start) / 1_000_000);
 
         } catch (Exception e) {
-            log.error("Error generating PDF", e);
+            metrics.recordFailure(InvoiceMetrics.CAUSE_RENDER_ERROR);
+            log.error("Error generating merged PDF", e);
             throw new RuntimeException("Failed to generate PDF", e);
         }
     }
 
-    private void addHeader(Document document, Invoice invoice) {
+    /**
+     * Adds every section of one invoice, each timed by a {@link PdfSectionEvent}.
+     */
+    private void addInvoice(Document document, Invoice invoice, InvoiceTemplate template,
+                            LayoutFragmentCache.Fragments fragments, Function<PdfDocument, Image> qrCodeFactory) {
+        PdfSectionEvent section = PdfSectionEvent.start("header");
+        addHeader(document, invoice, fragments);
+        document.add(new Paragraph("\n"));
+        section.finish(invoice);
+
+        section = PdfSectionEvent.start("parties");
+        addDealerAndCustomerInfo(document, invoice, template, fragments);
+        document.add(new Paragraph("\n"));
+        section.finish(invoice);
+
+        section = PdfSectionEvent.start("vehicle");
+        addVehicleDetails(document, invoice, template);
+        document.add(new Paragraph("\n"));
+        section.finish(invoice);
+
+        section = PdfSectionEvent.start("price");
+        addPriceBreakdown(document, invoice, template);
+        document.add(new Paragraph("\n"));
+        section.finish(invoice);
+
+        section = PdfSectionEvent.start("qr");
+        addQRCodeSection(document, invoice, qrCodeFactory);
+        section.finish(invoice);
+
+        section = PdfSectionEvent.start("footer");
+        addFooter(document, fragments);
+        section.finish(invoice);
+    }
+
+    private static WriterProperties writerProperties(PdfOutputProfile profile) {
+        return new WriterProperties()
+                .setCompressionLevel(profile.getCompressionLevel())
+                .setFullCompressionMode(profile.isFullCompression());
+    }
+
+    void addHeader(Document document, Invoice invoice, LayoutFragmentCache.Fragments fragments) {
         Table headerTable = new Table(UnitValue.createPercentArray(new float[]{60, 40}))
                 .useAllAvailableWidth();
 
         Cell titleCell = new Cell()
-                .add(new Paragraph("VEHICLE SALES INVOICE")
-                        .setFontSize(22)
-                        .setBold()
-                        .setFontColor(HEADER_COLOR))
-                .add(new Paragraph("Original for Buyer")
-                        .setFontSize(10)
-                        .setFontColor(ColorConstants.GRAY))
+                .add(new Image(fragments.title()))
                 .setBorder(Border.NO_BORDER)
                 .setPaddingTop(0);
 
@@ -96,30 +251,13 @@ public class PDFGenerator {
         document.add(new Paragraph(" ").setMarginBottom(5));
     }
 
-    private void addDealerAndCustomerInfo(Document document, Invoice invoice) {
+    void addDealerAndCustomerInfo(Document document, Invoice invoice, InvoiceTemplate template,
+                                  LayoutFragmentCache.Fragments fragments) {
         Table infoTable = new Table(UnitValue.createPercentArray(new float[]{50, 50}))
                 .useAllAvailableWidth();
 
         Cell dealerCell = new Cell()
-                .add(new Paragraph("Dealer Information")
-                        .setFontSize(12)
-                        .setBold()
-                        .setFontColor(ColorConstants.WHITE)
-                        .setBackgroundColor(HEADER_COLOR)
-                        .setPadding(5))
-                .add(new Paragraph(invoice.getDealer().getDealerName())
-                        .setFontSize(11).setBold().setMarginTop(10))
-                .add(new Paragraph(invoice.getDealer().getAddress())
-                        .setFontSize(9))
-                .add(new Paragraph(invoice.getDealer().getCity() + ", " +
-                        invoice.getDealer().getState() + " - " + invoice.getDealer().getZipCode())
-                        .setFontSize(9))
-                .add(new Paragraph("Phone: " + invoice.getDealer().getPhone())
-                        .setFontSize(9))
-                .add(new Paragraph("Email: " + invoice.getDealer().getEmail())
-                        .setFontSize(9))
-                .add(new Paragraph("GST No: " + invoice.getDealer().getGstNumber())
-                        .setFontSize(9).setBold())
+                .add(new Image(fragments.dealer()))
                 .setPadding(10)
                 .setBorder(new SolidBorder(ColorConstants.LIGHT_GRAY, 1));
 
@@ -128,7 +266,7 @@ public class PDFGenerator {
                         .setFontSize(12)
                         .setBold()
                         .setFontColor(ColorConstants.WHITE)
-                        .setBackgroundColor(HEADER_COLOR)
+                        .setBackgroundColor(template.primaryColor())
                         .setPadding(5))
                 .add(new Paragraph(invoice.getCustomerName())
                         .setFontSize(11).setBold().setMarginTop(10))
@@ -143,32 +281,33 @@ public class PDFGenerator {
         document.add(infoTable);
     }
 
-    private void addVehicleDetails(Document document, Invoice invoice) {
+    void addVehicleDetails(Document document, Invoice invoice, InvoiceTemplate template) {
         Paragraph sectionTitle = new Paragraph("Vehicle Details")
                 .setFontSize(14)
                 .setBold()
-                .setFontColor(HEADER_COLOR);
+                .setFontColor(template.primaryColor());
         document.add(sectionTitle);
 
         Table vehicleTable = new Table(UnitValue.createPercentArray(new float[]{30, 70}))
                 .useAllAvailableWidth()
                 .setBorder(new SolidBorder(ColorConstants.LIGHT_GRAY, 1));
 
-        addVehicleRow(vehicleTable, "Vehicle ID", invoice.getVehicle().getVehicleId());
-        addVehicleRow(vehicleTable, "Make & Model", invoice.getVehicle().getMake() + " " + invoice.getVehicle().getModel());
-        addVehicleRow(vehicleTable, "Year", invoice.getVehicle().getYear());
-        addVehicleRow(vehicleTable, "Color", invoice.getVehicle().getColor());
-        addVehicleRow(vehicleTable, "VIN", invoice.getVehicle().getVin());
-        addVehicleRow(vehicleTable, "Engine Number", invoice.getVehicle().getEngineNumber());
-        addVehicleRow(vehicleTable, "Chassis Number", invoice.getVehicle().getChassisNumber());
+        DeviceRgb shade = template.shadeColor();
+        addVehicleRow(vehicleTable, shade, "Vehicle ID", invoice.getVehicle().getVehicleId());
+        addVehicleRow(vehicleTable, shade, "Make & Model", invoice.getVehicle().getMake() + " " + invoice.getVehicle().getModel());
+        addVehicleRow(vehicleTable, shade, "Year", invoice.getVehicle().getYear());
+        addVehicleRow(vehicleTable, shade, "Color", invoice.getVehicle().getColor());
+        addVehicleRow(vehicleTable, shade, "VIN", invoice.getVehicle().getVin());
+        addVehicleRow(vehicleTable, shade, "Engine Number", invoice.getVehicle().getEngineNumber());
+        addVehicleRow(vehicleTable, shade, "Chassis Number", invoice.getVehicle().getChassisNumber());
 
         document.add(vehicleTable);
     }
 
-    private void addVehicleRow(Table table, String label, String value) {
+    private void addVehicleRow(Table table, DeviceRgb shade, String label, String value) {
         table.addCell(new Cell()
                 .add(new Paragraph(label).setFontSize(10).setBold())
-                .setBackgroundColor(LIGHT_GRAY)
+                .setBackgroundColor(shade)
                 .setPadding(8)
                 .setBorder(Border.NO_BORDER));
 
@@ -178,27 +317,42 @@ public class PDFGenerator {
                 .setBorder(Border.NO_BORDER));
     }
 
-    private void addPriceBreakdown(Document document, Invoice invoice) {
+    void addPriceBreakdown(Document document, Invoice invoice, InvoiceTemplate template) {
         Paragraph sectionTitle = new Paragraph("Price Breakdown")
                 .setFontSize(14)
                 .setBold()
-                .setFontColor(HEADER_COLOR);
+                .setFontColor(template.primaryColor());
         document.add(sectionTitle);
 
         Table priceTable = new Table(UnitValue.createPercentArray(new float[]{70, 30}))
                 .useAllAvailableWidth()
                 .setBorder(new SolidBorder(ColorConstants.LIGHT_GRAY, 1));
 
-        priceTable.addCell(createPriceCell("Tax (" + invoice.getTaxPercentage() + "%)", false));
-        priceTable.addCell(createAmountCell(invoice.getTaxAmount(), false));
+        TaxQuote tax = invoice.getTax();
+        addPriceRow(priceTable, template, "Ex-showroom Price", tax.basePaise());
+        if (tax.interState()) {
+            addPriceRow(priceTable, template, "IGST @ " + Money.formatRate(tax.gstRateBps()) + "%", tax.igstPaise());
+        } else {
+            String halfRate = Money.formatRate(tax.gstRateBps() / 2);
+            addPriceRow(priceTable, template, "CGST @ " + halfRate + "%", tax.cgstPaise());
+            addPriceRow(priceTable, template, "SGST @ " + halfRate + "%", tax.sgstPaise());
+        }
+        if (tax.cessRateBps() > 0) {
+            addPriceRow(priceTable, template, "Cess @ " + Money.formatRate(tax.cessRateBps()) + "%", tax.cessPaise());
+        }
 
-        priceTable.addCell(createPriceCell("Total Amount", true));
-        priceTable.addCell(createAmountCell(invoice.getTotalAmount(), true));
+        priceTable.addCell(createPriceCell(template, "Total Amount", true));
+        priceTable.addCell(createAmountCell(template, tax.totalPaise(), true));
 
         document.add(priceTable);
     }
 
-    private Cell createPriceCell(String text, boolean isTotal) {
+    private void addPriceRow(Table table, InvoiceTemplate template, String label, long paise) {
+        table.addCell(createPriceCell(template, label, false));
+        table.addCell(createAmountCell(template, paise, false));
+    }
+
+    private Cell createPriceCell(InvoiceTemplate template, String text, boolean isTotal) {
         Paragraph p = new Paragraph(text).setFontSize(isTotal ? 12 : 10);
         if (isTotal) {
             p.setBold().setFontColor(ColorConstants.WHITE);
@@ -206,14 +360,14 @@ public class PDFGenerator {
 
         return new Cell()
                 .add(p)
-                .setBackgroundColor(isTotal ? HEADER_COLOR : LIGHT_GRAY)
+                .setBackgroundColor(isTotal ? template.primaryColor() : template.shadeColor())
                 .setPadding(10)
                 .setBorder(Border.NO_BORDER)
                 .setTextAlignment(TextAlignment.LEFT);
     }
 
-    private Cell createAmountCell(double amount, boolean isTotal) {
-        Paragraph p = new Paragraph(String.format("₹ %.2f", amount))
+    private Cell createAmountCell(InvoiceTemplate template, long paise, boolean isTotal) {
+        Paragraph p = new Paragraph(Money.format(paise))
                 .setFontSize(isTotal ? 12 : 10);
         if (isTotal) {
             p.setBold().setFontColor(ColorConstants.WHITE);
@@ -221,13 +375,13 @@ public class PDFGenerator {
 
         return new Cell()
                 .add(p)
-                .setBackgroundColor(isTotal ? HEADER_COLOR : ColorConstants.WHITE)
+                .setBackgroundColor(isTotal ? template.primaryColor() : ColorConstants.WHITE)
                 .setPadding(10)
                 .setBorder(Border.NO_BORDER)
                 .setTextAlignment(TextAlignment.RIGHT);
     }
 
-    private void addQRCodeSection(Document document, Invoice invoice, byte[] qrCodeImage) {
+    void addQRCodeSection(Document document, Invoice invoice, Function<PdfDocument, Image> qrCodeFactory) {
         Table qrTable = new Table(UnitValue.createPercentArray(new float[]{70, 30}))
                 .useAllAvailableWidth()
                 .setMarginTop(20);
@@ -245,7 +399,7 @@ public class PDFGenerator {
                 .setPaddingTop(20);
 
         try {
-            Image qrImage = new Image(ImageDataFactory.create(qrCodeImage))
+            Image qrImage = qrCodeFactory.apply(document.getPdfDocument())
                     .setWidth(120)
                     .setHeight(120);
 
@@ -262,36 +416,36 @@ public class PDFGenerator {
         }
     }
 
-    private void addFooter(Document document) {
-        document.add(new Paragraph("\n"));
-
-        Table footerTable = new Table(1)
-                .useAllAvailableWidth()
-                .setBorder(new SolidBorder(ColorConstants.LIGHT_GRAY, 1, 0.5f));
-
-        footerTable.addCell(new Cell()
-                .add(new Paragraph("Terms & Conditions:")
-                        .setFontSize(10).setBold())
-                .add(new Paragraph("1. This invoice is computer generated and requires no signature.\n" +
-                        "2. Payment is due within 7 days of invoice date.\n" +
-                        "3. Vehicle delivery subject to full payment clearance.\n" +
-                        "4. All disputes subject to local jurisdiction.")
-                        .setFontSize(8)
-                        .setFontColor(ColorConstants.DARK_GRAY))
-                .setBorder(Border.NO_BORDER)
-                .setPadding(10)
-                .setBackgroundColor(LIGHT_GRAY));
-
-        document.add(footerTable);
+    /**
+     * Draws the QR modules into a form XObject at one unit per module, merging each horizontal
+     * run of dark modules into a single rectangle and filling all of them with one operator.
+     * The layout engine then scales the XObject like any other image.
+     */
+    Image createVectorQRCode(PdfDocument pdfDoc, BitMatrix qrMatrix) {
+        int width = qrMatrix.getWidth();
+        int height = qrMatrix.getHeight();
+        PdfFormXObject xObject = new PdfFormXObject(new Rectangle(width, height));
+        PdfCanvas canvas = new PdfCanvas(xObject, pdfDoc);
+        canvas.setFillColor(ColorConstants.BLACK);
+
+        BitArray row = new BitArray(width);
+        for (int y = 0; y < height; y++) {
+            row = qrMatrix.getRow(y, row);
+            int runStart = row.getNextSet(0);
+            while (runStart < width) {
+                int runEnd = row.getNextUnset(runStart);
+                canvas.rectangle(runStart, height - y - 1, runEnd - runStart, 1);
+                runStart = row.getNextSet(runEnd);
+            }
+        }
 
-        Paragraph thankYou = new Paragraph("Thank you for your business!")
-                .setFontSize(10)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginTop(10)
-                .setItalic()
-                .setFontColor(HEADER_COLOR);
+        canvas.fill();
+        canvas.release();
+        return new Image(xObject);
+    }
 
-        document.add(thankYou);
+    void addFooter(Document document, LayoutFragmentCache.Fragments fragments) {
+        document.add(new Paragraph("\n"));
+        document.add(new Image(fragments.footer()));
     }
 }
-
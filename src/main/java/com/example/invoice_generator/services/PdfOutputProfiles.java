@@ -0,0 +1,51 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.PdfOutputProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks the {@link PdfOutputProfile} for an invoice: the one named in the request if any,
+ * otherwise the dealer's entry in {@code invoice.pdf.dealer-profiles}
+ * ({@code D001:SMALLEST,D002:FAST}), otherwise {@code invoice.pdf.output-profile}.
+ */
+@Component
+@Slf4j
+public class PdfOutputProfiles {
+
+    private final PdfOutputProfile defaultProfile;
+    private final Map<String, PdfOutputProfile> dealerProfiles;
+
+    public PdfOutputProfiles(@Value("${invoice.pdf.output-profile:BALANCED}") PdfOutputProfile defaultProfile,
+                             @Value("${invoice.pdf.dealer-profiles:}") String dealerProfiles) {
+        this.defaultProfile = defaultProfile;
+        this.dealerProfiles = parse(dealerProfiles);
+        log.info("PDF output profile - Default: {}, Dealer overrides: {}", defaultProfile, this.dealerProfiles);
+    }
+
+    public PdfOutputProfile resolve(String dealerId, PdfOutputProfile requested) {
+        if (requested != null) {
+            return requested;
+        }
+        return dealerProfiles.getOrDefault(dealerId, defaultProfile);
+    }
+
+    private static Map<String, PdfOutputProfile> parse(String value) {
+        Map<String, PdfOutputProfile> profiles = new HashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected dealerId:PROFILE in invoice.pdf.dealer-profiles: " + entry);
+            }
+            profiles.put(parts[0].trim(), PdfOutputProfile.valueOf(parts[1].trim()));
+        }
+        return Map.copyOf(profiles);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Invoice;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for laying out one section of an invoice PDF (header, parties,
+ * vehicle, price breakdown, QR code, footer), so slow layouts can be pinned to a section.
+ */
+@Name(PdfSectionEvent.NAME)
+@Label("PDF Section")
+@Category({"Invoice Generator"})
+@Description("Time spent laying out one section of an invoice PDF")
+@StackTrace(false)
+class PdfSectionEvent extends Event {
+
+    static final String NAME = "com.example.invoice_generator.PdfSection";
+
+    @Label("Section")
+    String section;
+
+    @Label("Invoice Number")
+    String invoiceNumber;
+
+    @Label("Dealer")
+    String dealerId;
+
+    static PdfSectionEvent start(String section) {
+        PdfSectionEvent event = new PdfSectionEvent();
+        event.section = section;
+        event.begin();
+        return event;
+    }
+
+    void finish(Invoice invoice) {
+        end();
+        if (shouldCommit()) {
+            this.invoiceNumber = invoice.getInvoiceNumber();
+            this.dealerId = invoice.getDealer().getDealerId();
+            commit();
+        }
+    }
+}
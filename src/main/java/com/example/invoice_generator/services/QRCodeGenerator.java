@@ -14,7 +14,6 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
 
 @Component
@@ -23,28 +22,23 @@ public class QRCodeGenerator {
 
     private static final int QR_CODE_WIDTH = 200;
     private static final int QR_CODE_HEIGHT = 200;
+    private static final Map<EncodeHintType, Object> HINTS = Map.of(
+            EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H,
+            EncodeHintType.CHARACTER_SET, "UTF-8",
+            EncodeHintType.MARGIN, 1
+    );
 
     public byte[] generateQRCode(String data) {
         try {
-            Map<EncodeHintType, Object> hints = new HashMap<>();
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-            hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-            hints.put(EncodeHintType.MARGIN, 1);
-
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(
-                    data,
-                    BarcodeFormat.QR_CODE,
-                    QR_CODE_WIDTH,
-                    QR_CODE_HEIGHT,
-                    hints
-            );
+            BitMatrix bitMatrix = encode(data, QR_CODE_WIDTH, QR_CODE_HEIGHT);
 
             BufferedImage qrImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
 
+            InvoiceStageEvent pngEvent = InvoiceStageEvent.start(InvoiceStageEvent.STAGE_PNG);
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             ImageIO.write(qrImage, "PNG", baos);
             byte[] imageBytes = baos.toByteArray();
+            pngEvent.finish(null, null, imageBytes.length);
 
             log.debug("QR code generated successfully for data: {}", data);
             return imageBytes;
@@ -54,4 +48,23 @@ public class QRCodeGenerator {
             throw new RuntimeException("Failed to generate QR code", e);
         }
     }
+
+    /**
+     * Encodes the data at one bit per module (plus the quiet zone), for callers that draw the
+     * modules themselves instead of going through a raster image.
+     */
+    public BitMatrix encodeMatrix(String data) {
+        try {
+            BitMatrix bitMatrix = encode(data, 0, 0);
+            log.debug("QR matrix encoded successfully for data: {}", data);
+            return bitMatrix;
+        } catch (WriterException e) {
+            log.error("Error generating QR code", e);
+            throw new RuntimeException("Failed to generate QR code", e);
+        }
+    }
+
+    private BitMatrix encode(String data, int width, int height) throws WriterException {
+        return new QRCodeWriter().encode(data, BarcodeFormat.QR_CODE, width, height, HINTS);
+    }
 }
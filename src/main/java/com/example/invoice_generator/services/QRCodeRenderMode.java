@@ -0,0 +1,11 @@
+package com.example.invoice_generator.services;
+
+/**
+ * How the transaction QR code is placed into the invoice PDF.
+ */
+public enum QRCodeRenderMode {
+    /** Module matrix drawn straight onto the page as merged filled rectangles. */
+    VECTOR,
+    /** Legacy path: matrix rasterised to PNG and embedded as an image. */
+    PNG
+}
@@ -0,0 +1,37 @@
+package com.example.invoice_generator.services;
+
+/**
+ * Render timings that leave out the time a render spends blocked on its output. A render
+ * streams its PDF through a {@link RenderPipe}, so a client that reads slowly holds the render
+ * back; measured with {@link System#nanoTime()} alone, that backpressure would show up as slow
+ * layout or serialization. Differences of {@link #now()} taken on the same thread measure only
+ * the time the thread was not waiting for its output to be taken.
+ */
+final class RenderClock {
+
+    private static final ThreadLocal<long[]> BLOCKED = ThreadLocal.withInitial(() -> new long[1]);
+
+    private RenderClock() {
+    }
+
+    /**
+     * {@link System#nanoTime()} less all the time the current thread has spent blocked on output.
+     */
+    static long now() {
+        return System.nanoTime() - blockedNanos();
+    }
+
+    /**
+     * All the time the current thread has spent blocked on output so far.
+     */
+    static long blockedNanos() {
+        return BLOCKED.get()[0];
+    }
+
+    /**
+     * Records that the current thread was blocked on output for {@code nanos}.
+     */
+    static void blocked(long nanos) {
+        BLOCKED.get()[0] += nanos;
+    }
+}
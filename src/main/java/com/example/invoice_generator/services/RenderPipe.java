@@ -0,0 +1,225 @@
+package com.example.invoice_generator.services;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded hand-off of rendered bytes from a render thread to the thread that writes them out.
+ * The render writes into {@link #sink()} in fixed-size chunks; at most {@code capacity} chunks
+ * are in flight, so a slow reader holds the render back instead of the render buffering the
+ * whole document. Drained chunks are handed back to the writer for reuse.
+ */
+final class RenderPipe {
+
+    private final int chunkSize;
+    private final int capacity;
+    private final long writeTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayDeque<Chunk> chunks = new ArrayDeque<>();
+    private final ArrayDeque<byte[]> free = new ArrayDeque<>();
+    private boolean finished;
+    private boolean failed;
+    private boolean abandoned;
+
+    RenderPipe(int chunkSize, int capacity, long writeTimeoutNanos) {
+        this.chunkSize = chunkSize;
+        this.capacity = capacity;
+        this.writeTimeoutNanos = writeTimeoutNanos;
+    }
+
+    /**
+     * The writing end. Closing it marks the end of the output; a render that fails must call
+     * {@link #fail()} instead, so the reader never takes a truncated document for a whole one.
+     */
+    OutputStream sink() {
+        return new Sink();
+    }
+
+    /**
+     * Tells the reader the render failed; whatever it has not drained yet is dropped.
+     */
+    void fail() {
+        lock.lock();
+        try {
+            failed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tells the render nobody is reading any more; its next write fails.
+     */
+    void abandon() {
+        lock.lock();
+        try {
+            abandoned = true;
+            chunks.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isAbandoned() {
+        lock.lock();
+        try {
+            return abandoned;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies chunks to {@code out} until the render closes the sink or fails.
+     *
+     * @return the number of bytes copied
+     * @throws IOException if writing to {@code out} fails
+     * @throws InterruptedException if interrupted while waiting for the render
+     */
+    long drainTo(OutputStream out) throws IOException, InterruptedException {
+        long copied = 0;
+        while (true) {
+            Chunk chunk;
+            lock.lock();
+            try {
+                while (chunks.isEmpty() && !finished && !failed) {
+                    notEmpty.await();
+                }
+                if (failed || chunks.isEmpty()) {
+                    return copied;
+                }
+                chunk = chunks.pollFirst();
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            out.write(chunk.bytes, 0, chunk.length);
+            copied += chunk.length;
+            recycle(chunk.bytes);
+        }
+    }
+
+    /**
+     * Queues a full chunk, waiting while the reader is {@code capacity} chunks behind. The wait
+     * is reported to {@link RenderClock}, so it does not count as render time.
+     */
+    private void put(byte[] bytes, int length) throws IOException {
+        lock.lock();
+        boolean waited = false;
+        long waitStart = 0;
+        try {
+            long remaining = writeTimeoutNanos;
+            while (chunks.size() >= capacity && !abandoned) {
+                if (!waited) {
+                    waited = true;
+                    waitStart = System.nanoTime();
+                }
+                if (remaining <= 0) {
+                    throw new IOException("Timed out after " + TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos)
+                            + " ms waiting for the render output to be written");
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+            if (abandoned) {
+                throw new IOException("Render output is no longer being read");
+            }
+            chunks.addLast(new Chunk(bytes, length));
+            notEmpty.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing render output");
+        } finally {
+            lock.unlock();
+            if (waited) {
+                RenderClock.blocked(System.nanoTime() - waitStart);
+            }
+        }
+    }
+
+    private void finish() {
+        lock.lock();
+        try {
+            finished = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] take() {
+        lock.lock();
+        try {
+            byte[] bytes = free.pollFirst();
+            return bytes != null ? bytes : new byte[chunkSize];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recycle(byte[] bytes) {
+        lock.lock();
+        try {
+            free.addLast(bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Chunk(byte[] bytes, int length) {
+    }
+
+    private final class Sink extends OutputStream {
+        private byte[] current = take();
+        private int count;
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == current.length) {
+                handOff();
+            }
+            current[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == current.length) {
+                    handOff();
+                }
+                int n = Math.min(len, current.length - count);
+                System.arraycopy(b, off, current, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                if (count > 0) {
+                    put(current, count);
+                }
+                finish();
+            }
+        }
+
+        private void handOff() throws IOException {
+            put(current, count);
+            current = take();
+            count = 0;
+        }
+    }
+}
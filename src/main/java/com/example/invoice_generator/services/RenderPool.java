@@ -0,0 +1,229 @@
+package com.example.invoice_generator.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Platform threads for the CPU-bound part of an invoice: QR encoding and PDF layout. Request
+ * handling runs on virtual threads ({@code spring.threads.virtual.enabled}), which are cheap to
+ * block but share a handful of carrier threads; running ZXing and iText on them would let many
+ * concurrent requests oversubscribe the CPU, and their internal monitors could pin carriers.
+ * Instead the request thread hands the render to this pool and parks until it is done, so only
+ * {@code invoice.render.threads} renders (0 = number of available processors) ever compete for
+ * the cores.
+ *
+ * <p>{@link #stream} hands the rendered bytes back through a {@link RenderPipe} of
+ * {@value #PIPE_CHUNKS} chunks of {@value #CHUNK_SIZE} bytes while the render is still running,
+ * so no render holds a whole document in memory. A render whose output is not drained for
+ * {@code invoice.render.write-timeout}, because the client stopped reading, gives up and frees
+ * its thread.
+ *
+ * <p>With {@code invoice.render.pool.enabled=false} work runs on the calling thread.
+ */
+@Component
+@Slf4j
+public class RenderPool {
+
+    private static final String THREAD_PREFIX = "invoice-render-";
+    static final int CHUNK_SIZE = 16 * 1024;
+    static final int PIPE_CHUNKS = 16;
+    private static final Duration DEFAULT_WRITE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final int threads;
+    private final long writeTimeoutNanos;
+    private final ExecutorService executor;
+
+    @Autowired
+    public RenderPool(@Value("${invoice.render.pool.enabled:true}") boolean enabled,
+                      @Value("${invoice.render.threads:0}") int threads,
+                      @Value("${invoice.render.write-timeout:30s}") Duration writeTimeout) {
+        this(enabled ? (threads > 0 ? threads : Runtime.getRuntime().availableProcessors()) : 0, writeTimeout);
+        log.info("Render pool configured - Threads: {}, Write timeout: {}",
+                enabled ? String.valueOf(this.threads) : "caller", writeTimeout);
+    }
+
+    RenderPool(int threads) {
+        this(threads, DEFAULT_WRITE_TIMEOUT);
+    }
+
+    /**
+     * @param threads number of render threads, or 0 to run work on the calling thread
+     */
+    RenderPool(int threads, Duration writeTimeout) {
+        if (threads < 0) {
+            throw new IllegalArgumentException("Render threads must not be negative: " + threads);
+        }
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.executor = threads > 0
+                ? Executors.newFixedThreadPool(threads, BatchInvoiceService.namedThreadFactory(THREAD_PREFIX))
+                : null;
+    }
+
+    /**
+     * A pool that runs everything on the calling thread, for warm-up and benchmarks.
+     */
+    static RenderPool callerRuns() {
+        return new RenderPool(0);
+    }
+
+    /**
+     * Number of renders that can run at once; the render scheduler hands out this many slots
+     * by default.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Runs {@code work} on a render thread and copies what it writes to {@code out} on the
+     * calling thread as it is produced. Runtime exceptions thrown by the work are rethrown unchanged; nothing
+     * written after a failure reaches {@code out}. This method does not return before the
+     * render has ended, also when it fails. Work submitted from a render thread runs inline,
+     * straight into {@code out}.
+     *
+     * @return the number of bytes written to {@code out}
+     * @throws UncheckedIOException if writing to {@code out} fails; the render is abandoned
+     * @throws IllegalStateException if the caller is interrupted while waiting; the render is abandoned
+     */
+    public long stream(Consumer<OutputStream> work, OutputStream out) {
+        if (executor == null || isRenderThread()) {
+            // Without a pool the render writes to the client itself, so its writes are output waits.
+            OutputStream target = executor == null ? new ClockedOutputStream(out) : out;
+            CountingOutputStream counting = new CountingOutputStream(target);
+            work.accept(counting);
+            return counting.getCount();
+        }
+        RenderPipe pipe = new RenderPipe(CHUNK_SIZE, PIPE_CHUNKS, writeTimeoutNanos);
+        Future<?> future = executor.submit(() -> {
+            if (pipe.isAbandoned()) {
+                return null;
+            }
+            try {
+                OutputStream sink = pipe.sink();
+                work.accept(sink);
+                sink.close();
+            } catch (Throwable e) {
+                pipe.fail();
+                throw e;
+            }
+            return null;
+        });
+
+        long written;
+        try {
+            written = pipe.drainTo(out);
+        } catch (IOException e) {
+            abandon(pipe, future);
+            throw new UncheckedIOException("Failed to write render output", e);
+        } catch (InterruptedException e) {
+            abandon(pipe, future);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a render", e);
+        }
+        try {
+            awaitUninterruptibly(future);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+        return written;
+    }
+
+    /**
+     * Makes the render's next write fail and waits for it to end, so the caller can release
+     * what the render holds.
+     */
+    private static void abandon(RenderPipe pipe, Future<?> future) {
+        pipe.abandon();
+        try {
+            awaitUninterruptibly(future);
+        } catch (ExecutionException e) {
+            log.debug("Abandoned render failed", e.getCause());
+        }
+    }
+
+    private static void awaitUninterruptibly(Future<?> future) throws ExecutionException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    future.get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException("Render failed", cause);
+    }
+
+    private static boolean isRenderThread() {
+        Thread current = Thread.currentThread();
+        return !current.isVirtual() && current.getName().startsWith(THREAD_PREFIX);
+    }
+
+    /**
+     * Reports the time spent writing to the wrapped stream to {@link RenderClock} as blocked time.
+     */
+    private static final class ClockedOutputStream extends FilterOutputStream {
+
+        ClockedOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            long start = System.nanoTime();
+            out.write(b);
+            RenderClock.blocked(System.nanoTime() - start);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            out.write(b, off, len);
+            RenderClock.blocked(System.nanoTime() - start);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            long start = System.nanoTime();
+            out.flush();
+            RenderClock.blocked(System.nanoTime() - start);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.invoice_generator.services;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+
+/**
+ * Watches the JFR event stream in-process and flags renders that take at least
+ * {@code invoice.profiling.slow-render.threshold} as they happen. Only render
+ * {@link InvoiceStageEvent}s over the threshold are recorded at all, so the stream costs
+ * nothing for normal renders. Time the render spent blocked on a client that reads slowly does
+ * not count towards the threshold. Each flagged render is logged at WARN together with the GC pause
+ * time that overlapped it, and counted in {@code invoice.render.slow}; for the breakdown by
+ * stage and PDF section, dump the profiling recording.
+ *
+ * <p>Starts once the application is ready, so warm-up renders are not flagged.
+ */
+@Component
+@Slf4j
+public class SlowRenderDetector {
+
+    private static final String GC_PAUSE_EVENT = "jdk.GCPhasePause";
+    private static final int RECENT_PAUSES = 256;
+
+    private final InvoiceMetrics metrics;
+    private final boolean enabled;
+    private final Duration threshold;
+    /** GC pauses seen lately, oldest first; only touched by the stream's dispatch thread. */
+    private final ArrayDeque<RecordedEvent> recentPauses = new ArrayDeque<>();
+    private RecordingStream stream;
+
+    public SlowRenderDetector(InvoiceMetrics metrics,
+                              @Value("${invoice.profiling.slow-render.enabled:true}") boolean enabled,
+                              @Value("${invoice.profiling.slow-render.threshold:500ms}") Duration threshold) {
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(InvoiceStageEvent.NAME).withThreshold(threshold);
+        stream.enable(GC_PAUSE_EVENT);
+        stream.onEvent(GC_PAUSE_EVENT, this::onGcPause);
+        stream.onEvent(InvoiceStageEvent.NAME, this::onStage);
+        stream.startAsync();
+        log.info("Slow render detector started - Threshold: {}", threshold);
+    }
+
+    private void onGcPause(RecordedEvent pause) {
+        recentPauses.addLast(pause);
+        if (recentPauses.size() > RECENT_PAUSES) {
+            recentPauses.removeFirst();
+        }
+    }
+
+    private void onStage(RecordedEvent event) {
+        if (!InvoiceStageEvent.STAGE_RENDER.equals(event.getString("stage"))) {
+            return;
+        }
+        Duration blocked = event.getDuration("blocked");
+        Duration render = event.getDuration().minus(blocked);
+        if (render.compareTo(threshold) < 0) {
+            return;
+        }
+        metrics.recordSlowRender();
+        log.atWarn()
+                .addKeyValue("invoice", event.getString("invoiceNumber"))
+                .addKeyValue("dealer", event.getString("dealerId"))
+                .addKeyValue("bytes", event.getLong("bytes"))
+                .addKeyValue("ms", render.toMillis())
+                .addKeyValue("blockedMs", blocked.toMillis())
+                .addKeyValue("gcPauseMs", gcPauseDuring(event.getStartTime(), event.getEndTime()).toMillis())
+                .addKeyValue("thread", event.getThread() != null ? event.getThread().getJavaName() : null)
+                .log("Slow render");
+    }
+
+    private Duration gcPauseDuring(Instant start, Instant end) {
+        Duration total = Duration.ZERO;
+        for (RecordedEvent pause : recentPauses) {
+            Instant from = pause.getStartTime().isAfter(start) ? pause.getStartTime() : start;
+            Instant to = pause.getEndTime().isBefore(end) ? pause.getEndTime() : end;
+            if (from.isBefore(to)) {
+                total = total.plus(Duration.between(from, to));
+            }
+        }
+        return total;
+    }
+
+    @PreDestroy
+    synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+}
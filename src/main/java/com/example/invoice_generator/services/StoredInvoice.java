@@ -0,0 +1,10 @@
+package com.example.invoice_generator.services;
+
+import java.nio.file.Path;
+
+/**
+ * A PDF held in the {@link InvoiceStore}: the content file, its SHA-256 digest (used as the
+ * ETag) and its size in bytes.
+ */
+public record StoredInvoice(String invoiceNumber, Path path, String sha256, long size) {
+}
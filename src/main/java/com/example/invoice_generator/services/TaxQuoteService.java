@@ -0,0 +1,84 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.Dealer;
+import com.example.invoice_generator.dto.TaxQuoteRequest;
+import com.example.invoice_generator.dto.TaxQuoteResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Prices many vehicles for one dealer and buyer in a single call. Prices and vehicle classes are
+ * read straight from the catalog mapping into arrays and run through {@link GstEngine} in one
+ * pass; no per-vehicle objects are created apart from the class strings.
+ */
+@Service
+@Slf4j
+public class TaxQuoteService {
+
+    private final CatalogService catalogService;
+    private final GstEngine gstEngine;
+    private final int maxQuoteSize;
+
+    public TaxQuoteService(CatalogService catalogService,
+                           GstEngine gstEngine,
+                           @Value("${invoice.tax.max-quote-size:10000}") int maxQuoteSize) {
+        this.catalogService = catalogService;
+        this.gstEngine = gstEngine;
+        this.maxQuoteSize = maxQuoteSize;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the dealer or any vehicle is unknown, or the list is empty or too large
+     */
+    public TaxQuoteResponse quote(TaxQuoteRequest request) {
+        List<String> vehicleIds = request.getVehicleIds();
+        if (vehicleIds == null || vehicleIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one vehicle ID is required");
+        }
+        if (vehicleIds.size() > maxQuoteSize) {
+            throw new IllegalArgumentException("Quote size " + vehicleIds.size() + " exceeds limit of " + maxQuoteSize);
+        }
+        Dealer dealer = catalogService.findDealer(request.getDealerId());
+        if (dealer == null) {
+            throw new IllegalArgumentException("Dealer not found: " + request.getDealerId());
+        }
+
+        long start = System.nanoTime();
+        int size = vehicleIds.size();
+        double[] prices = new double[size];
+        String[] vehicleClasses = new String[size];
+        int missing = catalogService.findPricing(vehicleIds, prices, vehicleClasses);
+        if (missing >= 0) {
+            throw new IllegalArgumentException("Vehicle not found: " + vehicleIds.get(missing));
+        }
+
+        long[] basePaise = new long[size];
+        int[] classIndexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            basePaise[i] = Money.toPaise(prices[i]);
+            classIndexes[i] = gstEngine.classIndex(vehicleClasses[i]);
+        }
+        boolean interState = GstEngine.isInterState(dealer.getState(), request.getCustomerState());
+        TaxQuotes quotes = new TaxQuotes(size);
+        gstEngine.quote(basePaise, classIndexes, interState, quotes);
+
+        log.debug("Tax quote computed - Dealer: {}, Vehicles: {}, Time: {} us",
+                dealer.getDealerId(), size, (System.nanoTime() - start) / 1_000);
+        return TaxQuoteResponse.builder()
+                .dealerId(dealer.getDealerId())
+                .interState(interState)
+                .vehicleIds(vehicleIds)
+                .basePaise(quotes.basePaise())
+                .gstRateBps(quotes.gstRateBps())
+                .cgstPaise(quotes.cgstPaise())
+                .sgstPaise(quotes.sgstPaise())
+                .igstPaise(quotes.igstPaise())
+                .cessRateBps(quotes.cessRateBps())
+                .cessPaise(quotes.cessPaise())
+                .totalPaise(quotes.totalPaise())
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.invoice_generator.services;
+
+/**
+ * Column-oriented results of a bulk {@link GstEngine#quote(long[], int[], boolean, TaxQuotes)}:
+ * one primitive array per field, so pricing thousands of vehicles allocates a fixed handful of
+ * arrays instead of an object per vehicle. Field meanings match {@link com.example.invoice_generator.dto.TaxQuote}.
+ */
+public final class TaxQuotes {
+
+    final long[] basePaise;
+    final int[] gstRateBps;
+    final long[] cgstPaise;
+    final long[] sgstPaise;
+    final long[] igstPaise;
+    final int[] cessRateBps;
+    final long[] cessPaise;
+    final long[] totalPaise;
+
+    public TaxQuotes(int size) {
+        this.basePaise = new long[size];
+        this.gstRateBps = new int[size];
+        this.cgstPaise = new long[size];
+        this.sgstPaise = new long[size];
+        this.igstPaise = new long[size];
+        this.cessRateBps = new int[size];
+        this.cessPaise = new long[size];
+        this.totalPaise = new long[size];
+    }
+
+    public int size() {
+        return basePaise.length;
+    }
+
+    public long[] basePaise() {
+        return basePaise;
+    }
+
+    public int[] gstRateBps() {
+        return gstRateBps;
+    }
+
+    public long[] cgstPaise() {
+        return cgstPaise;
+    }
+
+    public long[] sgstPaise() {
+        return sgstPaise;
+    }
+
+    public long[] igstPaise() {
+        return igstPaise;
+    }
+
+    public int[] cessRateBps() {
+        return cessRateBps;
+    }
+
+    public long[] cessPaise() {
+        return cessPaise;
+    }
+
+    public long[] totalPaise() {
+        return totalPaise;
+    }
+}
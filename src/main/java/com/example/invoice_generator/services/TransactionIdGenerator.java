@@ -0,0 +1,71 @@
+package com.example.invoice_generator.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates strictly increasing, time-ordered transaction IDs without locks.
+ *
+ * <p>Each ID is a 64-bit value laid out as 41 bits of milliseconds since {@link #EPOCH_MILLIS},
+ * 12 bits of per-millisecond sequence and 10 bits of node ID, rendered as {@code TXN-} plus 16
+ * upper-case hex digits. The time and sequence bits form one counter that is advanced with a
+ * CAS to {@code max(last + 1, now)}: more than 4096 IDs in a millisecond borrow from the next
+ * millisecond, and a clock that steps backwards cannot produce a repeat.
+ */
+@Component
+public class TransactionIdGenerator {
+
+    static final long EPOCH_MILLIS = 1_735_689_600_000L; // 2025-01-01T00:00:00Z
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final String PREFIX = "TXN-";
+
+    private final Clock clock;
+    private final long nodeId;
+    private final AtomicLong lastTick = new AtomicLong();
+
+    @Autowired
+    public TransactionIdGenerator(@Value("${invoice.node.id:0}") int nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    TransactionIdGenerator(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    public long nextId() {
+        long nowTick = (clock.millis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long prev;
+        long next;
+        do {
+            prev = lastTick.get();
+            next = Math.max(prev + 1, nowTick);
+        } while (!lastTick.compareAndSet(prev, next));
+        return next << NODE_BITS | nodeId;
+    }
+
+    public String nextTransactionId() {
+        return format(nextId());
+    }
+
+    static String format(long id) {
+        char[] chars = new char[PREFIX.length() + 16];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = HEX[(int) (id & 0xF)];
+            id >>>= 4;
+        }
+        return new String(chars);
+    }
+}
@@ -1,13 +1,39 @@
 package com.example.invoice_generator;
 
+import com.example.invoice_generator.services.DealerRenderScheduler;
+import com.example.invoice_generator.services.RenderPool;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class InvoiceGeneratorApplicationTests {
 
+	@Autowired
+	private AsyncTaskExecutor applicationTaskExecutor;
+
+	@Autowired
+	private RenderPool renderPool;
+
+	@Autowired
+	private DealerRenderScheduler scheduler;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void streamingResponsesRunOnVirtualThreadsAndRenderSlotsMatchThePool() throws Exception {
+		assertThat(applicationTaskExecutor.submit(() -> Thread.currentThread().isVirtual())
+				.get(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(scheduler.getSlots()).isEqualTo(renderPool.getThreads());
+	}
+
 }
@@ -0,0 +1,33 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.exception.AdmissionRejectedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionLimiterTests {
+
+	@Test
+	void backgroundWorkTimedOutInTheRenderQueueQueuesAgainWithoutCuttingTheLimit() {
+		AdmissionLimiter limiter = new AdmissionLimiter(InvoiceMetrics.detached(), 8, 1, 16,
+				Duration.ofMillis(50), 0.5, DataSize.ofMegabytes(1), DataSize.ofKilobytes(1), DataSize.ofMegabytes(64));
+		AtomicInteger attempts = new AtomicInteger();
+
+		String result = limiter.callWhenAdmitted(() -> {
+			if (attempts.incrementAndGet() < 4) {
+				throw new AdmissionRejectedException("Timed out waiting for a render slot", 1);
+			}
+			return "rendered";
+		});
+
+		assertThat(result).isEqualTo("rendered");
+		assertThat(attempts.get()).isEqualTo(4);
+		assertThat(limiter.getInFlight()).isZero();
+		assertThat(limiter.getReservedBytes()).isZero();
+		assertThat(limiter.getLimit()).isEqualTo(8);
+	}
+}
@@ -0,0 +1,42 @@
+package com.example.invoice_generator.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContainedPathTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void resolvesFilesInsideTheDirectory() throws Exception {
+		Path inside = Files.createDirectories(dir.resolve("import/2026"));
+		Files.writeString(inside.resolve("dealers.csv"), "dealerId");
+
+		assertThat(ContainedPath.resolve(dir.resolve("import"), "2026/dealers.csv", "Catalog CSV"))
+				.isEqualTo(inside.toRealPath().resolve("dealers.csv"));
+	}
+
+	@Test
+	void rejectsParentReferencesAndSymbolicLinksOutOfTheDirectory() throws Exception {
+		Path directory = Files.createDirectories(dir.resolve("import"));
+		Path secret = Files.writeString(dir.resolve("secret.csv"), "secret");
+		Files.createSymbolicLink(directory.resolve("link.csv"), secret);
+		Files.createSymbolicLink(directory.resolve("up"), dir);
+
+		assertThatThrownBy(() -> ContainedPath.resolve(directory, "../secret.csv", "Catalog CSV"))
+				.isInstanceOf(IllegalArgumentException.class).hasMessageContaining("must be inside");
+		assertThatThrownBy(() -> ContainedPath.resolve(directory, "link.csv", "Catalog CSV"))
+				.isInstanceOf(IllegalArgumentException.class).hasMessageContaining("must be inside");
+		assertThatThrownBy(() -> ContainedPath.resolve(directory, "up/secret.csv", "Catalog CSV"))
+				.isInstanceOf(IllegalArgumentException.class).hasMessageContaining("must be inside");
+		assertThatThrownBy(() -> ContainedPath.resolve(directory, "missing.csv", "Catalog CSV"))
+				.isInstanceOf(IllegalArgumentException.class).hasMessageContaining("not found");
+	}
+}
@@ -0,0 +1,113 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.exception.AdmissionRejectedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DealerRenderSchedulerTests {
+
+	@Test
+	void waitingDealersAreServedInProportionToTheirWeights() throws Exception {
+		DealerRenderScheduler scheduler = new DealerRenderScheduler(InvoiceMetrics.detached(), 1,
+				Map.of("D001", 2), 1, Map.of(), 0, Duration.ofSeconds(10));
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		List<Thread> threads = new ArrayList<>();
+
+		DealerRenderScheduler.Slot held = scheduler.acquire("D000", 1);
+		for (String dealerId : List.of("D001", "D001", "D001", "D001", "D001", "D001", "D002", "D002", "D002")) {
+			int waiting = scheduler.getWaiting();
+			Thread thread = Thread.ofPlatform().start(() -> {
+				try (DealerRenderScheduler.Slot slot = scheduler.acquire(dealerId, 1)) {
+					order.add(dealerId);
+				}
+			});
+			threads.add(thread);
+			awaitWaiting(scheduler, waiting + 1);
+		}
+		held.close();
+		for (Thread thread : threads) {
+			thread.join(10_000);
+		}
+
+		assertThat(order).containsExactly("D001", "D001", "D002", "D001", "D001", "D002", "D001", "D001", "D002");
+		assertThat(scheduler.getRunning()).isZero();
+	}
+
+	@Test
+	void dealerAtItsCapLeavesFreeSlotsToOthers() throws Exception {
+		DealerRenderScheduler scheduler = new DealerRenderScheduler(InvoiceMetrics.detached(), 3,
+				Map.of(), 1, Map.of("D001", 1), 0, Duration.ofSeconds(10));
+
+		DealerRenderScheduler.Slot first = scheduler.acquire("D001", 1);
+		CompletableFuture<DealerRenderScheduler.Slot> second =
+				CompletableFuture.supplyAsync(() -> scheduler.acquire("D001", 1));
+		awaitWaiting(scheduler, 1);
+
+		try (DealerRenderScheduler.Slot other = scheduler.acquire("D002", 1)) {
+			assertThat(scheduler.getRunning()).isEqualTo(2);
+			assertThat(second).isNotDone();
+		}
+		first.close();
+		second.get(10, TimeUnit.SECONDS).close();
+		assertThat(scheduler.getRunning()).isZero();
+	}
+
+	@Test
+	void givesUpAfterTheMaximumWait() {
+		DealerRenderScheduler scheduler = new DealerRenderScheduler(InvoiceMetrics.detached(), 1,
+				Map.of(), 1, Map.of(), 0, Duration.ofMillis(50));
+
+		try (DealerRenderScheduler.Slot held = scheduler.acquire("D001", 1)) {
+			assertThatThrownBy(() -> scheduler.acquire("D002", 1))
+					.isInstanceOf(AdmissionRejectedException.class);
+			assertThat(scheduler.getWaiting()).isZero();
+		}
+		scheduler.acquire("D002", 1).close();
+	}
+
+	@Test
+	void dealerChargedForATransferredSlotRepaysItBeforeItsNextTurn() throws Exception {
+		DealerRenderScheduler scheduler = new DealerRenderScheduler(InvoiceMetrics.detached(), 1,
+				Map.of(), 1, Map.of(), 0, Duration.ofSeconds(10));
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		List<Thread> threads = new ArrayList<>();
+
+		DealerRenderScheduler.Slot held = scheduler.acquire("D001", 1);
+		held.transfer("D002", 3);
+		for (String dealerId : List.of("D002", "D002", "D003", "D003")) {
+			int waiting = scheduler.getWaiting();
+			Thread thread = Thread.ofPlatform().start(() -> {
+				try (DealerRenderScheduler.Slot slot = scheduler.acquire(dealerId, 1)) {
+					order.add(dealerId);
+				}
+			});
+			threads.add(thread);
+			awaitWaiting(scheduler, waiting + 1);
+		}
+		held.close();
+		for (Thread thread : threads) {
+			thread.join(10_000);
+		}
+
+		assertThat(order).containsExactly("D003", "D003", "D002", "D002");
+		assertThat(scheduler.getRunning()).isZero();
+	}
+
+	private static void awaitWaiting(DealerRenderScheduler scheduler, int expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (scheduler.getWaiting() < expected && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertThat(scheduler.getWaiting()).isEqualTo(expected);
+	}
+}
@@ -0,0 +1,107 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.TaxQuote;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GstEngineTests {
+
+	private final GstEngine engine = new GstEngine(List.of(
+			"# test rules",
+			"vehicleClass,gstRate,cessRate",
+			"SMALL_CAR_PETROL,28,1",
+			"SUV,28,22",
+			"EV,5,0",
+			"*,18,0"));
+
+	@Test
+	void intraStateSplitsIntoCgstAndSgst() {
+		TaxQuote quote = engine.quote(Money.toPaise(850_000.00), "SMALL_CAR_PETROL", false);
+		assertThat(quote.cgstPaise()).isEqualTo(11_900_000);
+		assertThat(quote.sgstPaise()).isEqualTo(11_900_000);
+		assertThat(quote.igstPaise()).isZero();
+		assertThat(quote.cessPaise()).isEqualTo(850_000);
+		assertThat(quote.totalPaise()).isEqualTo(85_000_000 + 23_800_000 + 850_000);
+	}
+
+	@Test
+	void interStateChargesIgstAndCessByClass() {
+		TaxQuote quote = engine.quote(Money.toPaise(1_650_000.00), "SUV", true);
+		assertThat(quote.cgstPaise()).isZero();
+		assertThat(quote.igstPaise()).isEqualTo(46_200_000);
+		assertThat(quote.cessRateBps()).isEqualTo(2_200);
+		assertThat(quote.cessPaise()).isEqualTo(36_300_000);
+		assertThat(quote.taxPaise()).isEqualTo(46_200_000 + 36_300_000);
+	}
+
+	@Test
+	void unknownAndMissingClassesUseFallbackRow() {
+		assertThat(engine.quote(10_000, "SPACESHIP", false).gstRateBps()).isEqualTo(1_800);
+		assertThat(engine.quote(10_000, null, true).igstPaise()).isEqualTo(1_800);
+	}
+
+	@Test
+	void eachComponentRoundsHalfUpToThePaisa() {
+		// 3.33 at 28%: each 14% half is 46.62 paise -> 47; the full rate is 93.24 -> 93.
+		TaxQuote intra = engine.quote(333, "SMALL_CAR_PETROL", false);
+		assertThat(intra.cgstPaise()).isEqualTo(47);
+		assertThat(intra.cessPaise()).isEqualTo(3);
+		assertThat(intra.totalPaise()).isEqualTo(333 + 47 + 47 + 3);
+		assertThat(engine.quote(333, "SMALL_CAR_PETROL", true).igstPaise()).isEqualTo(93);
+	}
+
+	@Test
+	void bulkQuoteMatchesSingleQuotes() {
+		String[] classes = {"SMALL_CAR_PETROL", "SUV", "EV", null, "SUV"};
+		long[] base = {85_000_000, 165_000_001, 99_999, 1, 0};
+		int[] classIndexes = new int[classes.length];
+		for (int i = 0; i < classes.length; i++) {
+			classIndexes[i] = engine.classIndex(classes[i]);
+		}
+		for (boolean interState : new boolean[]{false, true}) {
+			TaxQuotes quotes = new TaxQuotes(classes.length);
+			engine.quote(base, classIndexes, interState, quotes);
+			for (int i = 0; i < classes.length; i++) {
+				TaxQuote single = engine.quote(base[i], classes[i], interState);
+				assertThat(quotes.cgstPaise()[i]).isEqualTo(single.cgstPaise());
+				assertThat(quotes.sgstPaise()[i]).isEqualTo(single.sgstPaise());
+				assertThat(quotes.igstPaise()[i]).isEqualTo(single.igstPaise());
+				assertThat(quotes.cessPaise()[i]).isEqualTo(single.cessPaise());
+				assertThat(quotes.totalPaise()[i]).isEqualTo(single.totalPaise());
+			}
+		}
+	}
+
+	@Test
+	void placeOfSupplyDefaultsToDealerState() {
+		assertThat(GstEngine.isInterState("Maharashtra", null)).isFalse();
+		assertThat(GstEngine.isInterState("Maharashtra", " maharashtra ")).isFalse();
+		assertThat(GstEngine.isInterState("Maharashtra", "Delhi")).isTrue();
+	}
+
+	@Test
+	void formatsPaiseWithIndianGrouping() {
+		assertThat(Money.format(137_500_000)).isEqualTo("₹ 13,75,000.00");
+		assertThat(Money.format(100_000)).isEqualTo("₹ 1,000.00");
+		assertThat(Money.format(99_999)).isEqualTo("₹ 999.99");
+		assertThat(Money.format(5)).isEqualTo("₹ 0.05");
+		assertThat(Money.format(-12_345_678_901L)).isEqualTo("₹ -12,34,56,789.01");
+		assertThat(Money.formatRate(900)).isEqualTo("9");
+		assertThat(Money.formatRate(250)).isEqualTo("2.5");
+		assertThat(Money.formatRate(1_205)).isEqualTo("12.05");
+	}
+
+	@Test
+	void rejectsRuleTablesThatCannotBeCompiled() {
+		assertThatThrownBy(() -> new GstEngine(List.of("vehicleClass,gstRate,cessRate", "SUV,28,0")))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new GstEngine(List.of("vehicleClass,gstRate,cessRate", "*,0.05,0")))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new GstEngine(List.of("vehicleClass,gstRate,cessRate", "*,18,0", "*,28,0")))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.invoice_generator.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImportCsvReaderTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void resumesFromRowOffset() throws Exception {
+		Path file = dir.resolve("rows.csv");
+		Files.writeString(file, """
+				customerName,vehicleId,dealerId,outputProfile\r
+				"Sharma, Aarav",V001,D001,FAST\r
+				\r
+				Diya Nair,V002,D002,\r
+				"Rohan ""RJ"" Iyer",V003,D001,SMALLEST
+				""", StandardCharsets.UTF_8);
+
+		List<ImportCsvReader.Row> rows = new ArrayList<>();
+		try (ImportCsvReader reader = ImportCsvReader.open(file, 0, 0)) {
+			for (ImportCsvReader.Row row = reader.next(); row != null; row = reader.next()) {
+				rows.add(row);
+			}
+		}
+		assertThat(rows).extracting(ImportCsvReader.Row::index).containsExactly(0L, 1L, 2L);
+		assertThat(rows.get(0).customerName()).isEqualTo("Sharma, Aarav");
+		assertThat(rows.get(0).outputProfile()).isEqualTo("FAST");
+		assertThat(rows.get(1).outputProfile()).isNull();
+		assertThat(rows.get(1).customerState()).isNull();
+		assertThat(rows.get(2).customerName()).isEqualTo("Rohan \"RJ\" Iyer");
+		assertThat(rows.get(2).endOffset()).isEqualTo(Files.size(file));
+
+		try (ImportCsvReader reader = ImportCsvReader.open(file, rows.get(0).endOffset(), 1)) {
+			assertThat(reader.next()).isEqualTo(rows.get(1));
+			assertThat(reader.next()).isEqualTo(rows.get(2));
+			assertThat(reader.next()).isNull();
+		}
+	}
+
+	@Test
+	void rejectsHeaderWithoutRequiredColumn() throws Exception {
+		Path file = dir.resolve("rows.csv");
+		Files.writeString(file, "dealerId,vehicleId\nD001,V001\n", StandardCharsets.UTF_8);
+
+		assertThatThrownBy(() -> ImportCsvReader.open(file, 0, 0))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("customerName");
+	}
+}
@@ -0,0 +1,50 @@
+package com.example.invoice_generator.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportJournalTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void replaysRowsAfterCheckpointAndDropsTornLine() throws Exception {
+		Path file = dir.resolve("journal.csv");
+		try (ImportJournal journal = ImportJournal.open(file, 0)) {
+			journal.reserved(0, "INV-20260314-000001", "TXN1");
+			journal.done(0, "INV-20260314-000001", 4096);
+			journal.reserved(1, "INV-20260314-000002", "TXN2");
+			journal.failed(2, "Vehicle not found: \"V9\", row skipped");
+			journal.reserved(3, "INV-20260314-000004", "TXN4");
+		}
+		// A kill in the middle of writing a line.
+		Files.writeString(file, "D,3,INV-2026", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+		try (ImportJournal journal = ImportJournal.open(file, 1)) {
+			assertThat(journal.replayed(0)).isNull();
+			assertThat(journal.replayed(1)).satisfies(entry -> {
+				assertThat(entry.settled()).isFalse();
+				assertThat(entry.invoiceNumber()).isEqualTo("INV-20260314-000002");
+				assertThat(entry.transactionId()).isEqualTo("TXN2");
+			});
+			assertThat(journal.replayed(2)).satisfies(entry -> {
+				assertThat(entry.type()).isEqualTo(ImportJournal.FAILED);
+				assertThat(entry.error()).isEqualTo("Vehicle not found: \"V9\", row skipped");
+			});
+			assertThat(journal.replayed(3).type()).isEqualTo(ImportJournal.RESERVED);
+			journal.done(3, "INV-20260314-000004", 2048);
+		}
+
+		try (ImportJournal journal = ImportJournal.open(file, 3)) {
+			assertThat(journal.replayed(3).bytes()).isEqualTo(2048);
+		}
+	}
+}
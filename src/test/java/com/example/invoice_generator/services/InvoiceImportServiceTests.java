@@ -0,0 +1,96 @@
+package com.example.invoice_generator.services;
+
+import com.example.invoice_generator.dto.InvoiceImport;
+import com.example.invoice_generator.dto.PdfOutputProfile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvoiceImportServiceTests {
+
+	private static final int ROWS = 20;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void importCutOffByShutdownResumesOnTheNextStart() throws Exception {
+		StringBuilder csv = new StringBuilder("dealerId,vehicleId,customerName\n");
+		for (int i = 0; i < ROWS; i++) {
+			csv.append("D001,V001,Customer ").append(i).append('\n');
+		}
+		Files.writeString(Files.createDirectories(dir.resolve("incoming")).resolve("rows.csv"), csv);
+		InvoiceStore store = new InvoiceStore(true, dir.resolve("invoices").toString());
+		DealerRenderScheduler scheduler = new DealerRenderScheduler(InvoiceMetrics.detached(), 1, Map.of(), 1,
+				Map.of(), 1, Duration.ofMinutes(1));
+		InvoiceService invoiceService = invoiceService(scheduler);
+
+		// Holding the only render slot keeps the first rows in flight until shutdown cuts them off.
+		DealerRenderScheduler.Slot held = scheduler.acquire("D001", 1);
+		InvoiceImportService first = importService(invoiceService, store);
+		String id = first.start("rows.csv").getImportId();
+		await(() -> status(first, id) == InvoiceImport.Status.RUNNING);
+		first.shutdown();
+		held.close();
+
+		InvoiceImportService next = importService(invoiceService, store);
+		try {
+			next.resumeInterrupted();
+			await(() -> status(next, id) == InvoiceImport.Status.COMPLETED);
+			InvoiceImport resumed = next.find(id).orElseThrow();
+			assertThat(resumed.getRendered() + resumed.getRecovered()).isEqualTo(ROWS);
+			assertThat(resumed.getFailed()).isZero();
+		} finally {
+			next.shutdown();
+		}
+	}
+
+	private InvoiceService invoiceService(DealerRenderScheduler scheduler) {
+		InvoiceMetrics metrics = InvoiceMetrics.detached();
+		return new InvoiceService(
+				new PDFGenerator(new LayoutFragmentCache(), new InvoiceTemplateRegistry(new ObjectMapper(), ""), metrics),
+				new QRCodeGenerator(),
+				new CatalogService(dir.resolve("catalog.bin").toString(), "", "", dir.resolve("catalog").toString()),
+				new InvoiceNumberAllocator(dir.resolve("invoice-number.seq").toString(), 1000, 0,
+						InvoiceNumberAllocator.DEFAULT_NODE_RANGE),
+				new TransactionIdGenerator(0),
+				new PdfOutputProfiles(PdfOutputProfile.BALANCED, ""),
+				new GstEngine(new ClassPathResource("tax/gst-rates.csv")),
+				scheduler,
+				RenderPool.callerRuns(),
+				InvoiceLogSampler.silent(),
+				metrics,
+				QRCodeRenderMode.VECTOR);
+	}
+
+	private InvoiceImportService importService(InvoiceService invoiceService, InvoiceStore store) {
+		AdmissionLimiter admissionLimiter = new AdmissionLimiter(InvoiceMetrics.detached(), 8, 1, 16,
+				Duration.ofSeconds(1), 0.9, DataSize.ofMegabytes(1), DataSize.ofKilobytes(128), DataSize.ofMegabytes(64));
+		return new InvoiceImportService(invoiceService, store, admissionLimiter, InvoiceMetrics.detached(),
+				new ObjectMapper().findAndRegisterModules(), RenderPool.callerRuns(),
+				dir.resolve("imports").toString(), dir.resolve("incoming").toString(), 1, Duration.ofSeconds(1),
+				true, Duration.ofMillis(200));
+	}
+
+	private static InvoiceImport.Status status(InvoiceImportService service, String id) {
+		return service.find(id).map(InvoiceImport::getStatus).orElse(null);
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime() - deadline).as("timed out").isNegative();
+			Thread.sleep(10);
+		}
+	}
+}
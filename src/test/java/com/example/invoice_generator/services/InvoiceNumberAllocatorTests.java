@@ -0,0 +1,136 @@
+package com.example.invoice_generator.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InvoiceNumberAllocatorTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void concurrentAllocationsAreUnique() throws Exception {
+		InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(dir.resolve("seq"), 100,
+				fixedClock("2026-03-14T10:00:00Z"));
+		Set<String> numbers = ConcurrentHashMap.newKeySet();
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(pool.submit(() -> {
+					for (int i = 0; i < 5_000; i++) {
+						numbers.add(allocator.nextInvoiceNumber());
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertThat(numbers).hasSize(40_000);
+		assertThat(numbers).allMatch(n -> n.startsWith("INV-20260314-"));
+	}
+
+	@Test
+	void restartResumesAfterLeasedBlock() {
+		Clock clock = fixedClock("2026-03-14T10:00:00Z");
+		InvoiceNumberAllocator first = new InvoiceNumberAllocator(dir.resolve("seq"), 10, clock);
+		assertThat(first.nextInvoiceNumber()).isEqualTo("INV-20260314-000001");
+		assertThat(first.nextInvoiceNumber()).isEqualTo("INV-20260314-000002");
+
+		InvoiceNumberAllocator restarted = new InvoiceNumberAllocator(dir.resolve("seq"), 10, clock);
+		assertThat(restarted.nextInvoiceNumber()).isEqualTo("INV-20260314-000011");
+	}
+
+	@Test
+	void numberingRestartsOnNewDay() {
+		MutableClock clock = new MutableClock(Instant.parse("2026-03-14T23:59:59Z"));
+		InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(dir.resolve("seq"), 10, clock);
+		allocator.nextInvoiceNumber();
+		allocator.nextInvoiceNumber();
+
+		clock.instant = Instant.parse("2026-03-15T00:00:01Z");
+		assertThat(allocator.nextInvoiceNumber()).isEqualTo("INV-20260315-000001");
+	}
+
+	@Test
+	void nodesNumberWithinTheirOwnRange() {
+		Clock clock = fixedClock("2026-03-14T10:00:00Z");
+		InvoiceNumberAllocator node3 = new InvoiceNumberAllocator(dir.resolve("seq3"), 4, 3, 10, clock);
+		List<String> numbers = new ArrayList<>();
+		for (int i = 0; i < 9; i++) {
+			numbers.add(node3.nextInvoiceNumber());
+		}
+		assertThat(numbers).first().isEqualTo("INV-20260314-000031");
+		assertThat(numbers).last().isEqualTo("INV-20260314-000039");
+		assertThat(numbers).allMatch(n -> node3.issuingNode(n).getAsInt() == 3);
+		assertThatThrownBy(node3::nextInvoiceNumber).isInstanceOf(IllegalStateException.class);
+
+		InvoiceNumberAllocator node0 = new InvoiceNumberAllocator(dir.resolve("seq0"), 4, 0, 10, clock);
+		assertThat(node0.issuingNode(node0.nextInvoiceNumber())).hasValue(0);
+		assertThat(node0.issuingNode("custom-42")).isEmpty();
+	}
+
+	@Test
+	void transactionIdsIncreaseWhenClockStandsStillOrStepsBack() {
+		MutableClock clock = new MutableClock(Instant.parse("2026-03-14T10:00:00Z"));
+		TransactionIdGenerator generator = new TransactionIdGenerator(7, clock);
+		long previous = generator.nextId();
+		for (int i = 0; i < 10_000; i++) {
+			if (i == 5_000) {
+				clock.instant = clock.instant.minusSeconds(60);
+			}
+			long next = generator.nextId();
+			assertThat(next).isGreaterThan(previous);
+			assertThat(next & TransactionIdGenerator.MAX_NODE_ID).isEqualTo(7);
+			previous = next;
+		}
+		assertThat(TransactionIdGenerator.format(previous)).matches("TXN-[0-9A-F]{16}");
+	}
+
+	private static Clock fixedClock(String instant) {
+		return Clock.fixed(Instant.parse(instant), ZoneOffset.UTC);
+	}
+
+	private static final class MutableClock extends Clock {
+		volatile Instant instant;
+
+		MutableClock(Instant instant) {
+			this.instant = instant;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+	}
+}
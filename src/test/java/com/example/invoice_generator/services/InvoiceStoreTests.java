@@ -0,0 +1,46 @@
+package com.example.invoice_generator.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InvoiceStoreTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void concurrentStoreOfTheSameNumberKeepsTheFirstPublished() throws Exception {
+		InvoiceStore store = new InvoiceStore(true, dir.toString());
+		String number = "INV-20260314-000001";
+
+		// The nested store finishes while the outer one is still writing, as a racing thread would.
+		assertThatThrownBy(() -> store.store(number, out -> {
+			write(out, "outer");
+			store.store(number, inner -> write(inner, "inner"));
+		})).isInstanceOf(IllegalStateException.class);
+
+		StoredInvoice stored = store.find(number).orElseThrow();
+		assertThat(Files.readString(stored.path(), StandardCharsets.US_ASCII)).isEqualTo("inner");
+		try (var tmp = Files.list(dir.resolve("tmp"))) {
+			assertThat(tmp).isEmpty();
+		}
+	}
+
+	private static void write(OutputStream out, String content) {
+		try {
+			out.write(content.getBytes(StandardCharsets.US_ASCII));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
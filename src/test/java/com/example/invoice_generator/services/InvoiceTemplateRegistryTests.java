@@ -0,0 +1,101 @@
+package com.example.invoice_generator.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InvoiceTemplateRegistryTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void compilesTemplatesAndFillsInDefaults() throws Exception {
+		write("acme.json", "{\"dealers\": [\"D001\"], \"title\": \"ACME MOTORS\", \"primaryColor\": \"#FF8000\"}");
+
+		InvoiceTemplateRegistry registry = registry();
+		InvoiceTemplate acme = registry.templateFor("D001");
+
+		assertThat(acme.id()).isEqualTo("acme");
+		assertThat(acme.title()).isEqualTo("ACME MOTORS");
+		assertThat(acme.primaryColor().getColorValue()).containsExactly(1f, 128 / 255f, 0f);
+		assertThat(acme.subtitle()).isEqualTo("Original for Buyer");
+		assertThat(acme.terms()).startsWith("1. This invoice is computer generated");
+		assertThat(acme.logo()).isNull();
+		assertThat(registry.templateFor("D002").id()).isEqualTo(InvoiceTemplateRegistry.DEFAULT_TEMPLATE_ID);
+	}
+
+	@Test
+	void unchangedTemplatesKeepTheirInstanceAndVersionAcrossReloads() throws Exception {
+		write("acme.json", "{\"dealers\": [\"D001\"]}");
+		write("zen.json", "{\"dealers\": [\"D002\"], \"title\": \"ZEN\"}");
+		InvoiceTemplateRegistry registry = registry();
+		InvoiceTemplate acme = registry.templateFor("D001");
+		InvoiceTemplate zen = registry.templateFor("D002");
+
+		write("zen.json", "{\"dealers\": [\"D002\"], \"title\": \"ZEN CARS\"}");
+		registry.reload();
+
+		assertThat(registry.templateFor("D001")).isSameAs(acme);
+		assertThat(registry.templateFor("D002").version()).isNotEqualTo(zen.version());
+		assertThat(registry.templateFor("D002").title()).isEqualTo("ZEN CARS");
+	}
+
+	@Test
+	void rejectsADealerAssignedToTwoTemplates() throws Exception {
+		write("acme.json", "{\"dealers\": [\"D001\"]}");
+		write("zen.json", "{\"dealers\": [\"D001\"]}");
+
+		assertThatThrownBy(this::registry)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Dealer D001 is assigned to templates");
+	}
+
+	@Test
+	void rejectsAnInvalidColour() throws Exception {
+		write("acme.json", "{\"shadeColor\": \"#12345\"}");
+
+		assertThatThrownBy(this::registry)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Invalid colour in template acme: #12345");
+	}
+
+	@Test
+	void rejectsALogoOutsideTheTemplateDirectory() throws Exception {
+		Path templates = Files.createDirectories(dir.resolve("templates"));
+		Files.write(dir.resolve("logo.png"), new byte[] {1, 2, 3});
+		Files.writeString(templates.resolve("acme.json"), "{\"logo\": \"../logo.png\"}");
+
+		assertThatThrownBy(() -> new InvoiceTemplateRegistry(new ObjectMapper(), templates.toString()))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("must be inside");
+	}
+
+	@Test
+	void failedReloadKeepsTheCurrentTemplates() throws Exception {
+		write("acme.json", "{\"dealers\": [\"D001\"], \"title\": \"ACME MOTORS\"}");
+		InvoiceTemplateRegistry registry = registry();
+		InvoiceTemplate acme = registry.templateFor("D001");
+		InvoiceTemplateRegistry.TemplateStats stats = registry.stats();
+
+		write("acme.json", "{\"dealers\": [\"D001\"], \"title\": ");
+		assertThatThrownBy(registry::reload).isInstanceOf(IllegalArgumentException.class);
+
+		assertThat(registry.templateFor("D001")).isSameAs(acme);
+		assertThat(registry.stats()).isSameAs(stats);
+	}
+
+	private InvoiceTemplateRegistry registry() {
+		return new InvoiceTemplateRegistry(new ObjectMapper(), dir.toString());
+	}
+
+	private void write(String name, String json) throws Exception {
+		Files.writeString(dir.resolve(name), json);
+	}
+}
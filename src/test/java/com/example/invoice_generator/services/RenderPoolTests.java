@@ -0,0 +1,226 @@
+package com.example.invoice_generator.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RenderPoolTests {
+
+	@Test
+	void rendersOnPlatformThreadsWhileCallersRunOnVirtualThreads() throws Exception {
+		RenderPool pool = new RenderPool(2);
+		try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+			Thread renderThread = callers.submit(() -> renderOn(pool, Thread::currentThread)).get(10, TimeUnit.SECONDS);
+			assertThat(renderThread.isVirtual()).isFalse();
+			assertThat(renderThread.getName()).startsWith("invoice-render-");
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void manyCallersNeverRunMoreRendersThanThreads() throws Exception {
+		RenderPool pool = new RenderPool(2);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				int n = i;
+				results.add(callers.submit(() -> renderOn(pool, () -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					Thread.sleep(2);
+					running.decrementAndGet();
+					return n;
+				})));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				assertThat(results.get(i).get(10, TimeUnit.SECONDS)).isEqualTo(i);
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertThat(maxRunning.get()).isEqualTo(2);
+	}
+
+	@Test
+	void rethrowsRuntimeExceptionsUnchanged() {
+		RenderPool pool = new RenderPool(1);
+		try {
+			assertThatThrownBy(() -> renderOn(pool, () -> {
+				throw new IllegalArgumentException("Vehicle not found: V999");
+			})).isInstanceOf(IllegalArgumentException.class).hasMessage("Vehicle not found: V999");
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void streamsOutputWhileRenderingWithBoundedBuffering() {
+		RenderPool pool = new RenderPool(1);
+		AtomicLong produced = new AtomicLong();
+		AtomicLong maxAhead = new AtomicLong();
+		long total = 4L * 1024 * 1024;
+		ByteArrayOutputStream received = new ByteArrayOutputStream();
+		OutputStream out = new OutputStream() {
+			long consumed;
+
+			@Override
+			public void write(int b) {
+				write(new byte[] {(byte) b}, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				maxAhead.accumulateAndGet(produced.get() - consumed, Math::max);
+				consumed += len;
+				received.write(b, off, len);
+			}
+		};
+		try {
+			long written = pool.stream(target -> {
+				byte[] block = new byte[1000];
+				for (long sent = 0; sent < total; sent += block.length) {
+					Arrays.fill(block, (byte) (sent / block.length));
+					int length = (int) Math.min(block.length, total - sent);
+					try {
+						target.write(block, 0, length);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+					produced.addAndGet(length);
+				}
+			}, out);
+			assertThat(written).isEqualTo(total);
+			assertThat(received.size()).isEqualTo((int) total);
+			assertThat(received.toByteArray()[(int) total - 1]).isEqualTo((byte) ((total - 1) / 1000));
+			assertThat(maxAhead.get()).isLessThanOrEqualTo((RenderPool.PIPE_CHUNKS + 2L) * RenderPool.CHUNK_SIZE);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void timeBlockedOnASlowReaderIsNotRenderTime() {
+		RenderPool pool = new RenderPool(1);
+		OutputStream slow = new OutputStream() {
+			@Override
+			public void write(int b) {
+				write(new byte[] {(byte) b}, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				try {
+					Thread.sleep(20);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		long[] wallAndRender = new long[2];
+		try {
+			pool.stream(target -> {
+				long wallStart = System.nanoTime();
+				long renderStart = RenderClock.now();
+				try {
+					for (int i = 0; i < RenderPool.PIPE_CHUNKS + 10; i++) {
+						target.write(new byte[RenderPool.CHUNK_SIZE]);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				wallAndRender[0] = System.nanoTime() - wallStart;
+				wallAndRender[1] = RenderClock.now() - renderStart;
+			}, slow);
+		} finally {
+			pool.shutdown();
+		}
+		assertThat(wallAndRender[0]).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(150));
+		assertThat(wallAndRender[1]).isLessThan(wallAndRender[0] / 2);
+	}
+
+	@Test
+	void renderGivesUpWhenItsOutputIsNotReadAndFreesItsThread() throws Exception {
+		RenderPool pool = new RenderPool(1, Duration.ofMillis(100));
+		CountDownLatch renderFailed = new CountDownLatch(1);
+		OutputStream stalled = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				try {
+					renderFailed.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					throw new InterruptedIOException();
+				}
+			}
+		};
+		try {
+			assertThatThrownBy(() -> pool.stream(target -> {
+				try {
+					while (true) {
+						target.write(new byte[RenderPool.CHUNK_SIZE]);
+					}
+				} catch (IOException e) {
+					renderFailed.countDown();
+					throw new UncheckedIOException(e);
+				}
+			}, stalled)).isInstanceOf(UncheckedIOException.class).hasMessageContaining("Timed out");
+			assertThat(renderOn(pool, () -> "free")).isEqualTo("free");
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void threadCountIsConfigurableAndDefaultsToProcessors() {
+		RenderPool sized = new RenderPool(true, 3, Duration.ofSeconds(30));
+		RenderPool defaulted = new RenderPool(true, 0, Duration.ofSeconds(30));
+		try {
+			assertThat(sized.getThreads()).isEqualTo(3);
+			assertThat(defaulted.getThreads()).isEqualTo(Runtime.getRuntime().availableProcessors());
+		} finally {
+			sized.shutdown();
+			defaulted.shutdown();
+		}
+	}
+
+	@Test
+	void disabledPoolRunsOnTheCallingThread() {
+		Thread caller = Thread.currentThread();
+		assertThat(renderOn(new RenderPool(false, 4, Duration.ofSeconds(30)), Thread::currentThread)).isSameAs(caller);
+		assertThat(renderOn(RenderPool.callerRuns(), Thread::currentThread)).isSameAs(caller);
+	}
+
+	private static <T> T renderOn(RenderPool pool, Callable<T> work) {
+		List<T> result = new ArrayList<>();
+		pool.stream(target -> {
+			try {
+				result.add(work.call());
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}, OutputStream.nullOutputStream());
+		return result.get(0);
+	}
+}